@@ -0,0 +1,49 @@
+package org.minis.benchmark;
+
+import org.minis.aot.AotBeanFactories;
+import org.minis.benchmark.BenchmarkConfigGenerator.Shape;
+import org.minis.context.ClassPathXmlApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same 1000 beans wired from XML with reflection, and by the factory generated for
+ * {@value BenchmarkConfigGenerator#AOT_CONFIG} at build time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AotStartupBenchmark {
+    private static final String XML_CONFIG = Shape.CYCLE.getConfigLocation(1_000);
+
+    @Setup
+    public void setUp() {
+        if (AotBeanFactories.load(BenchmarkConfigGenerator.AOT_CONFIG) == null) {
+            throw new IllegalStateException("No generated bean factory for " + BenchmarkConfigGenerator.AOT_CONFIG
+                    + ", build the benchmarks with mvn package");
+        }
+    }
+
+    @Benchmark
+    public ClassPathXmlApplicationContext xml() {
+        return new ClassPathXmlApplicationContext(XML_CONFIG);
+    }
+
+    @Benchmark
+    public ClassPathXmlApplicationContext aot() {
+        return new ClassPathXmlApplicationContext(BenchmarkConfigGenerator.AOT_CONFIG);
+    }
+}
@@ -0,0 +1,82 @@
+package org.minis.benchmark;
+
+import org.minis.beans.BeansException;
+import org.minis.benchmark.beans.Hub;
+import org.minis.beans.factory.support.BeanHandle;
+import org.minis.beans.factory.support.LambdaInstantiationStrategy;
+import org.minis.beans.factory.support.SimpleInstantiationStrategy;
+import org.minis.context.ClassPathXmlApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls on a refreshed context: warm singleton lookups, and prototype creations that instantiate and inject
+ * on every call, with either instantiation strategy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanLookupBenchmark {
+    @Param({"reflection", "lambda"})
+    private String instantiationStrategy;
+
+    private ClassPathXmlApplicationContext context;
+    private BeanHandle handle;
+
+    @Setup
+    public void setUp() throws BeansException {
+        this.context = new ClassPathXmlApplicationContext(new String[]{BenchmarkConfigGenerator.LOOKUP_CONFIG}, false);
+        this.context.getBeanFactory().setInstantiationStrategy("lambda".equals(this.instantiationStrategy)
+                ? new LambdaInstantiationStrategy() : new SimpleInstantiationStrategy());
+        this.context.refresh();
+        this.handle = this.context.getBeanHandle("node500");
+    }
+
+    @Benchmark
+    public Object singletonByName() throws BeansException {
+        return this.context.getBean("node500");
+    }
+
+    /**
+     * The same singleton through a handle resolved once, i.e. a read of the frozen table
+     */
+    @Benchmark
+    public Object singletonByHandle() throws BeansException {
+        return this.context.getBean(this.handle);
+    }
+
+    @Benchmark
+    public Hub singletonByType() throws BeansException {
+        return this.context.getBean(Hub.class);
+    }
+
+    /**
+     * A prototype with two literal properties and a reference to a singleton
+     */
+    @Benchmark
+    public Object prototype() throws BeansException {
+        return this.context.getBean("prototypeNode");
+    }
+
+    /**
+     * A prototype with {@value org.minis.benchmark.beans.ManySetters#PROPERTY_COUNT} literal properties
+     */
+    @Benchmark
+    public Object prototypeWithManySetters() throws BeansException {
+        return this.context.getBean("manySetters");
+    }
+}
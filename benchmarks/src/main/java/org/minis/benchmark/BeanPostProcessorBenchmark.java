@@ -0,0 +1,59 @@
+package org.minis.benchmark;
+
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.BeanPostProcessor;
+import org.minis.context.ClassPathXmlApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prototype creations with registered bean post processors: none, or processors that each declare one bean
+ * name other than the prototype's, or processors applying to every bean, all passing the bean through.
+ * Declared names keep the creation at the cost of no processors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeanPostProcessorBenchmark {
+    @Param({"0", "32"})
+    private int processorCount;
+
+    @Param({"true", "false"})
+    private boolean targeted;
+
+    private ClassPathXmlApplicationContext context;
+
+    @Setup
+    public void setUp() {
+        this.context = new ClassPathXmlApplicationContext(new String[]{BenchmarkConfigGenerator.LOOKUP_CONFIG}, false);
+        for (int i = 0; i < this.processorCount; i++) {
+            String[] beanNames = this.targeted ? new String[]{"node" + i} : null;
+            this.context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public String[] getBeanNames() {
+                    return beanNames;
+                }
+            });
+        }
+        this.context.refresh();
+    }
+
+    @Benchmark
+    public Object prototype() throws BeansException {
+        return this.context.getBean("prototypeNode");
+    }
+}
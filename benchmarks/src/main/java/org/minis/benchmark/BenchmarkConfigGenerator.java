@@ -0,0 +1,205 @@
+package org.minis.benchmark;
+
+import org.minis.benchmark.beans.Hub;
+import org.minis.benchmark.beans.ManySetters;
+import org.minis.benchmark.beans.Node;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes the XML configurations of the benchmarks into a classes directory at build time, so that they are
+ * loaded from the class path like any other configuration:
+ * <ul>
+ *     <li>{@code bench/<shape>-<size>.xml} for every {@link Shape} and {@link #SIZES size}</li>
+ *     <li>{@code bench/lookup.xml} with the beans of {@link BeanLookupBenchmark}</li>
+ *     <li>{@code bench/aot/cycle-1000.xml}, a copy of {@code bench/cycle-1000.xml} that gets an
+ *     ahead-of-time generated factory</li>
+ * </ul>
+ */
+public final class BenchmarkConfigGenerator {
+    public static final int[] SIZES = {10, 1_000, 50_000};
+    public static final String LOOKUP_CONFIG = "bench/lookup.xml";
+    public static final String AOT_CONFIG = "bench/aot/cycle-1000.xml";
+
+    private static final String NODE = Node.class.getName();
+
+    /**
+     * The dependency graph of a generated configuration. Referenced beans are declared before the beans
+     * referencing them where possible, so that creating a bean never recurses deeper than its group.
+     */
+    public enum Shape {
+        /**
+         * One chain through all beans, each bean referencing the previous one
+         */
+        CHAIN {
+            @Override
+            void writeBeans(StringBuilder xml, int size) {
+                for (int i = 0; i < size; i++) {
+                    writeNode(xml, "node" + i, i, i > 0 ? "node" + (i - 1) : null);
+                }
+            }
+        },
+        /**
+         * Groups of a {@link Hub} referencing {@value Hub#FAN_OUT} leaves of its own
+         */
+        FAN_OUT {
+            @Override
+            void writeBeans(StringBuilder xml, int size) {
+                int groups = size / (Hub.FAN_OUT + 1);
+                for (int g = 0; g < groups; g++) {
+                    beginBean(xml, "hub" + g, Hub.class.getName());
+                    for (int i = 0; i < Hub.FAN_OUT; i++) {
+                        refProperty(xml, NODE, "dep" + i, "leaf" + g + "_" + i);
+                    }
+                    endBean(xml);
+                    for (int i = 0; i < Hub.FAN_OUT; i++) {
+                        writeNode(xml, "leaf" + g + "_" + i, i, null);
+                    }
+                }
+                for (int i = groups * (Hub.FAN_OUT + 1); i < size; i++) {
+                    writeNode(xml, "node" + i, i, null);
+                }
+            }
+        },
+        /**
+         * Reference triangles like the aService, baseService and testService of beans.xml
+         */
+        CYCLE {
+            @Override
+            void writeBeans(StringBuilder xml, int size) {
+                int groups = size / 3;
+                for (int g = 0; g < groups; g++) {
+                    beginBean(xml, "aService" + g, "org.minis.test.AServiceImpl");
+                    xml.append("        <constructor-arg type=\"String\" name=\"name\" value=\"abc\"/>\n");
+                    xml.append("        <constructor-arg type=\"int\" name=\"level\" value=\"3\"/>\n");
+                    valueProperty(xml, "String", "property1", "Someone says");
+                    valueProperty(xml, "String", "property2", "Hello World!");
+                    refProperty(xml, "org.minis.test.BaseService", "ref1", "baseService" + g);
+                    endBean(xml);
+                    beginBean(xml, "baseService" + g, "org.minis.test.BaseService");
+                    refProperty(xml, "org.minis.test.TestService", "testService", "testService" + g);
+                    endBean(xml);
+                    beginBean(xml, "testService" + g, "org.minis.test.TestService");
+                    refProperty(xml, "org.minis.test.AServiceImpl", "as", "aService" + g);
+                    endBean(xml);
+                }
+                for (int i = groups * 3; i < size; i++) {
+                    writeNode(xml, "node" + i, i, null);
+                }
+            }
+        };
+
+        abstract void writeBeans(StringBuilder xml, int size);
+
+        public String getConfigLocation(int size) {
+            return "bench/" + name().toLowerCase().replace('_', '-') + "-" + size + ".xml";
+        }
+    }
+
+    private BenchmarkConfigGenerator() {
+    }
+
+    /**
+     * Build-time entry point: {@code BenchmarkConfigGenerator <classes directory>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: BenchmarkConfigGenerator <classes directory>");
+            System.exit(1);
+        }
+        Path outputDir = Paths.get(args[0]);
+        for (Shape shape : Shape.values()) {
+            for (int size : SIZES) {
+                write(outputDir, shape.getConfigLocation(size), configuration(shape, size));
+            }
+        }
+        write(outputDir, AOT_CONFIG, configuration(Shape.CYCLE, 1_000));
+        write(outputDir, LOOKUP_CONFIG, lookupConfiguration());
+    }
+
+    public static String configuration(Shape shape, int size) {
+        StringBuilder xml = new StringBuilder(size * 256);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<beans>\n");
+        shape.writeBeans(xml, size);
+        return xml.append("</beans>\n").toString();
+    }
+
+    /**
+     * A chain of 1000 singletons, so lookups do not run against a nearly empty registry, plus the only
+     * {@link Hub} and the prototypes of {@link BeanLookupBenchmark}
+     */
+    private static String lookupConfiguration() {
+        StringBuilder xml = new StringBuilder(300_000);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<beans>\n");
+        Shape.CHAIN.writeBeans(xml, 1_000);
+
+        beginBean(xml, "hub", Hub.class.getName());
+        for (int i = 0; i < Hub.FAN_OUT; i++) {
+            refProperty(xml, NODE, "dep" + i, "node" + i);
+        }
+        endBean(xml);
+
+        xml.append("    <bean id=\"prototypeNode\" class=\"").append(NODE).append("\" scope=\"prototype\">\n");
+        valueProperty(xml, "String", "name", "prototype");
+        valueProperty(xml, "int", "value", "42");
+        refProperty(xml, NODE, "next", "node999");
+        endBean(xml);
+
+        xml.append("    <bean id=\"manySetters\" class=\"").append(ManySetters.class.getName()).append("\" scope=\"prototype\">\n");
+        for (int i = 0; i < 4; i++) {
+            valueProperty(xml, "String", "text" + i, "text " + i);
+        }
+        for (int i = 0; i < 3; i++) {
+            valueProperty(xml, "int", "int" + i, String.valueOf(i * 1000));
+        }
+        valueProperty(xml, "long", "long0", "9000000000");
+        valueProperty(xml, "long", "long1", "-1");
+        valueProperty(xml, "boolean", "flag0", "true");
+        valueProperty(xml, "boolean", "flag1", "false");
+        valueProperty(xml, "double", "double0", "3.14");
+        valueProperty(xml, "Integer", "boxed0", "7");
+        valueProperty(xml, "java.time.Duration", "timeout", "30s");
+        valueProperty(xml, "java.math.BigDecimal", "amount", "1234.56");
+        valueProperty(xml, "String[]", "tags", "a,b,c");
+        endBean(xml);
+        return xml.append("</beans>\n").toString();
+    }
+
+    private static void writeNode(StringBuilder xml, String id, int value, String next) {
+        beginBean(xml, id, NODE);
+        valueProperty(xml, "String", "name", id);
+        valueProperty(xml, "int", "value", String.valueOf(value));
+        if (next != null) {
+            refProperty(xml, NODE, "next", next);
+        }
+        endBean(xml);
+    }
+
+    private static void beginBean(StringBuilder xml, String id, String className) {
+        xml.append("    <bean id=\"").append(id).append("\" class=\"").append(className).append("\">\n");
+    }
+
+    private static void endBean(StringBuilder xml) {
+        xml.append("    </bean>\n");
+    }
+
+    private static void valueProperty(StringBuilder xml, String type, String name, String value) {
+        xml.append("        <property type=\"").append(type).append("\" name=\"").append(name)
+                .append("\" value=\"").append(value).append("\"/>\n");
+    }
+
+    private static void refProperty(StringBuilder xml, String type, String name, String ref) {
+        xml.append("        <property type=\"").append(type).append("\" name=\"").append(name)
+                .append("\" ref=\"").append(ref).append("\"/>\n");
+    }
+
+    private static void write(Path outputDir, String location, String xml) throws IOException {
+        Path file = outputDir.resolve(location);
+        Files.createDirectories(file.getParent());
+        Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,30 @@
+package org.minis.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of benchmarks.jar. Takes the usual JMH options and always adds the GC profiler, which reports
+ * the allocation rate, the bytes allocated per operation ({@code gc.alloc.rate.norm}) and the collections.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar                          # everything
+ * java -jar benchmarks/target/benchmarks.jar BeanLookup -p instantiationStrategy=lambda
+ * java -jar benchmarks/target/benchmarks.jar ContextStartup -rf json  # results.json, a baseline to compare against
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package org.minis.benchmark;
+
+import org.minis.aop.JdkDynamicAopProxy;
+import org.minis.aop.cache.CacheAdvisors;
+import org.minis.aop.cache.DefaultCacheManager;
+import org.minis.aop.cache.SegmentedLruCache;
+import org.minis.beans.BeansException;
+import org.minis.benchmark.beans.Catalog;
+import org.minis.benchmark.beans.SimpleCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache hits of {@link Catalog#describe} through a caching proxy, with one argument used as the key itself
+ * and with two arguments needing a key object, against the uncached method; and lookups on the cache alone,
+ * from one thread and from four.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+    private static final int KEYS = 512;
+
+    private Catalog direct;
+    private Catalog cached;
+    private SegmentedLruCache cache;
+    private int next;
+
+    @Setup
+    public void setUp() throws BeansException {
+        this.direct = new SimpleCatalog();
+        this.cached = (Catalog) JdkDynamicAopProxy.createProxy(new SimpleCatalog(), CacheAdvisors.resolve("catalog",
+                SimpleCatalog.class, Collections.emptyList(), new DefaultCacheManager()));
+        this.cache = new SegmentedLruCache("lookups", KEYS, null, null);
+        for (int i = 0; i < KEYS; i++) {
+            this.cached.describe(i);
+            this.cached.describe(i, i);
+            this.cache.put(i, "item " + i);
+        }
+    }
+
+    private int nextKey() {
+        return this.next = (this.next + 1) & (KEYS - 1);
+    }
+
+    @Benchmark
+    public String uncached() {
+        return this.direct.describe(nextKey());
+    }
+
+    @Benchmark
+    public String cachedSingleArgument() {
+        return this.cached.describe(nextKey());
+    }
+
+    @Benchmark
+    public String cachedTwoArguments() {
+        int key = nextKey();
+        return this.cached.describe(key, key);
+    }
+
+    @Benchmark
+    public Object cacheHit() {
+        return this.cache.get(nextKey());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object cacheHitContended() {
+        return this.cache.get(nextKey());
+    }
+}
@@ -0,0 +1,46 @@
+package org.minis.benchmark;
+
+import org.minis.benchmark.BenchmarkConfigGenerator.Shape;
+import org.minis.context.ClassPathXmlApplicationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole context startup: parsing the XML, then creating and wiring every singleton.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextStartupBenchmark {
+    @Param({"CHAIN", "FAN_OUT", "CYCLE"})
+    private Shape shape;
+
+    @Param({"10", "1000", "50000"})
+    private int size;
+
+    private String configLocation;
+
+    @Setup
+    public void setUp() {
+        this.configLocation = this.shape.getConfigLocation(this.size);
+    }
+
+    @Benchmark
+    public ClassPathXmlApplicationContext startup() {
+        return new ClassPathXmlApplicationContext(this.configLocation);
+    }
+}
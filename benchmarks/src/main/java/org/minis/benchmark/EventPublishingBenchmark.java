@@ -0,0 +1,68 @@
+package org.minis.benchmark;
+
+import org.minis.context.ApplicationEvent;
+import org.minis.context.event.SimpleApplicationEventMulticaster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishing an event to a few listeners, delivered on the publishing thread or through the async queue.
+ * Async results measure the publisher side only; a full queue makes the publisher deliver itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventPublishingBenchmark {
+    @Param({"1", "8"})
+    private int listenerCount;
+
+    @Param({"false", "true"})
+    private boolean async;
+
+    private final LongAdder received = new LongAdder();
+    private final ApplicationEvent event = new ApplicationEvent(this);
+    private SimpleApplicationEventMulticaster multicaster;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        this.multicaster = new SimpleApplicationEventMulticaster();
+        for (int i = 0; i < this.listenerCount; i++) {
+            this.multicaster.addApplicationListener(ApplicationEvent.class, event -> this.received.increment());
+        }
+        if (this.async) {
+            this.executor = Executors.newSingleThreadExecutor();
+            this.multicaster.setTaskExecutor(this.executor);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void publish() {
+        this.multicaster.multicastEvent(this.event);
+    }
+}
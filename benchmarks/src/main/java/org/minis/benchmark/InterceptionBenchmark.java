@@ -0,0 +1,81 @@
+package org.minis.benchmark;
+
+import org.minis.aop.DefaultPointcutAdvisor;
+import org.minis.aop.InterfacePointcut;
+import org.minis.aop.JdkDynamicAopProxy;
+import org.minis.aop.MethodInterceptor;
+import org.minis.aop.TimingInterceptor;
+import org.minis.benchmark.beans.Counter;
+import org.minis.benchmark.beans.SimpleCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls through interception proxies: a direct call for reference, a method of a proxied bean that no
+ * advisor matches, and methods behind one pass-through interceptor, three of them and the timing interceptor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterceptionBenchmark {
+    private static final MethodInterceptor PASS_THROUGH = invocation -> invocation.proceed();
+
+    private Counter direct;
+    private Counter passThrough;
+    private Counter chain;
+    private Counter timed;
+
+    @Setup
+    public void setUp() {
+        this.direct = new SimpleCounter();
+        this.passThrough = (Counter) JdkDynamicAopProxy.createProxy(new SimpleCounter(), Collections.singletonList(
+                new DefaultPointcutAdvisor(new InterfacePointcut(Counter.class, "increment"), PASS_THROUGH)));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new InterfacePointcut(Counter.class), PASS_THROUGH);
+        this.chain = (Counter) JdkDynamicAopProxy.createProxy(new SimpleCounter(), Arrays.asList(advisor, advisor, advisor));
+        this.timed = (Counter) JdkDynamicAopProxy.createProxy(new SimpleCounter(), Collections.singletonList(
+                new DefaultPointcutAdvisor(new InterfacePointcut(Counter.class), new TimingInterceptor())));
+    }
+
+    @Benchmark
+    public long direct() {
+        return this.direct.increment(1);
+    }
+
+    /**
+     * {@code get} is not matched by the advisor of the proxy, so it goes straight to the target
+     */
+    @Benchmark
+    public long unadvised() {
+        return this.passThrough.get();
+    }
+
+    @Benchmark
+    public long passThrough() {
+        return this.passThrough.increment(1);
+    }
+
+    @Benchmark
+    public long chainOfThree() {
+        return this.chain.increment(1);
+    }
+
+    @Benchmark
+    public long timed() {
+        return this.timed.increment(1);
+    }
+}
@@ -0,0 +1,84 @@
+package org.minis.benchmark;
+
+import org.minis.benchmark.BenchmarkConfigGenerator.Shape;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+import org.minis.beans.factory.xml.BeanDefinitionSnapshot;
+import org.minis.beans.factory.xml.StreamingXmlBeanDefinitionReader;
+import org.minis.beans.factory.xml.XmlBeanDefinitionReader;
+import org.minis.core.io.ClassPathXmlResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loading bean definitions alone, without creating any bean: the StAX reader, the dom4j reader and a
+ * binary snapshot of the same file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlParsingBenchmark {
+    @Param({"CHAIN", "CYCLE"})
+    private Shape shape;
+
+    @Param({"1000", "50000"})
+    private int size;
+
+    private String configLocation;
+    private Path snapshotDir;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.configLocation = this.shape.getConfigLocation(this.size);
+        this.snapshotDir = Files.createTempDirectory("minis-snapshots");
+        // the first load writes the snapshot
+        BeanDefinitionSnapshot.loadBeanDefinitions(this.configLocation, this.snapshotDir, new SimpleBeanFactory());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.snapshotDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public SimpleBeanFactory stax() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        new StreamingXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(this.configLocation);
+        return beanFactory;
+    }
+
+    @Benchmark
+    public SimpleBeanFactory dom4j() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new ClassPathXmlResource(this.configLocation));
+        return beanFactory;
+    }
+
+    @Benchmark
+    public SimpleBeanFactory snapshot() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        BeanDefinitionSnapshot.loadBeanDefinitions(this.configLocation, this.snapshotDir, beanFactory);
+        return beanFactory;
+    }
+}
@@ -0,0 +1,14 @@
+package org.minis.benchmark.beans;
+
+import org.minis.aop.cache.Cacheable;
+
+/**
+ * The interface with cached methods of the cache benchmark
+ */
+public interface Catalog {
+    @Cacheable(maxSize = 1024)
+    String describe(int id);
+
+    @Cacheable(maxSize = 1024)
+    String describe(int id, int variant);
+}
@@ -0,0 +1,10 @@
+package org.minis.benchmark.beans;
+
+/**
+ * The interface proxied by the interception benchmark
+ */
+public interface Counter {
+    long increment(long delta);
+
+    long get();
+}
@@ -0,0 +1,84 @@
+package org.minis.benchmark.beans;
+
+/**
+ * A bean referencing {@value #FAN_OUT} other beans
+ */
+public class Hub {
+    public static final int FAN_OUT = 8;
+
+    private Node dep0;
+    private Node dep1;
+    private Node dep2;
+    private Node dep3;
+    private Node dep4;
+    private Node dep5;
+    private Node dep6;
+    private Node dep7;
+
+    public Hub() {
+    }
+
+    public Node getDep0() {
+        return dep0;
+    }
+
+    public void setDep0(Node dep0) {
+        this.dep0 = dep0;
+    }
+
+    public Node getDep1() {
+        return dep1;
+    }
+
+    public void setDep1(Node dep1) {
+        this.dep1 = dep1;
+    }
+
+    public Node getDep2() {
+        return dep2;
+    }
+
+    public void setDep2(Node dep2) {
+        this.dep2 = dep2;
+    }
+
+    public Node getDep3() {
+        return dep3;
+    }
+
+    public void setDep3(Node dep3) {
+        this.dep3 = dep3;
+    }
+
+    public Node getDep4() {
+        return dep4;
+    }
+
+    public void setDep4(Node dep4) {
+        this.dep4 = dep4;
+    }
+
+    public Node getDep5() {
+        return dep5;
+    }
+
+    public void setDep5(Node dep5) {
+        this.dep5 = dep5;
+    }
+
+    public Node getDep6() {
+        return dep6;
+    }
+
+    public void setDep6(Node dep6) {
+        this.dep6 = dep6;
+    }
+
+    public Node getDep7() {
+        return dep7;
+    }
+
+    public void setDep7(Node dep7) {
+        this.dep7 = dep7;
+    }
+}
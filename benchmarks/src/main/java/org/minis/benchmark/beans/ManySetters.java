@@ -0,0 +1,159 @@
+package org.minis.benchmark.beans;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * A bean with {@value #PROPERTY_COUNT} literal properties of assorted types, for property injection
+ */
+public class ManySetters {
+    public static final int PROPERTY_COUNT = 16;
+
+    private String text0;
+    private String text1;
+    private String text2;
+    private String text3;
+    private int int0;
+    private int int1;
+    private int int2;
+    private long long0;
+    private long long1;
+    private boolean flag0;
+    private boolean flag1;
+    private double double0;
+    private Integer boxed0;
+    private Duration timeout;
+    private BigDecimal amount;
+    private String[] tags;
+
+    public ManySetters() {
+    }
+
+    public String getText0() {
+        return text0;
+    }
+
+    public void setText0(String text0) {
+        this.text0 = text0;
+    }
+
+    public String getText1() {
+        return text1;
+    }
+
+    public void setText1(String text1) {
+        this.text1 = text1;
+    }
+
+    public String getText2() {
+        return text2;
+    }
+
+    public void setText2(String text2) {
+        this.text2 = text2;
+    }
+
+    public String getText3() {
+        return text3;
+    }
+
+    public void setText3(String text3) {
+        this.text3 = text3;
+    }
+
+    public int getInt0() {
+        return int0;
+    }
+
+    public void setInt0(int int0) {
+        this.int0 = int0;
+    }
+
+    public int getInt1() {
+        return int1;
+    }
+
+    public void setInt1(int int1) {
+        this.int1 = int1;
+    }
+
+    public int getInt2() {
+        return int2;
+    }
+
+    public void setInt2(int int2) {
+        this.int2 = int2;
+    }
+
+    public long getLong0() {
+        return long0;
+    }
+
+    public void setLong0(long long0) {
+        this.long0 = long0;
+    }
+
+    public long getLong1() {
+        return long1;
+    }
+
+    public void setLong1(long long1) {
+        this.long1 = long1;
+    }
+
+    public boolean isFlag0() {
+        return flag0;
+    }
+
+    public void setFlag0(boolean flag0) {
+        this.flag0 = flag0;
+    }
+
+    public boolean isFlag1() {
+        return flag1;
+    }
+
+    public void setFlag1(boolean flag1) {
+        this.flag1 = flag1;
+    }
+
+    public double getDouble0() {
+        return double0;
+    }
+
+    public void setDouble0(double double0) {
+        this.double0 = double0;
+    }
+
+    public Integer getBoxed0() {
+        return boxed0;
+    }
+
+    public void setBoxed0(Integer boxed0) {
+        this.boxed0 = boxed0;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String[] getTags() {
+        return tags;
+    }
+
+    public void setTags(String[] tags) {
+        this.tags = tags;
+    }
+}
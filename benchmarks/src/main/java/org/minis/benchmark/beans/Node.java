@@ -0,0 +1,37 @@
+package org.minis.benchmark.beans;
+
+/**
+ * A bean with one reference, used for chains and as the leaves of a fan-out
+ */
+public class Node {
+    private String name;
+    private int value;
+    private Node next;
+
+    public Node() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void setValue(int value) {
+        this.value = value;
+    }
+
+    public Node getNext() {
+        return next;
+    }
+
+    public void setNext(Node next) {
+        this.next = next;
+    }
+}
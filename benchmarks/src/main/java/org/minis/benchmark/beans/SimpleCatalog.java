@@ -0,0 +1,13 @@
+package org.minis.benchmark.beans;
+
+public class SimpleCatalog implements Catalog {
+    @Override
+    public String describe(int id) {
+        return "item " + id;
+    }
+
+    @Override
+    public String describe(int id, int variant) {
+        return "item " + id + "/" + variant;
+    }
+}
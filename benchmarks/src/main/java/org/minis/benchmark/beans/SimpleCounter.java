@@ -0,0 +1,15 @@
+package org.minis.benchmark.beans;
+
+public class SimpleCounter implements Counter {
+    private long value;
+
+    @Override
+    public long increment(long delta) {
+        return this.value += delta;
+    }
+
+    @Override
+    public long get() {
+        return this.value;
+    }
+}
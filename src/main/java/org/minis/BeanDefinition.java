@@ -1,12 +1,74 @@
 package org.minis;
 
+import org.minis.beans.factory.config.CacheConfig;
 import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PoolConfig;
 import org.minis.beans.factory.config.PropertyValues;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The configuration of one bean. Once its factory {@link org.minis.beans.factory.support.SimpleBeanFactory#freezeConfiguration()
+ * freezes the configuration}, a definition is {@link #isFrozen() frozen}: its configuration setters throw and only
+ * the caches resolved at runtime, the bean class and the injection plan, still change.
+ */
 public class BeanDefinition {
-    String SCOPE_SINGLETON = "singleton";
-    String SCOPE_PROTOTYPE = "prototype";
+    public static final String SCOPE_SINGLETON = "singleton";
+    public static final String SCOPE_PROTOTYPE = "prototype";
+    public static final String SCOPE_POOLED = "pooled";
+    /**
+     * Shared by all definitions without dependencies
+     */
+    public static final String[] NO_DEPENDS_ON = new String[0];
+
+    public enum ScopeType {
+        SINGLETON(SCOPE_SINGLETON),
+        PROTOTYPE(SCOPE_PROTOTYPE),
+        /**
+         * Instances borrowed from and returned to a {@link org.minis.beans.factory.support.BeanPool}
+         */
+        POOLED(SCOPE_POOLED),
+        /**
+         * A scope registered with {@link org.minis.beans.factory.support.SimpleBeanFactory#registerScope}
+         * under the scope name of the definition
+         */
+        CUSTOM(null);
+
+        private final String name;
+
+        ScopeType(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the scope name, null for {@link #CUSTOM}
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param name a scope name, an empty name meaning singleton
+         * @return {@link #CUSTOM} for any name other than singleton, prototype and pooled
+         */
+        public static ScopeType forName(String name) {
+            if (name == null || name.isEmpty() || SCOPE_SINGLETON.equals(name)) {
+                return SINGLETON;
+            }
+            if (SCOPE_PROTOTYPE.equals(name)) {
+                return PROTOTYPE;
+            }
+            if (SCOPE_POOLED.equals(name)) {
+                return POOLED;
+            }
+            return CUSTOM;
+        }
+    }
+
     private boolean lazyInit = false;
+    private boolean frozen = false;
     /**
      * Record relationship between Bean
      */
@@ -15,7 +77,24 @@ public class BeanDefinition {
     private PropertyValues propertyValues;
     private String initMethodName;
     private volatile Object beanClass;
-    private String scope = SCOPE_SINGLETON;
+    /**
+     * Reflection metadata resolved by the factory on first creation and replayed afterwards, opaque to the
+     * definition like {@link #beanClass}; dropped whenever the configuration it was resolved from changes
+     */
+    private volatile Object injectionPlan;
+    private ScopeType scope = ScopeType.SINGLETON;
+    /**
+     * The name of a {@link ScopeType#CUSTOM custom} scope, null otherwise
+     */
+    private String scopeName;
+    /**
+     * The pool settings of a {@link ScopeType#POOLED pooled} bean, null for the defaults
+     */
+    private PoolConfig poolConfig;
+    /**
+     * The methods whose results are cached, see {@link org.minis.aop.cache.CacheAdvisors}
+     */
+    private List<CacheConfig> cacheConfigs = Collections.emptyList();
     private String id;
     private String className;
 
@@ -30,6 +109,7 @@ public class BeanDefinition {
     }
 
     public void setId(String id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -38,7 +118,10 @@ public class BeanDefinition {
     }
 
     public void setClassName(String className) {
+        checkNotFrozen();
         this.className = className;
+        this.beanClass = null;
+        this.injectionPlan = null;
     }
 
     public boolean isLazyInit() {
@@ -46,6 +129,7 @@ public class BeanDefinition {
     }
 
     public void setLazyInit(boolean lazyInit) {
+        checkNotFrozen();
         this.lazyInit = lazyInit;
     }
 
@@ -54,6 +138,7 @@ public class BeanDefinition {
     }
 
     public void setDependsOn(String[] dependsOn) {
+        checkNotFrozen();
         this.dependsOn = dependsOn;
     }
 
@@ -62,7 +147,9 @@ public class BeanDefinition {
     }
 
     public void setConstructorArgumentValues(ConstructorArgumentValues constructorArgumentValues) {
+        checkNotFrozen();
         this.constructorArgumentValues = constructorArgumentValues;
+        this.injectionPlan = null;
     }
 
     public PropertyValues getPropertyValues() {
@@ -70,7 +157,9 @@ public class BeanDefinition {
     }
 
     public void setPropertyValues(PropertyValues propertyValues) {
+        checkNotFrozen();
         this.propertyValues = propertyValues;
+        this.injectionPlan = null;
     }
 
     public String getInitMethodName() {
@@ -78,7 +167,9 @@ public class BeanDefinition {
     }
 
     public void setInitMethodName(String initMethodName) {
+        checkNotFrozen();
         this.initMethodName = initMethodName;
+        this.injectionPlan = null;
     }
 
     public Object getBeanClass() {
@@ -89,19 +180,95 @@ public class BeanDefinition {
         this.beanClass = beanClass;
     }
 
+    public Object getInjectionPlan() {
+        return injectionPlan;
+    }
+
+    public void setInjectionPlan(Object injectionPlan) {
+        this.injectionPlan = injectionPlan;
+    }
+
     public String getScope() {
-        return scope;
+        return scope == ScopeType.CUSTOM ? scopeName : scope.getName();
     }
 
+    /**
+     * @param scope singleton, prototype, pooled or the name of a custom scope, which only needs to be registered
+     *              with the factory by the time the bean is requested
+     */
     public void setScope(String scope) {
+        ScopeType scopeType = ScopeType.forName(scope);
+        checkNotFrozen();
+        this.scope = scopeType;
+        this.scopeName = scopeType == ScopeType.CUSTOM ? scope : null;
+    }
+
+    public ScopeType getScopeType() {
+        return scope;
+    }
+
+    /**
+     * @param scope
+     * @throws IllegalArgumentException for {@link ScopeType#CUSTOM}, which needs a name, see {@link #setScope(String)}
+     */
+    public void setScopeType(ScopeType scope) {
+        if (scope == ScopeType.CUSTOM) {
+            throw new IllegalArgumentException("A custom scope is set by its name");
+        }
+        checkNotFrozen();
         this.scope = scope;
+        this.scopeName = null;
     }
 
     public boolean isSingleton() {
-        return getScope().equals(SCOPE_SINGLETON);
+        return scope == ScopeType.SINGLETON;
     }
 
     public boolean isPrototype() {
-        return getScope().equals(SCOPE_PROTOTYPE);
+        return scope == ScopeType.PROTOTYPE;
+    }
+
+    public boolean isPooled() {
+        return scope == ScopeType.POOLED;
+    }
+
+    public boolean isCustomScope() {
+        return scope == ScopeType.CUSTOM;
+    }
+
+    public PoolConfig getPoolConfig() {
+        return poolConfig;
+    }
+
+    public void setPoolConfig(PoolConfig poolConfig) {
+        checkNotFrozen();
+        this.poolConfig = poolConfig;
+    }
+
+    public List<CacheConfig> getCacheConfigs() {
+        return cacheConfigs;
+    }
+
+    public void setCacheConfigs(List<CacheConfig> cacheConfigs) {
+        checkNotFrozen();
+        this.cacheConfigs = cacheConfigs == null || cacheConfigs.isEmpty() ? Collections.<CacheConfig>emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(cacheConfigs));
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Makes the configuration of this definition read-only, see {@link #isFrozen()}
+     */
+    public void freeze() {
+        this.frozen = true;
+    }
+
+    private void checkNotFrozen() {
+        if (this.frozen) {
+            throw new IllegalStateException("Bean definition '" + this.id + "' is frozen");
+        }
     }
 }
@@ -0,0 +1,11 @@
+package org.minis.aop;
+
+/**
+ * An interceptor together with the pointcut selecting where it applies. Beans implementing this interface
+ * are applied to the other beans of their factory on refresh.
+ */
+public interface Advisor {
+    Pointcut getPointcut();
+
+    MethodInterceptor getInterceptor();
+}
@@ -0,0 +1,182 @@
+package org.minis.aop;
+
+import org.minis.BeanDefinition;
+import org.minis.aop.cache.CacheAdvisors;
+import org.minis.aop.cache.CacheManager;
+import org.minis.aop.cache.DefaultCacheManager;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.BeanPostProcessor;
+import org.minis.beans.factory.support.BeanDefinitionRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps every bean that an {@link Advisor} or a cached method applies to in a {@link JdkDynamicAopProxy}.
+ * It runs after all other processors, so they see and may replace the bean itself. Advisors, interceptors
+ * and processors are never proxied.
+ * <p>
+ * The caching advisors of a bean are resolved from its definition and class on its first creation and kept
+ * until {@link #forget(String)}, so every instance of a prototype shares the same caches. The interceptors of
+ * each class and list of advisors are resolved once into a {@link JdkDynamicAopProxy.Template}, so creating
+ * another proxied instance only creates the proxy.
+ * <p>
+ * A singleton referenced within its own reference cycle is proxied when that reference is taken, see
+ * {@link #getEarlyBeanReference}, so the cycle holds the same proxy as everyone else.
+ */
+public class AdvisorAutoProxyCreator implements BeanPostProcessor {
+    private final BeanDefinitionRegistry registry;
+    private final List<Advisor> advisors = new CopyOnWriteArrayList<>();
+    private final Map<String, List<Advisor>> cacheAdvisors = new ConcurrentHashMap<>(256);
+    private final Map<TemplateKey, JdkDynamicAopProxy.Template> templates = new ConcurrentHashMap<>(256);
+    /**
+     * The beans proxied early, by name, until their postProcessAfterInitialization
+     */
+    private final Map<String, Object> earlyProxyReferences = new ConcurrentHashMap<>(16);
+    private volatile CacheManager cacheManager = new DefaultCacheManager();
+
+    /**
+     * @param registry the definitions holding the &lt;cache&gt; tags of the beans
+     */
+    public AdvisorAutoProxyCreator(BeanDefinitionRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getEarlyBeanReference(Object bean, String beanName) throws BeansException {
+        this.earlyProxyReferences.put(beanName, bean);
+        return wrapIfAdvised(bean, beanName);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (this.earlyProxyReferences.remove(beanName) == bean) {
+            // proxied by getEarlyBeanReference already, the factory hands out that proxy
+            return bean;
+        }
+        return wrapIfAdvised(bean, beanName);
+    }
+
+    private Object wrapIfAdvised(Object bean, String beanName) throws BeansException {
+        if (bean instanceof Advisor || bean instanceof MethodInterceptor || bean instanceof BeanPostProcessor) {
+            return bean;
+        }
+        List<Advisor> beanCacheAdvisors = getCacheAdvisors(beanName, bean.getClass());
+        List<Advisor> beanAdvisors;
+        if (beanCacheAdvisors.isEmpty()) {
+            if (this.advisors.isEmpty()) {
+                return bean;
+            }
+            beanAdvisors = this.advisors;
+        } else {
+            // caching innermost, so that the other interceptors see every call
+            beanAdvisors = new ArrayList<>(this.advisors.size() + beanCacheAdvisors.size());
+            beanAdvisors.addAll(this.advisors);
+            beanAdvisors.addAll(beanCacheAdvisors);
+        }
+        return getTemplate(bean.getClass(), beanAdvisors).newProxy(bean);
+    }
+
+    private JdkDynamicAopProxy.Template getTemplate(Class<?> beanClass, List<Advisor> beanAdvisors) {
+        JdkDynamicAopProxy.Template template = this.templates.get(new TemplateKey(beanClass, beanAdvisors));
+        if (template == null) {
+            template = JdkDynamicAopProxy.prepare(beanClass, beanAdvisors);
+            // keyed by a copy, the list of the advisors of this creator changes with addAdvisor
+            JdkDynamicAopProxy.Template existing = this.templates.putIfAbsent(
+                    new TemplateKey(beanClass, new ArrayList<>(beanAdvisors)), template);
+            if (existing != null) {
+                template = existing;
+            }
+        }
+        return template;
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+
+    private List<Advisor> getCacheAdvisors(String beanName, Class<?> beanClass) throws BeansException {
+        List<Advisor> beanCacheAdvisors = this.cacheAdvisors.get(beanName);
+        if (beanCacheAdvisors == null) {
+            BeanDefinition beanDefinition = this.registry.getBeanDefinition(beanName);
+            beanCacheAdvisors = CacheAdvisors.resolve(beanName, beanClass, beanDefinition == null
+                    ? Collections.emptyList() : beanDefinition.getCacheConfigs(), this.cacheManager);
+            List<Advisor> existing = this.cacheAdvisors.putIfAbsent(beanName, beanCacheAdvisors);
+            if (existing != null) {
+                beanCacheAdvisors = existing;
+            }
+        }
+        return beanCacheAdvisors;
+    }
+
+    /**
+     * Drops the caching advisors resolved for a bean whose definition was replaced or removed
+     *
+     * @param beanName
+     */
+    public void forget(String beanName) {
+        if (this.cacheAdvisors.remove(beanName) != null) {
+            this.templates.clear();
+        }
+        this.earlyProxyReferences.remove(beanName);
+    }
+
+    /**
+     * Applies the advisor to the beans created from now on; beans created already stay as they are.
+     *
+     * @param advisor
+     */
+    public void addAdvisor(Advisor advisor) {
+        this.advisors.add(advisor);
+        this.templates.clear();
+    }
+
+    public List<Advisor> getAdvisors() {
+        return Collections.unmodifiableList(this.advisors);
+    }
+
+    /**
+     * Replaces the backend of the caches of the beans created from now on, see {@link CacheManager}
+     *
+     * @param cacheManager
+     */
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public CacheManager getCacheManager() {
+        return cacheManager;
+    }
+
+    private static final class TemplateKey {
+        private final Class<?> beanClass;
+        private final List<Advisor> advisors;
+
+        TemplateKey(Class<?> beanClass, List<Advisor> advisors) {
+            this.beanClass = beanClass;
+            this.advisors = advisors;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey) o;
+            return this.beanClass == that.beanClass && this.advisors.equals(that.advisors);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.beanClass.hashCode() + this.advisors.hashCode();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.minis.aop;
+
+public class DefaultPointcutAdvisor implements Advisor {
+    private final Pointcut pointcut;
+    private final MethodInterceptor interceptor;
+
+    public DefaultPointcutAdvisor(Pointcut pointcut, MethodInterceptor interceptor) {
+        this.pointcut = pointcut;
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public MethodInterceptor getInterceptor() {
+        return interceptor;
+    }
+}
@@ -0,0 +1,60 @@
+package org.minis.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * Matches the methods of an interface on every bean implementing it, optionally only those whose names
+ * match one of the given patterns: an exact name, or a name with {@code *} at its start or end,
+ * e.g. {@code get*}.
+ */
+public class InterfacePointcut implements Pointcut {
+    private final Class<?> interfaceType;
+    private final String[] methodNamePatterns;
+
+    /**
+     * @param interfaceType
+     * @param methodNamePatterns none to match every method of the interface
+     */
+    public InterfacePointcut(Class<?> interfaceType, String... methodNamePatterns) {
+        if (!interfaceType.isInterface()) {
+            throw new IllegalArgumentException(interfaceType.getName() + " is not an interface");
+        }
+        this.interfaceType = interfaceType;
+        this.methodNamePatterns = methodNamePatterns.clone();
+    }
+
+    @Override
+    public boolean matches(Class<?> targetClass) {
+        return this.interfaceType.isAssignableFrom(targetClass);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        if (!method.getDeclaringClass().isAssignableFrom(this.interfaceType)
+                || method.getDeclaringClass() == Object.class) {
+            return false;
+        }
+        if (this.methodNamePatterns.length == 0) {
+            return true;
+        }
+        for (String pattern : this.methodNamePatterns) {
+            if (matchesName(pattern, method.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesName(String pattern, String name) {
+        if ("*".equals(pattern)) {
+            return true;
+        }
+        if (pattern.startsWith("*")) {
+            return name.endsWith(pattern.substring(1));
+        }
+        if (pattern.endsWith("*")) {
+            return name.startsWith(pattern.substring(0, pattern.length() - 1));
+        }
+        return name.equals(pattern);
+    }
+}
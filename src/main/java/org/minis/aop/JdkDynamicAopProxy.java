@@ -0,0 +1,171 @@
+package org.minis.aop;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JDK proxy implementing all interfaces of a bean, which runs the interceptors of the matching
+ * {@link Advisor}s around its methods.
+ * <p>
+ * The pointcuts are evaluated once per class and list of advisors, into a {@link Template} shared by all the
+ * proxies created from it: every interface method gets the array of its interceptors, in advisor order, and a
+ * call only looks that array up. Methods without interceptors are not in the map at all and go straight to the
+ * bean, without allocating an invocation.
+ */
+public final class JdkDynamicAopProxy implements InvocationHandler {
+    private static final MethodInterceptor[] NO_INTERCEPTORS = new MethodInterceptor[0];
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Object target;
+    private final Map<Method, MethodInterceptor[]> interceptors;
+
+    private JdkDynamicAopProxy(Object target, Map<Method, MethodInterceptor[]> interceptors) {
+        this.target = target;
+        this.interceptors = interceptors;
+    }
+
+    /**
+     * Resolves the interceptors of the advisors for a single target, see {@link #prepare} to proxy many.
+     *
+     * @param target
+     * @param advisors
+     * @return a proxy for the target, or the target itself when it has no interface or no method is advised
+     */
+    public static Object createProxy(Object target, List<? extends Advisor> advisors) {
+        return prepare(target.getClass(), advisors).newProxy(target);
+    }
+
+    /**
+     * Evaluates the pointcuts of the advisors against a class once, for any number of proxies of its instances
+     *
+     * @param targetClass
+     * @param advisors
+     * @return
+     */
+    public static Template prepare(Class<?> targetClass, List<? extends Advisor> advisors) {
+        List<Advisor> candidates = new ArrayList<>(advisors.size());
+        for (Advisor advisor : advisors) {
+            if (advisor.getPointcut().matches(targetClass)) {
+                candidates.add(advisor);
+            }
+        }
+        Class<?>[] interfaces = getProxiedInterfaces(targetClass);
+        if (candidates.isEmpty() || interfaces.length == 0) {
+            return new Template(targetClass, interfaces, Collections.emptyMap());
+        }
+
+        Map<Method, MethodInterceptor[]> interceptors = new HashMap<>();
+        List<MethodInterceptor> chain = new ArrayList<>(candidates.size());
+        for (Class<?> interfaceType : interfaces) {
+            for (Method method : interfaceType.getMethods()) {
+                chain.clear();
+                for (Advisor advisor : candidates) {
+                    if (advisor.getPointcut().matches(method, targetClass)) {
+                        chain.add(advisor.getInterceptor());
+                    }
+                }
+                if (!chain.isEmpty()) {
+                    interceptors.put(method, chain.toArray(NO_INTERCEPTORS));
+                }
+            }
+        }
+        return new Template(targetClass, interfaces, interceptors);
+    }
+
+    /**
+     * @param proxy
+     * @return the bean behind a proxy created here, or the object itself
+     */
+    public static Object getTarget(Object proxy) {
+        if (Proxy.isProxyClass(proxy.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(proxy);
+            if (handler instanceof JdkDynamicAopProxy) {
+                return ((JdkDynamicAopProxy) handler).target;
+            }
+        }
+        return proxy;
+    }
+
+    /**
+     * @param targetClass
+     * @return the interfaces a proxy of the class implements: all interfaces of the class and its superclasses
+     */
+    public static Class<?>[] getProxiedInterfaces(Class<?> targetClass) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = targetClass; c != null; c = c.getSuperclass()) {
+            for (Class<?> interfaceType : c.getInterfaces()) {
+                interfaces.add(interfaceType);
+            }
+        }
+        return interfaces.toArray(new Class<?>[0]);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        MethodInterceptor[] chain = this.interceptors.get(method);
+        if (chain == null) {
+            if (method.getDeclaringClass() == Object.class && "equals".equals(method.getName())) {
+                return proxy == args[0] || this.target.equals(args[0]);
+            }
+            return invokeTarget(this.target, method, args);
+        }
+        return new ReflectiveMethodInvocation(this.target, method, args == null ? NO_ARGUMENTS : args, chain).proceed();
+    }
+
+    /**
+     * The interceptors of every method of one class for one list of advisors, resolved once and shared,
+     * read-only, by all proxies created from it.
+     */
+    public static final class Template {
+        private final Class<?> targetClass;
+        private final Class<?>[] interfaces;
+        private final Map<Method, MethodInterceptor[]> interceptors;
+
+        private Template(Class<?> targetClass, Class<?>[] interfaces, Map<Method, MethodInterceptor[]> interceptors) {
+            this.targetClass = targetClass;
+            this.interfaces = interfaces;
+            this.interceptors = interceptors;
+        }
+
+        /**
+         * @return false when no method of the class is advised, proxies are then the targets themselves
+         */
+        public boolean isAdvised() {
+            return !this.interceptors.isEmpty();
+        }
+
+        /**
+         * @param target an instance of exactly the class the template was prepared for
+         * @return a proxy for the target, or the target itself when no method is advised
+         */
+        public Object newProxy(Object target) {
+            if (target.getClass() != this.targetClass) {
+                throw new IllegalArgumentException("Template of " + this.targetClass.getName() + " can not proxy a "
+                        + target.getClass().getName());
+            }
+            if (this.interceptors.isEmpty()) {
+                return target;
+            }
+            ClassLoader classLoader = this.targetClass.getClassLoader() != null ? this.targetClass.getClassLoader()
+                    : JdkDynamicAopProxy.class.getClassLoader();
+            return Proxy.newProxyInstance(classLoader, this.interfaces, new JdkDynamicAopProxy(target, this.interceptors));
+        }
+    }
+
+    static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
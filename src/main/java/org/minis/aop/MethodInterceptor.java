@@ -0,0 +1,10 @@
+package org.minis.aop;
+
+/**
+ * Advice around a method call on a proxied bean. An interceptor calls {@link MethodInvocation#proceed()} to
+ * continue with the next interceptor of the chain, and finally the bean itself.
+ */
+@FunctionalInterface
+public interface MethodInterceptor {
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
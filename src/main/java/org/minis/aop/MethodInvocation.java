@@ -0,0 +1,29 @@
+package org.minis.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * A call on a proxied bean, passed along its chain of {@link MethodInterceptor}s
+ */
+public interface MethodInvocation {
+    /**
+     * @return the interface method called on the proxy
+     */
+    Method getMethod();
+
+    /**
+     * @return the arguments, which interceptors may replace before proceeding; never null
+     */
+    Object[] getArguments();
+
+    /**
+     * @return the proxied bean
+     */
+    Object getThis();
+
+    /**
+     * @return the result of the rest of the chain
+     * @throws Throwable whatever the bean method throws
+     */
+    Object proceed() throws Throwable;
+}
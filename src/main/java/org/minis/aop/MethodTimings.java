@@ -0,0 +1,129 @@
+package org.minis.aop;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latencies of one method recorded by a {@link TimingInterceptor}: call and failure counts, total and
+ * maximum time, and a histogram for percentiles.
+ * <p>
+ * The histogram is log-linear like an HDR histogram with a precision of one binary digit plus
+ * {@value #SUB_BUCKET_BITS} more: each power of two of nanoseconds is split into {@value #SUB_BUCKETS} equal
+ * buckets, so a percentile is off by at most 1/{@value #SUB_BUCKETS} of its value, about 12%. Recording is
+ * lock free, a few adds on striped or atomic counters, and allocates nothing.
+ */
+public final class MethodTimings {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    MethodTimings(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, boolean failed) {
+        this.count.increment();
+        if (failed) {
+            this.failures.increment();
+        }
+        this.totalNanos.add(nanos);
+        this.maxNanos.accumulate(nanos);
+        this.histogram.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * Values below {@value #SUB_BUCKETS} get a bucket each, above that the bucket is given by the position
+     * of the highest bit and the {@value #SUB_BUCKET_BITS} bits below it.
+     */
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((nanos >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @return the highest value counted in the bucket
+     */
+    private static long bucketLimit(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long first = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return first + (1L << shift) - 1;
+    }
+
+    /**
+     * @return the declaring interface and name of the method
+     */
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the calls that threw
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getTotalTime(TimeUnit unit) {
+        return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxTime(TimeUnit unit) {
+        return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public double getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalNanos.sum() / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 99.9
+     * @return an upper bound of the given percentile of the call times, in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketLimit(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, %d failed, mean %.0f ns, p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns",
+                name, getCount(), getFailureCount(), getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99),
+                getPercentileNanos(99.9), maxNanos.get());
+    }
+}
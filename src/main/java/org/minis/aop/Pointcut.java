@@ -0,0 +1,22 @@
+package org.minis.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * Selects the beans and methods an {@link Advisor} applies to. Both checks run once, when a bean is proxied,
+ * never on a call.
+ */
+public interface Pointcut {
+    /**
+     * @param targetClass the class of the bean
+     * @return whether any method of the bean may match
+     */
+    boolean matches(Class<?> targetClass);
+
+    /**
+     * @param method      an interface method of the proxy
+     * @param targetClass the class of the bean
+     * @return
+     */
+    boolean matches(Method method, Class<?> targetClass);
+}
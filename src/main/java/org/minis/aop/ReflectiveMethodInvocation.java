@@ -0,0 +1,44 @@
+package org.minis.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * Walks the interceptor array of one call, then calls the bean
+ */
+final class ReflectiveMethodInvocation implements MethodInvocation {
+    private final Object target;
+    private final Method method;
+    private final Object[] arguments;
+    private final MethodInterceptor[] interceptors;
+    private int index;
+
+    ReflectiveMethodInvocation(Object target, Method method, Object[] arguments, MethodInterceptor[] interceptors) {
+        this.target = target;
+        this.method = method;
+        this.arguments = arguments;
+        this.interceptors = interceptors;
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+        if (this.index == this.interceptors.length) {
+            return JdkDynamicAopProxy.invokeTarget(this.target, this.method, this.arguments);
+        }
+        return this.interceptors[this.index++].invoke(this);
+    }
+}
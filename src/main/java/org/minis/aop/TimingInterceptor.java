@@ -0,0 +1,59 @@
+package org.minis.aop;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the latency of every intercepted method into its {@link MethodTimings}, without an external agent:
+ * <pre>
+ * TimingInterceptor timing = new TimingInterceptor();
+ * beanFactory.addAdvisor(new DefaultPointcutAdvisor(new InterfacePointcut(AService.class), timing));
+ * ...
+ * timing.getTimings().forEach(System.out::println);
+ * </pre>
+ * Calls of the same interface method on different beans are recorded together.
+ */
+public class TimingInterceptor implements MethodInterceptor {
+    private final ConcurrentMap<Method, MethodTimings> timings = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodTimings methodTimings = getTimings(invocation.getMethod());
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            methodTimings.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * @param method
+     * @return the timings of the method, recording none yet if it was never called
+     */
+    public MethodTimings getTimings(Method method) {
+        MethodTimings methodTimings = this.timings.get(method);
+        if (methodTimings == null) {
+            methodTimings = this.timings.computeIfAbsent(method,
+                    m -> new MethodTimings(m.getDeclaringClass().getSimpleName() + "." + m.getName()));
+        }
+        return methodTimings;
+    }
+
+    public Collection<MethodTimings> getTimings() {
+        List<MethodTimings> result = new ArrayList<>(this.timings.values());
+        result.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return result;
+    }
+
+    public void reset() {
+        this.timings.clear();
+    }
+}
@@ -0,0 +1,26 @@
+package org.minis.aop.cache;
+
+/**
+ * The backend of a named cache used by a {@link CachingInterceptor}. Implementations must be thread safe.
+ * Keys and values are never null; a method returning null is cached under a placeholder value.
+ */
+public interface Cache {
+    String getName();
+
+    /**
+     * @param key
+     * @return the value, or null when there is none or it expired
+     */
+    Object get(Object key);
+
+    void put(Object key, Object value);
+
+    void evict(Object key);
+
+    void clear();
+
+    /**
+     * @return the counters up to now, {@link CacheStats#EMPTY} when the backend keeps none
+     */
+    CacheStats getStats();
+}
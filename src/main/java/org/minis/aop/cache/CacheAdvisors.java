@@ -0,0 +1,166 @@
+package org.minis.aop.cache;
+
+import org.minis.aop.Advisor;
+import org.minis.aop.DefaultPointcutAdvisor;
+import org.minis.aop.JdkDynamicAopProxy;
+import org.minis.aop.Pointcut;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.CacheConfig;
+import org.minis.core.convert.DefaultConversionService;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the cached methods of a bean, from the &lt;cache&gt; tags of its definition and the {@link Cacheable}
+ * annotations of its class, into one advisor per method, each bound to its {@link Cache}. As with any advisor
+ * only interface methods are intercepted.
+ */
+public final class CacheAdvisors {
+    private CacheAdvisors() {
+    }
+
+    /**
+     * @param beanName
+     * @param beanClass
+     * @param cacheConfigs the &lt;cache&gt; tags of the bean
+     * @param cacheManager
+     * @return the advisors, empty when no method is cached
+     * @throws BeansException when a &lt;cache&gt; tag names no interface method, or a void one
+     */
+    public static List<Advisor> resolve(String beanName, Class<?> beanClass, List<CacheConfig> cacheConfigs,
+                                        CacheManager cacheManager) throws BeansException {
+        Class<?>[] interfaces = JdkDynamicAopProxy.getProxiedInterfaces(beanClass);
+        if (interfaces.length == 0) {
+            if (!cacheConfigs.isEmpty()) {
+                throw new BeansException("Bean '" + beanName + "' has a <cache> but no interface to proxy");
+            }
+            return Collections.emptyList();
+        }
+        Map<String, CacheConfig> configuredMethods = new HashMap<>();
+        for (CacheConfig cacheConfig : cacheConfigs) {
+            configuredMethods.put(cacheConfig.getMethodName(), cacheConfig);
+        }
+
+        List<Method> methods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        Map<String, Integer> overloads = new HashMap<>();
+        for (Class<?> interfaceType : interfaces) {
+            for (Method method : interfaceType.getMethods()) {
+                if (signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+                    methods.add(method);
+                    overloads.merge(method.getName(), 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Advisor> advisors = new ArrayList<>();
+        Set<String> matchedMethods = new HashSet<>();
+        for (Method method : methods) {
+            CacheConfig cacheConfig = configuredMethods.get(method.getName());
+            if (cacheConfig != null) {
+                matchedMethods.add(method.getName());
+            } else {
+                cacheConfig = annotatedConfig(method, beanClass);
+                if (cacheConfig == null) {
+                    continue;
+                }
+            }
+            if (method.getReturnType() == void.class) {
+                throw new BeansException("Can not cache method '" + method.getName() + "' of bean '" + beanName
+                        + "', it returns nothing");
+            }
+            String cacheName = cacheConfig.getCacheName() != null ? cacheConfig.getCacheName()
+                    : defaultCacheName(beanName, method, overloads.get(method.getName()) > 1);
+            Cache cache;
+            try {
+                cache = cacheManager.getCache(cacheName, cacheConfig);
+            } catch (IllegalArgumentException e) {
+                throw new BeansException("Can not create cache " + cacheName + " of bean '" + beanName + "': "
+                        + e.getMessage(), e);
+            }
+            advisors.add(new DefaultPointcutAdvisor(new SignaturePointcut(method), new CachingInterceptor(cache)));
+        }
+        for (String methodName : configuredMethods.keySet()) {
+            if (!matchedMethods.contains(methodName)) {
+                throw new BeansException("Bean '" + beanName + "' has a <cache> for method '" + methodName
+                        + "', which none of its interfaces declares");
+            }
+        }
+        return advisors;
+    }
+
+    /**
+     * @return beanName.methodName, followed by the parameter types for an overloaded method, so that overloads
+     * do not share the results of equal arguments
+     */
+    private static String defaultCacheName(String beanName, Method method, boolean overloaded) {
+        StringBuilder name = new StringBuilder(beanName).append('.').append(method.getName());
+        if (overloaded) {
+            name.append('(');
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                name.append(i == 0 ? "" : ",").append(parameterTypes[i].getSimpleName());
+            }
+            name.append(')');
+        }
+        return name.toString();
+    }
+
+    /**
+     * @return the settings of a {@link Cacheable} on the interface method or its implementation, null without
+     */
+    private static CacheConfig annotatedConfig(Method method, Class<?> beanClass) throws BeansException {
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (cacheable == null) {
+            try {
+                cacheable = beanClass.getMethod(method.getName(), method.getParameterTypes()).getAnnotation(Cacheable.class);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+        if (cacheable == null) {
+            return null;
+        }
+        try {
+            return new CacheConfig(method.getName(), cacheable.value().isEmpty() ? null : cacheable.value(),
+                    cacheable.maxSize(),
+                    cacheable.timeToLive().isEmpty() ? null : DefaultConversionService.parseDuration(cacheable.timeToLive()),
+                    cacheable.weigher() == Weigher.class ? null : cacheable.weigher().getName());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new BeansException("Invalid @Cacheable on " + beanClass.getName() + "." + method.getName() + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Matches the methods of the proxy with the name and parameter types of one method, whichever interface
+     * declares them
+     */
+    private static final class SignaturePointcut implements Pointcut {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+
+        SignaturePointcut(Method method) {
+            this.name = method.getName();
+            this.parameterTypes = method.getParameterTypes();
+        }
+
+        @Override
+        public boolean matches(Class<?> targetClass) {
+            return true;
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return this.name.equals(method.getName()) && Arrays.equals(this.parameterTypes, method.getParameterTypes());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.minis.aop.cache;
+
+import java.util.Arrays;
+
+/**
+ * Turns the arguments of a cached call into a cache key, without allocating for the common cases: no argument
+ * maps to a constant, a single argument other than null or an array is the key itself. Primitive arguments
+ * arrive boxed from the proxy, so a single one is a key as it is, and small values come from the box caches.
+ * Only calls with several arguments, or an array, get a key object holding the argument array.
+ */
+final class CacheKeys {
+    static final Object NO_ARGUMENTS = new Constant("NO_ARGUMENTS");
+    static final Object NULL_ARGUMENT = new Constant("NULL_ARGUMENT");
+
+    private CacheKeys() {
+    }
+
+    /**
+     * @param args the arguments of one call, still referenced by the invocation
+     * @return a key for a lookup, see {@link #forPut(Object)} before storing it
+     */
+    static Object forLookup(Object[] args) {
+        if (args.length == 0) {
+            return NO_ARGUMENTS;
+        }
+        if (args.length == 1) {
+            Object arg = args[0];
+            if (arg == null) {
+                return NULL_ARGUMENT;
+            }
+            if (!arg.getClass().isArray()) {
+                return arg;
+            }
+        }
+        return new ArgumentsKey(args, Arrays.deepHashCode(args));
+    }
+
+    /**
+     * @param lookupKey
+     * @return the key detached from the argument array, which an interceptor further down the chain may
+     * still change, so only a miss pays for the copy
+     */
+    static Object forPut(Object lookupKey) {
+        if (lookupKey instanceof ArgumentsKey) {
+            ArgumentsKey key = (ArgumentsKey) lookupKey;
+            return new ArgumentsKey(key.args.clone(), key.hash);
+        }
+        return lookupKey;
+    }
+
+    private static final class ArgumentsKey {
+        final Object[] args;
+        final int hash;
+
+        ArgumentsKey(Object[] args, int hash) {
+            this.args = args;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof ArgumentsKey && this.hash == ((ArgumentsKey) o).hash
+                    && Arrays.deepEquals(this.args, ((ArgumentsKey) o).args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.deepToString(args);
+        }
+    }
+
+    private static final class Constant {
+        private final String name;
+
+        Constant(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
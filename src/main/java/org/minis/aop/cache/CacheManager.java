@@ -0,0 +1,26 @@
+package org.minis.aop.cache;
+
+import org.minis.beans.factory.config.CacheConfig;
+
+import java.util.Collection;
+
+/**
+ * Creates and holds the caches by name, the extension point for another cache backend,
+ * see {@link org.minis.beans.factory.support.SimpleBeanFactory#setCacheManager(CacheManager)}.
+ */
+public interface CacheManager {
+    /**
+     * @param name   the name of the cache
+     * @param config the settings of the method asking for it, used when the cache is created
+     * @return the cache of that name, created on first use
+     */
+    Cache getCache(String name, CacheConfig config);
+
+    /**
+     * @param name
+     * @return the cache, or null when no method has used it yet
+     */
+    Cache getCache(String name);
+
+    Collection<String> getCacheNames();
+}
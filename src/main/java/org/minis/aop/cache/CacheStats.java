@@ -0,0 +1,81 @@
+package org.minis.aop.cache;
+
+/**
+ * The counters of one {@link Cache} at a point in time
+ */
+public final class CacheStats {
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, 0);
+
+    private final long hitCount;
+    private final long missCount;
+    private final long putCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final long size;
+    private final long weight;
+
+    public CacheStats(long hitCount, long missCount, long putCount, long evictionCount, long expirationCount,
+                      long size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the lookups that found no entry, including those that found an expired one
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * @return the entries removed to stay within the maximum size
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the entries removed because their time to live was over
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the total weight of the entries, their number without a weigher
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats[%d hits, %d misses, hit rate %.1f%%, %d puts, %d evictions, %d expirations, %d entries, weight %d]",
+                hitCount, missCount, getHitRate() * 100, putCount, evictionCount, expirationCount, size, weight);
+    }
+}
@@ -0,0 +1,40 @@
+package org.minis.aop.cache;
+
+import org.minis.beans.factory.config.CacheConfig;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the results of a method, the annotation counterpart of the &lt;cache&gt; tag of a bean. It is read from
+ * the interface method or from its implementation in the bean class; a &lt;cache&gt; tag for the same method
+ * takes precedence.
+ * <pre>
+ * &#64;Cacheable(value = "users", maxSize = 1000, timeToLive = "5m")
+ * public User findUser(long id) {
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Cacheable {
+    /**
+     * @return the name of the cache, empty for a cache of the method alone
+     */
+    String value() default "";
+
+    long maxSize() default CacheConfig.DEFAULT_MAX_SIZE;
+
+    /**
+     * @return a duration like 500ms, 30s or PT5M, empty to keep entries until evicted
+     */
+    String timeToLive() default "";
+
+    /**
+     * @return the weigher of the entries, {@link Weigher} itself to count them
+     */
+    Class<? extends Weigher> weigher() default Weigher.class;
+}
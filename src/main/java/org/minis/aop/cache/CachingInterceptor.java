@@ -0,0 +1,36 @@
+package org.minis.aop.cache;
+
+import org.minis.aop.MethodInterceptor;
+import org.minis.aop.MethodInvocation;
+
+/**
+ * Returns the cached result of a call with equal arguments, or calls the method and caches its result.
+ * The key is made of the arguments alone, see {@link CacheKeys}, so methods sharing a cache share the results
+ * of equal arguments. A null result is cached as well, a thrown exception is not. Two callers missing the same
+ * key at the same time both call the method.
+ */
+public class CachingInterceptor implements MethodInterceptor {
+    private static final Object NULL_VALUE = new Object();
+
+    private final Cache cache;
+
+    public CachingInterceptor(Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object key = CacheKeys.forLookup(invocation.getArguments());
+        Object value = this.cache.get(key);
+        if (value != null) {
+            return value == NULL_VALUE ? null : value;
+        }
+        Object result = invocation.proceed();
+        this.cache.put(CacheKeys.forPut(key), result == null ? NULL_VALUE : result);
+        return result;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+}
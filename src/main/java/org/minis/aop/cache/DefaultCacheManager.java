@@ -0,0 +1,57 @@
+package org.minis.aop.cache;
+
+import org.minis.beans.factory.config.CacheConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates a {@link SegmentedLruCache} for every cache name, with the settings of the first method using it.
+ * Subclasses return another backend from {@link #createCache(String, CacheConfig)}.
+ */
+public class DefaultCacheManager implements CacheManager {
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Cache getCache(String name, CacheConfig config) {
+        Cache cache = this.caches.get(name);
+        if (cache == null) {
+            cache = this.caches.computeIfAbsent(name, n -> createCache(n, config));
+        }
+        return cache;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return this.caches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableCollection(new ArrayList<>(this.caches.keySet()));
+    }
+
+    protected Cache createCache(String name, CacheConfig config) {
+        return new SegmentedLruCache(name, config.getMaxSize(), config.getTimeToLive(),
+                createWeigher(config.getWeigherClassName()));
+    }
+
+    /**
+     * @param className
+     * @return the weigher, null for no class name
+     * @throws IllegalArgumentException when the class can not be loaded or instantiated
+     */
+    protected Weigher createWeigher(String className) {
+        if (className == null) {
+            return null;
+        }
+        try {
+            return (Weigher) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Can not create weigher " + className, e);
+        }
+    }
+}
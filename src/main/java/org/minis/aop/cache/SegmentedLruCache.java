@@ -0,0 +1,397 @@
+package org.minis.aop.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The default {@link Cache}: bounded by the number or the total {@link Weigher weight} of its entries, evicting
+ * by segmented LRU, with an optional time to live counted from the last put.
+ * <p>
+ * Segmented LRU keeps two LRU lists. A new entry goes to the probation list; a hit on it moves it to the
+ * protected list, which takes up to {@value #PROTECTED_PERCENT}% of the weight, and the least recently used
+ * protected entry falls back to probation when the list is full. Victims are taken from the probation list
+ * first, so a scan of keys read once only churns probation and leaves the entries read repeatedly in place.
+ * <p>
+ * The keys are spread over independently locked segments, each with its own map, lists and share of the
+ * maximum size, so concurrent writers only contend when their keys fall into the same segment. As keys never
+ * spread perfectly evenly, a full segment may evict before the cache as a whole holds its maximum size. A lookup reads
+ * the map without locking. The reordering of a hit is best effort: it is skipped for entries already in the
+ * first quarter of the protected list, and when the segment is locked by another thread, instead of waiting.
+ * The clock is only read when a time to live is set.
+ * Expired entries are removed when they are looked up, evicted like any other entry, or by {@link #cleanUp()}.
+ */
+public final class SegmentedLruCache implements Cache {
+    private static final int MAX_SEGMENTS = 64;
+    /**
+     * The smallest share of the maximum size worth a segment of its own
+     */
+    private static final int MIN_SEGMENT_WEIGHT = 16;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final String name;
+    private final long maxWeight;
+    private final long timeToLiveNanos;
+    private final Weigher weigher;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param name
+     * @param maxWeight  the number of entries kept, or their total weight with a weigher
+     * @param timeToLive how long an entry is served after it was put, null to keep it until evicted
+     * @param weigher    null to count the entries
+     */
+    public SegmentedLruCache(String name, long maxWeight, Duration timeToLive, Weigher weigher) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Invalid maximum size " + maxWeight + " of cache " + name);
+        }
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.timeToLiveNanos = timeToLive == null ? -1 : timeToLive.toNanos();
+        this.weigher = weigher;
+        int segmentCount = Integer.highestOneBit(Math.min(MAX_SEGMENTS, 4 * Runtime.getRuntime().availableProcessors()));
+        while (segmentCount > 1 && maxWeight / segmentCount < MIN_SEGMENT_WEIGHT) {
+            segmentCount >>= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment(maxWeight / segmentCount + (i < maxWeight % segmentCount ? 1 : 0));
+        }
+    }
+
+    private Segment segmentFor(Object key) {
+        // the middle bits of the product depend on most bits of the hash code, the map of the segment uses the low ones
+        return this.segments[((key.hashCode() * 0x9E3779B9) >>> 16) & (this.segments.length - 1)];
+    }
+
+    private long now() {
+        return this.timeToLiveNanos < 0 ? 0 : System.nanoTime();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = segmentFor(key).get(key, now());
+        if (value != null) {
+            this.hits.increment();
+        } else {
+            this.misses.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        int weight = this.weigher == null ? 1 : this.weigher.weigh(key, value);
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weigher of cache " + this.name + " returned " + weight);
+        }
+        this.puts.increment();
+        segmentFor(key).put(key, value, weight, now());
+    }
+
+    @Override
+    public void evict(Object key) {
+        segmentFor(key).evict(key);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Removes every expired entry, for caches with a time to live whose entries are rarely looked up again
+     */
+    public void cleanUp() {
+        if (this.timeToLiveNanos < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Segment segment : this.segments) {
+            segment.removeExpired(now);
+        }
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        long size = 0;
+        long weight = 0;
+        for (Segment segment : this.segments) {
+            segment.lock();
+            try {
+                size += segment.map.size();
+                weight += segment.probationWeight + segment.protectedWeight;
+            } finally {
+                segment.unlock();
+            }
+        }
+        return new CacheStats(this.hits.sum(), this.misses.sum(), this.puts.sum(), this.evictions.sum(),
+                this.expirations.sum(), size, weight);
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentedLruCache[" + this.name + ", " + this.segments.length + " segments, " + getStats() + "]";
+    }
+
+    private static final class Node {
+        final Object key;
+        volatile Object value;
+        volatile long writeTime;
+        int weight;
+        boolean inProtected;
+        /**
+         * The clock of the segment when the entry was last moved to the head of the protected list
+         */
+        long movedAt;
+        Node prev;
+        Node next;
+
+        Node(Object key, Object value, int weight, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * A share of the cache: a concurrent map read without locking, and two circular lists with sentinel heads,
+     * the most recently used entry first. Changes to the map and the lists are guarded by the lock of the segment.
+     */
+    private final class Segment extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        final Map<Object, Node> map = new ConcurrentHashMap<>();
+        final Node probationHead = sentinel();
+        final Node protectedHead = sentinel();
+        final long maxWeight;
+        final long maxProtectedWeight;
+        long probationWeight;
+        long protectedWeight;
+        int protectedCount;
+        /**
+         * Counts the moves to the head of the protected list, so that {@code clock - movedAt} bounds the distance
+         * of an entry from that head
+         */
+        long clock;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+            this.maxProtectedWeight = maxWeight * PROTECTED_PERCENT / 100;
+        }
+
+        private Node sentinel() {
+            Node head = new Node(null, null, 0, 0);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        Object get(Object key, long now) {
+            Node node = this.map.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (isExpired(node, now)) {
+                expire(node);
+                return null;
+            }
+            Object value = node.value;
+            // reordering is skipped for an entry close to the head of the protected list, where it makes no
+            // difference, and when another thread holds the lock, so that a hit never waits
+            if (!isNearProtectedHead(node) && tryLock()) {
+                try {
+                    // unless it was removed in the meantime
+                    if (node.prev != null) {
+                        onHit(node);
+                    }
+                } finally {
+                    unlock();
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Read without the lock, a stale answer only costs a reordering or skips one
+         */
+        private boolean isNearProtectedHead(Node node) {
+            return node.inProtected && this.clock - node.movedAt < this.protectedCount / 4;
+        }
+
+        private void expire(Node node) {
+            lock();
+            try {
+                if (this.map.get(node.key) == node) {
+                    remove(node);
+                    expirations.increment();
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void put(Object key, Object value, int weight, long now) {
+            lock();
+            try {
+                Node node = this.map.get(key);
+                if (weight > this.maxWeight) {
+                    // would evict the whole segment and itself
+                    if (node != null) {
+                        remove(node);
+                    }
+                    evictions.increment();
+                    return;
+                }
+                if (node != null) {
+                    if (node.inProtected) {
+                        this.protectedWeight += weight - node.weight;
+                    } else {
+                        this.probationWeight += weight - node.weight;
+                    }
+                    node.value = value;
+                    node.weight = weight;
+                    node.writeTime = now;
+                    onHit(node);
+                } else {
+                    node = new Node(key, value, weight, now);
+                    this.map.put(key, node);
+                    linkFirst(this.probationHead, node);
+                    this.probationWeight += weight;
+                }
+                while (this.probationWeight + this.protectedWeight > this.maxWeight) {
+                    Node victim = this.probationHead.prev;
+                    // the entry just put gets its chance, unless it is the only one left
+                    if (victim == this.probationHead || victim == node && this.protectedHead.prev != this.protectedHead) {
+                        victim = this.protectedHead.prev;
+                    }
+                    remove(victim);
+                    if (isExpired(victim, now)) {
+                        expirations.increment();
+                    } else {
+                        evictions.increment();
+                    }
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void evict(Object key) {
+            lock();
+            try {
+                Node node = this.map.get(key);
+                if (node != null) {
+                    remove(node);
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        void clear() {
+            lock();
+            try {
+                this.map.clear();
+                this.probationHead.prev = this.probationHead.next = this.probationHead;
+                this.protectedHead.prev = this.protectedHead.next = this.protectedHead;
+                this.probationWeight = 0;
+                this.protectedWeight = 0;
+                this.protectedCount = 0;
+            } finally {
+                unlock();
+            }
+        }
+
+        void removeExpired(long now) {
+            lock();
+            try {
+                for (Node head : new Node[]{this.probationHead, this.protectedHead}) {
+                    for (Node node = head.next; node != head; ) {
+                        Node next = node.next;
+                        if (isExpired(node, now)) {
+                            remove(node);
+                            expirations.increment();
+                        }
+                        node = next;
+                    }
+                }
+            } finally {
+                unlock();
+            }
+        }
+
+        private boolean isExpired(Node node, long now) {
+            return timeToLiveNanos >= 0 && now - node.writeTime >= timeToLiveNanos;
+        }
+
+        /**
+         * Moves a probation entry to the protected list, demoting the least recently used protected entries
+         * beyond its share, or a protected entry to the front of its list
+         */
+        private void onHit(Node node) {
+            unlink(node);
+            if (!node.inProtected) {
+                this.probationWeight -= node.weight;
+                this.protectedWeight += node.weight;
+                this.protectedCount++;
+                node.inProtected = true;
+            }
+            linkFirst(this.protectedHead, node);
+            node.movedAt = ++this.clock;
+            while (this.protectedWeight > this.maxProtectedWeight && this.protectedHead.prev != node) {
+                Node demoted = this.protectedHead.prev;
+                unlink(demoted);
+                demoted.inProtected = false;
+                this.protectedWeight -= demoted.weight;
+                this.protectedCount--;
+                this.probationWeight += demoted.weight;
+                linkFirst(this.probationHead, demoted);
+            }
+        }
+
+        private void remove(Node node) {
+            this.map.remove(node.key);
+            unlink(node);
+            if (node.inProtected) {
+                this.protectedWeight -= node.weight;
+                this.protectedCount--;
+            } else {
+                this.probationWeight -= node.weight;
+            }
+        }
+
+        private void linkFirst(Node head, Node node) {
+            node.prev = head;
+            node.next = head.next;
+            head.next.prev = node;
+            head.next = node;
+        }
+
+        private void unlink(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+}
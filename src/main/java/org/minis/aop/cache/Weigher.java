@@ -0,0 +1,15 @@
+package org.minis.aop.cache;
+
+/**
+ * The weight of a cache entry, so that a cache is bounded by the total weight of its entries rather than
+ * their number, e.g. the size of a returned list or array
+ */
+@FunctionalInterface
+public interface Weigher {
+    /**
+     * @param key
+     * @param value
+     * @return a weight of at least 1
+     */
+    int weigh(Object key, Object value);
+}
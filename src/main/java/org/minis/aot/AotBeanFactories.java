@@ -0,0 +1,72 @@
+package org.minis.aot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+import org.minis.beans.factory.xml.BeanDefinitionSnapshot;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Finds the bean factory generated ahead of time by {@link BeanFactoryGenerator} for a config file.
+ */
+public final class AotBeanFactories {
+    public static final String GENERATED_PACKAGE = "org.minis.aot.generated";
+    /**
+     * Name of the constant holding the CRC32 of the XML a factory was generated from
+     */
+    public static final String SOURCE_CHECKSUM_FIELD = "SOURCE_CHECKSUM";
+
+    private static final Logger logger = LogManager.getLogger(AotBeanFactories.class);
+
+    private AotBeanFactories() {
+    }
+
+    /**
+     * beans.xml is generated as org.minis.aot.generated.BeansBeanFactory, META-INF/minis/web.xml as
+     * MetaInfMinisWebBeanFactory.
+     *
+     * @param fileName the config file on the class path
+     * @return
+     */
+    public static String getGeneratedClassName(String fileName) {
+        String baseName = fileName.endsWith(".xml") ? fileName.substring(0, fileName.length() - 4) : fileName;
+        StringBuilder className = new StringBuilder(GENERATED_PACKAGE).append('.');
+        for (String part : baseName.split("[^A-Za-z0-9]+")) {
+            if (!part.isEmpty()) {
+                className.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1).toLowerCase());
+            }
+        }
+        if (Character.isDigit(className.charAt(GENERATED_PACKAGE.length() + 1))) {
+            className.insert(GENERATED_PACKAGE.length() + 1, '_');
+        }
+        return className.append("BeanFactory").toString();
+    }
+
+    /**
+     * @param fileName the config file on the class path
+     * @return a new instance of the generated factory, or null when there is none or the XML has changed
+     * since it was generated
+     */
+    public static SimpleBeanFactory load(String fileName) {
+        Class<?> factoryClass;
+        try {
+            factoryClass = Class.forName(getGeneratedClassName(fileName), true, AotBeanFactories.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        try {
+            URL xmlPath = AotBeanFactories.class.getClassLoader().getResource(fileName);
+            long checksum = factoryClass.getField(SOURCE_CHECKSUM_FIELD).getLong(null);
+            if (xmlPath != null && BeanDefinitionSnapshot.checksum(xmlPath) != checksum) {
+                logger.warn("{} was generated from another version of {}, ignoring it", factoryClass.getName(), fileName);
+                return null;
+            }
+            logger.debug("Using ahead-of-time generated bean factory {}", factoryClass.getName());
+            return (SimpleBeanFactory) factoryClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | IOException e) {
+            throw new RuntimeException("Failed to load generated bean factory for " + fileName, e);
+        }
+    }
+}
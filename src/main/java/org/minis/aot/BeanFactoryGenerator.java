@@ -0,0 +1,539 @@
+package org.minis.aot;
+
+import org.minis.BeanDefinition;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.CacheConfig;
+import org.minis.beans.factory.config.PoolConfig;
+import org.minis.beans.factory.support.BeanDependencyGraph;
+import org.minis.beans.factory.support.InjectionPlan;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+import org.minis.beans.factory.support.SimpleInstantiationStrategy;
+import org.minis.beans.factory.xml.BeanDefinitionSnapshot;
+import org.minis.beans.factory.xml.StreamingXmlBeanDefinitionReader;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Build-time generator of reflection-free bean factories.
+ * <p>
+ * For a config file it emits the Java source of a {@link SimpleBeanFactory} subclass that registers the bean
+ * definitions and creates every bean with direct {@code new} and setter calls, in the order given by the
+ * {@link BeanDependencyGraph}. A reference cycle is created as one group: all its instances first, then
+ * their setters. {@link AotBeanFactories} loads the generated class at runtime when it is on the class path.
+ * <p>
+ * Usage: {@code BeanFactoryGenerator <output source directory> <config file>...}
+ */
+public class BeanFactoryGenerator {
+    /**
+     * Statements per generated method, keeps large contexts below the JVM method size limit
+     */
+    private static final int CHUNK_SIZE = 200;
+
+    public static void main(String[] args) throws IOException, BeansException {
+        if (args.length < 2) {
+            System.err.println("Usage: BeanFactoryGenerator <output source directory> <config file>...");
+            System.exit(1);
+        }
+        Path outputDir = Paths.get(args[0]);
+        for (int i = 1; i < args.length; i++) {
+            Path sourceFile = new BeanFactoryGenerator().generate(args[i], outputDir);
+            System.out.println("Generated " + sourceFile);
+        }
+    }
+
+    /**
+     * @param fileName  the config file on the class path
+     * @param outputDir the source root to write into
+     * @return the generated source file
+     */
+    public Path generate(String fileName, Path outputDir) throws IOException, BeansException {
+        URL xmlPath = getClass().getClassLoader().getResource(fileName);
+        if (xmlPath == null) {
+            throw new IllegalArgumentException("Config file " + fileName + " not found on the class path");
+        }
+        SimpleBeanFactory registry = new SimpleBeanFactory();
+        new StreamingXmlBeanDefinitionReader(registry).loadBeanDefinitions(xmlPath);
+
+        String qualifiedName = AotBeanFactories.getGeneratedClassName(fileName);
+        String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        String source = new SourceWriter(fileName, simpleName, BeanDefinitionSnapshot.checksum(xmlPath), registry).write();
+
+        Path sourceFile = outputDir.resolve(qualifiedName.replace('.', '/') + ".java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        return sourceFile;
+    }
+
+    private static final class SourceWriter {
+        private final String fileName;
+        private final String className;
+        private final long checksum;
+        private final String[] beanNames;
+        private final List<BeanDefinition> beanDefinitions = new ArrayList<>();
+        private final List<InjectionPlan> plans = new ArrayList<>();
+        private final Map<String, Integer> beanIndexes = new HashMap<>();
+        private final BeanDependencyGraph graph;
+        private final StringBuilder out = new StringBuilder(8192);
+        /**
+         * Prepended to every line, for statements nested in a block
+         */
+        private String indent = "";
+
+        SourceWriter(String fileName, String className, long checksum, SimpleBeanFactory registry) throws BeansException {
+            this.fileName = fileName;
+            this.className = className;
+            this.checksum = checksum;
+            this.beanNames = registry.getBeanDefinitionNames();
+            for (int i = 0; i < beanNames.length; i++) {
+                BeanDefinition beanDefinition = registry.getBeanDefinition(beanNames[i]);
+                InjectionPlan plan = InjectionPlan.resolve(beanDefinition, new SimpleInstantiationStrategy(),
+                        registry.getConversionService());
+                if (!Modifier.isPublic(plan.getBeanClass().getModifiers())
+                        || !Modifier.isPublic(plan.getConstructor().getModifiers())) {
+                    throw new BeansException("Bean " + beanNames[i] + " needs a public class and constructor to be generated");
+                }
+                beanDefinitions.add(beanDefinition);
+                plans.add(plan);
+                beanIndexes.put(beanNames[i], i);
+            }
+            this.graph = BeanDependencyGraph.build(Arrays.asList(beanNames), definitionMap(registry));
+        }
+
+        private Map<String, BeanDefinition> definitionMap(SimpleBeanFactory registry) {
+            Map<String, BeanDefinition> map = new HashMap<>();
+            for (String beanName : beanNames) {
+                map.put(beanName, registry.getBeanDefinition(beanName));
+            }
+            return map;
+        }
+
+        String write() {
+            line("package " + AotBeanFactories.GENERATED_PACKAGE + ";");
+            line("");
+            line("import org.minis.BeanDefinition;");
+            line("import org.minis.beans.BeansException;");
+            line("import org.minis.beans.factory.support.SimpleBeanFactory;");
+            line("");
+            line("/**");
+            line(" * Generated by " + BeanFactoryGenerator.class.getName() + " from " + fileName + ", do not edit.");
+            line(" */");
+            line("public final class " + className + " extends SimpleBeanFactory {");
+            line("    public static final long " + AotBeanFactories.SOURCE_CHECKSUM_FIELD + " = " + checksum + "L;");
+            line("");
+            line("    private final java.util.Map<String, Integer> beanIndexes = new java.util.HashMap<>(" + (beanNames.length * 2) + ");");
+            line("");
+            writeConstructor();
+            writeGetBean();
+            writeCreatePooledInstance();
+            writeInvokeInitMethod();
+            writeDispatch();
+            for (BeanDependencyGraph.Component component : graph.getComponents()) {
+                writeGroup(component);
+            }
+            for (int i = 0; i < beanNames.length; i++) {
+                if (!beanDefinitions.get(i).isSingleton()) {
+                    writePrototype(i);
+                }
+            }
+            writeDefinitionHelper();
+            line("}");
+            return out.toString();
+        }
+
+        private void writeConstructor() {
+            line("    public " + className + "() {");
+            int chunks = chunkCount(beanNames.length);
+            for (int c = 0; c < chunks; c++) {
+                line("        registerDefinitions" + c + "();");
+            }
+            line("    }");
+            line("");
+            for (int c = 0; c < chunks; c++) {
+                line("    private void registerDefinitions" + c + "() {");
+                for (int i = c * CHUNK_SIZE; i < Math.min(beanNames.length, (c + 1) * CHUNK_SIZE); i++) {
+                    BeanDefinition beanDefinition = beanDefinitions.get(i);
+                    StringBuilder dependsOn = new StringBuilder("new String[]{");
+                    String[] names = beanDefinition.getDependsOn() == null ? new String[0] : beanDefinition.getDependsOn();
+                    for (int d = 0; d < names.length; d++) {
+                        dependsOn.append(d == 0 ? "" : ", ").append(quote(names[d]));
+                    }
+                    dependsOn.append('}');
+                    String definition = "definition(" + quote(beanNames[i]) + ", "
+                            + typeName(plans.get(i).getBeanClass()) + ".class, " + quote(beanDefinition.getScope()) + ", "
+                            + beanDefinition.isLazyInit() + ", " + dependsOn + ")";
+                    if (beanDefinition.getPoolConfig() != null) {
+                        definition = "pooled(" + definition + ", " + poolConfig(beanDefinition.getPoolConfig()) + ")";
+                    }
+                    if (beanDefinition.getInitMethodName() != null) {
+                        definition = "initialized(" + definition + ", " + quote(beanDefinition.getInitMethodName()) + ")";
+                    }
+                    if (!beanDefinition.getCacheConfigs().isEmpty()) {
+                        StringBuilder cached = new StringBuilder("cached(").append(definition);
+                        for (CacheConfig cacheConfig : beanDefinition.getCacheConfigs()) {
+                            cached.append(", ").append(cacheConfig(cacheConfig));
+                        }
+                        definition = cached.append(')').toString();
+                    }
+                    line("        registerBeanDefinition(" + quote(beanNames[i]) + ", " + definition + ");");
+                    // a pooled bean is not served by getBean, only by createPooledInstance
+                    if (!beanDefinition.isPooled()) {
+                        line("        beanIndexes.put(" + quote(beanNames[i]) + ", " + i + ");");
+                    }
+                }
+                line("    }");
+                line("");
+            }
+        }
+
+        private void writeGetBean() {
+            line("    @Override");
+            line("    public Object getBean(String beanName) throws BeansException {");
+            line("        Object singleton = getSingleton(beanName);");
+            line("        if (singleton != null) {");
+            line("            return singleton;");
+            line("        }");
+            line("        Integer beanIndex = beanIndexes.get(beanName);");
+            line("        return beanIndex == null ? super.getBean(beanName) : create(beanIndex);");
+            line("    }");
+            line("");
+        }
+
+        private void writeCreatePooledInstance() {
+            List<Integer> pooled = new ArrayList<>();
+            for (int i = 0; i < beanNames.length; i++) {
+                if (beanDefinitions.get(i).isPooled()) {
+                    pooled.add(i);
+                }
+            }
+            if (pooled.isEmpty()) {
+                return;
+            }
+            line("    @Override");
+            line("    protected Object createPooledInstance(BeanDefinition beanDefinition) throws BeansException {");
+            line("        switch (beanDefinition.getId()) {");
+            for (int i : pooled) {
+                line("            case " + quote(beanNames[i]) + ":");
+                line("                return createPrototype" + i + "();");
+            }
+            line("            default:");
+            line("                return super.createPooledInstance(beanDefinition);");
+            line("        }");
+            line("    }");
+            line("");
+        }
+
+        private void writeInvokeInitMethod() {
+            List<Integer> initialized = new ArrayList<>();
+            for (int i = 0; i < beanNames.length; i++) {
+                if (plans.get(i).getInitMethod() != null) {
+                    initialized.add(i);
+                }
+            }
+            if (initialized.isEmpty()) {
+                return;
+            }
+            line("    @Override");
+            line("    protected void invokeInitMethod(BeanDefinition beanDefinition, Object bean) throws Throwable {");
+            line("        switch (beanDefinition.getId()) {");
+            for (int i : initialized) {
+                line("            case " + quote(beanNames[i]) + ":");
+                line("                ((" + typeName(plans.get(i).getBeanClass()) + ") bean)."
+                        + plans.get(i).getInitMethod().getName() + "();");
+                line("                return;");
+            }
+            line("            default:");
+            line("                super.invokeInitMethod(beanDefinition, bean);");
+            line("        }");
+            line("    }");
+            line("");
+        }
+
+        private String cacheConfig(CacheConfig cacheConfig) {
+            return "new org.minis.beans.factory.config.CacheConfig(" + quote(cacheConfig.getMethodName())
+                    + ", " + quote(cacheConfig.getCacheName()) + ", " + cacheConfig.getMaxSize() + "L"
+                    + ", " + literal(cacheConfig.getTimeToLive(), Duration.class, null)
+                    + ", " + quote(cacheConfig.getWeigherClassName()) + ")";
+        }
+
+        private String poolConfig(PoolConfig poolConfig) {
+            return "new org.minis.beans.factory.config.PoolConfig(" + poolConfig.getMinSize() + ", " + poolConfig.getMaxSize()
+                    + ", " + literal(poolConfig.getIdleTimeout(), Duration.class, null)
+                    + ", " + literal(poolConfig.getMaxWait(), Duration.class, null) + ")";
+        }
+
+        private void writeDispatch() {
+            int chunks = chunkCount(beanNames.length);
+            line("    private Object create(int beanIndex) throws BeansException {");
+            line("        switch (beanIndex / " + CHUNK_SIZE + ") {");
+            for (int c = 0; c < chunks; c++) {
+                line("            case " + c + ":");
+                line("                return create" + c + "(beanIndex);");
+            }
+            line("            default:");
+            line("                throw new IllegalStateException(\"Unknown bean index \" + beanIndex);");
+            line("        }");
+            line("    }");
+            line("");
+            for (int c = 0; c < chunks; c++) {
+                line("    private Object create" + c + "(int beanIndex) throws BeansException {");
+                line("        switch (beanIndex) {");
+                for (int i = c * CHUNK_SIZE; i < Math.min(beanNames.length, (c + 1) * CHUNK_SIZE); i++) {
+                    line("            case " + i + ":");
+                    if (beanDefinitions.get(i).isPrototype() || beanDefinitions.get(i).isPooled()) {
+                        line("                return createPrototype" + i + "();");
+                    } else if (beanDefinitions.get(i).isCustomScope()) {
+                        line("                return getScopedBean(getBeanDefinition(" + quote(beanNames[i]) + "), this::createPrototype" + i + ");");
+                    } else {
+                        line("                createGroup" + graph.getComponentIndex(beanNames[i]) + "();");
+                        line("                return getSingleton(" + quote(beanNames[i]) + ");");
+                    }
+                }
+                line("            default:");
+                line("                throw new IllegalStateException(\"Unknown bean index \" + beanIndex);");
+                line("        }");
+                line("    }");
+                line("");
+            }
+        }
+
+        private void writeGroup(BeanDependencyGraph.Component component) {
+            List<Integer> members = new ArrayList<>();
+            for (String beanName : component.getBeanNames()) {
+                int index = beanIndexes.get(beanName);
+                if (beanDefinitions.get(index).isSingleton()) {
+                    members.add(index);
+                }
+            }
+            if (members.isEmpty()) {
+                return;
+            }
+            Set<Integer> group = new HashSet<>(members);
+            line("    // " + String.join(", ", component.getBeanNames()));
+            // the creation locks of the runtime path, so generated and reflective creation exclude each other alike
+            line("    private void createGroup" + component.getIndex() + "() throws BeansException {");
+            line("        java.util.concurrent.locks.ReentrantLock[] creationLocks = lockCreation("
+                    + quote(beanNames[members.get(0)]) + ");");
+            line("        try {");
+            line("            if (containsSingleton(" + quote(beanNames[members.get(0)]) + ")) {");
+            line("                return;");
+            line("            }");
+            this.indent = "    ";
+            for (int index : members) {
+                line("        " + typeName(plans.get(index).getBeanClass()) + " bean" + index + " = " + instantiation(index) + ";");
+            }
+            for (int index : members) {
+                writeSetters(index, group);
+            }
+            for (int index : members) {
+                line("        registerBean(" + quote(beanNames[index]) + ", initializeSingleton(getBeanDefinition("
+                        + quote(beanNames[index]) + "), bean" + index + "));");
+            }
+            this.indent = "";
+            line("        } finally {");
+            line("            unlockCreation(creationLocks);");
+            line("        }");
+            line("    }");
+            line("");
+        }
+
+        private void writePrototype(int index) {
+            String type = typeName(plans.get(index).getBeanClass());
+            line("    private Object createPrototype" + index + "() throws BeansException {");
+            line("        " + type + " bean" + index + " = " + instantiation(index) + ";");
+            writeSetters(index, Collections.<Integer>emptySet());
+            line("        return initializeBean(getBeanDefinition(" + quote(beanNames[index]) + "), bean" + index + ");");
+            line("    }");
+            line("");
+        }
+
+        private String instantiation(int index) {
+            InjectionPlan plan = plans.get(index);
+            Class<?>[] parameterTypes = plan.getConstructor().getParameterTypes();
+            Object[] arguments = plan.getConstructorArguments();
+            StringBuilder expression = new StringBuilder("new ").append(typeName(plan.getBeanClass())).append('(');
+            for (int a = 0; a < arguments.length; a++) {
+                expression.append(a == 0 ? "" : ", ").append(literal(arguments[a], parameterTypes[a], beanNames[index]));
+            }
+            return expression.append(')').toString();
+        }
+
+        private void writeSetters(int index, Set<Integer> group) {
+            for (InjectionPlan.PropertyInjection injection : plans.get(index).getPropertyInjections()) {
+                String value;
+                if (injection.isRef()) {
+                    Integer target = beanIndexes.get((String) injection.getValue());
+                    if (target != null && group.contains(target)) {
+                        // the early reference, so the cycle holds the object handed out afterwards, e.g. a proxy
+                        value = "earlyReference(" + quote(beanNames[target]) + ", bean" + target + ", "
+                                + typeName(injection.getType()) + ".class)";
+                    } else {
+                        value = "reference(" + quote((String) injection.getValue()) + ", "
+                                + typeName(injection.getType()) + ".class)";
+                    }
+                } else {
+                    value = literal(injection.getValue(), injection.getType(), beanNames[index]);
+                }
+                line("        bean" + index + "." + injection.getSetter().getName() + "(" + value + ");");
+            }
+        }
+
+        private void writeDefinitionHelper() {
+            line("    private static BeanDefinition definition(String id, Class<?> beanClass, String scope, boolean lazyInit,");
+            line("                                             String[] dependsOn) {");
+            line("        BeanDefinition beanDefinition = new BeanDefinition(id, beanClass.getName());");
+            line("        beanDefinition.setBeanClass(beanClass);");
+            line("        beanDefinition.setScope(scope);");
+            line("        beanDefinition.setLazyInit(lazyInit);");
+            line("        beanDefinition.setDependsOn(dependsOn);");
+            line("        beanDefinition.setConstructorArgumentValues(new org.minis.beans.factory.config.ConstructorArgumentValues());");
+            line("        beanDefinition.setPropertyValues(new org.minis.beans.factory.config.PropertyValues());");
+            line("        return beanDefinition;");
+            line("    }");
+            line("");
+            line("    private <T> T reference(String beanName, Class<T> type) throws BeansException {");
+            line("        return fit(beanName, getBean(beanName), type);");
+            line("    }");
+            line("");
+            line("    private <T> T earlyReference(String beanName, Object bean, Class<T> type) throws BeansException {");
+            line("        return fit(beanName, getEarlyBeanReference(getBeanDefinition(beanName), bean), type);");
+            line("    }");
+            line("");
+            line("    private static <T> T fit(String beanName, Object reference, Class<T> type) throws BeansException {");
+            line("        if (!type.isInstance(reference)) {");
+            line("            throw new BeansException(\"Bean '\" + beanName + \"' is a \" + reference.getClass().getName()");
+            line("                    + \", which does not fit a property of type \" + type.getName());");
+            line("        }");
+            line("        return type.cast(reference);");
+            line("    }");
+            line("");
+            line("    private static BeanDefinition pooled(BeanDefinition beanDefinition,");
+            line("                                         org.minis.beans.factory.config.PoolConfig poolConfig) {");
+            line("        beanDefinition.setPoolConfig(poolConfig);");
+            line("        return beanDefinition;");
+            line("    }");
+            line("");
+            line("    private static BeanDefinition initialized(BeanDefinition beanDefinition, String initMethodName) {");
+            line("        beanDefinition.setInitMethodName(initMethodName);");
+            line("        return beanDefinition;");
+            line("    }");
+            line("");
+            line("    private static BeanDefinition cached(BeanDefinition beanDefinition,");
+            line("                                         org.minis.beans.factory.config.CacheConfig... cacheConfigs) {");
+            line("        beanDefinition.setCacheConfigs(java.util.Arrays.asList(cacheConfigs));");
+            line("        return beanDefinition;");
+            line("    }");
+        }
+
+        private String literal(Object value, Class<?> type, String beanName) {
+            if (value == null) {
+                return type.isPrimitive() ? "0" : "null";
+            }
+            // the plan holds converted values, so each type is written back as the equivalent Java expression
+            if (value instanceof String) {
+                return quote((String) value);
+            }
+            if (value instanceof Integer || value instanceof Boolean) {
+                return value.toString();
+            }
+            if (value instanceof Long) {
+                return value + "L";
+            }
+            if (value instanceof Short || value instanceof Byte) {
+                return "(" + (value instanceof Short ? "short" : "byte") + ") " + value;
+            }
+            if (value instanceof Character) {
+                return "(char) " + (int) (Character) value;
+            }
+            if (value instanceof Double) {
+                double d = (Double) value;
+                return Double.isFinite(d) ? d + "d" : "Double.longBitsToDouble(" + Double.doubleToRawLongBits(d) + "L)";
+            }
+            if (value instanceof Float) {
+                float f = (Float) value;
+                return Float.isFinite(f) ? f + "f" : "Float.intBitsToFloat(" + Float.floatToRawIntBits(f) + ")";
+            }
+            if (value instanceof BigInteger || value instanceof BigDecimal) {
+                return "new " + value.getClass().getName() + "(" + quote(value.toString()) + ")";
+            }
+            if (value instanceof Duration) {
+                Duration duration = (Duration) value;
+                return "java.time.Duration.ofSeconds(" + duration.getSeconds() + "L, " + duration.getNano() + ")";
+            }
+            if (value instanceof Enum) {
+                return typeName(((Enum<?>) value).getDeclaringClass()) + "." + ((Enum<?>) value).name();
+            }
+            if (value.getClass().isArray()) {
+                Class<?> componentType = value.getClass().getComponentType();
+                StringBuilder array = new StringBuilder("new ").append(typeName(value.getClass())).append('{');
+                for (int i = 0; i < Array.getLength(value); i++) {
+                    array.append(i == 0 ? "" : ", ").append(literal(Array.get(value, i), componentType, beanName));
+                }
+                return array.append('}').toString();
+            }
+            throw new IllegalArgumentException("Can not generate a literal of type " + type.getName() + " for bean " + beanName);
+        }
+
+        private static String typeName(Class<?> type) {
+            return type.getCanonicalName();
+        }
+
+        private static String quote(String value) {
+            if (value == null) {
+                return "null";
+            }
+            StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+            for (char c : value.toCharArray()) {
+                switch (c) {
+                    case '"':
+                        quoted.append("\\\"");
+                        break;
+                    case '\\':
+                        quoted.append("\\\\");
+                        break;
+                    case '\n':
+                        quoted.append("\\n");
+                        break;
+                    case '\r':
+                        quoted.append("\\r");
+                        break;
+                    case '\t':
+                        quoted.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20 || c > 0x7e) {
+                            quoted.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            quoted.append(c);
+                        }
+                }
+            }
+            return quoted.append('"').toString();
+        }
+
+        private static int chunkCount(int size) {
+            return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        }
+
+        private void line(String line) {
+            out.append(line.isEmpty() ? "" : indent).append(line).append('\n');
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package org.minis.beans;
 
 public class BeansException extends Exception {
+    private static final long serialVersionUID = 1L;
+
     public BeansException(String message) {
         super(message);
     }
+
+    public BeansException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -6,6 +6,14 @@ public interface BeanFactory {
 
     Object getBean(String beanName) throws BeansException;
 
+    /**
+     * @param requiredType
+     * @param <T>
+     * @return the only bean whose class is the given type or a subtype of it
+     * @throws BeansException if there is no such bean or more than one
+     */
+    <T> T getBean(Class<T> requiredType) throws BeansException;
+
     Boolean containsBean(String name);
 
     boolean isSingleton(String name);
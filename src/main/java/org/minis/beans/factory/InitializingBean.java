@@ -0,0 +1,13 @@
+package org.minis.beans.factory;
+
+/**
+ * Implemented by beans that need to act once all their properties are set, e.g. to check them or to warm up.
+ * It is called after the postProcessBeforeInitialization of the bean post processors and before its
+ * init-method, the same as the init-method without naming it in the configuration.
+ */
+public interface InitializingBean {
+    /**
+     * @throws Exception any failure, reported as the failed creation of the bean
+     */
+    void afterPropertiesSet() throws Exception;
+}
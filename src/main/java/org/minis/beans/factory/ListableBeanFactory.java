@@ -0,0 +1,29 @@
+package org.minis.beans.factory;
+
+import org.minis.beans.BeansException;
+
+import java.util.Map;
+
+/**
+ * A {@link BeanFactory} that can enumerate its beans, including by type.
+ */
+public interface ListableBeanFactory extends BeanFactory {
+
+    String[] getBeanDefinitionNames();
+
+    /**
+     * @param type a class or interface; a bean matches when its class is the type or a subtype of it
+     * @return the names of the matching beans, in registration order
+     */
+    String[] getBeanNamesForType(Class<?> type);
+
+    /**
+     * Returns the matching beans by name, creating them if needed.
+     *
+     * @param type
+     * @param <T>
+     * @return
+     * @throws BeansException
+     */
+    <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException;
+}
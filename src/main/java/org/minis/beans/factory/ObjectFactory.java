@@ -0,0 +1,13 @@
+package org.minis.beans.factory;
+
+import org.minis.beans.BeansException;
+
+/**
+ * Creates an object on demand, e.g. the bean a {@link org.minis.beans.factory.config.Scope} has no instance of yet
+ *
+ * @param <T>
+ */
+@FunctionalInterface
+public interface ObjectFactory<T> {
+    T getObject() throws BeansException;
+}
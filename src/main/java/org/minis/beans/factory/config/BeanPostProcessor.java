@@ -0,0 +1,63 @@
+package org.minis.beans.factory.config;
+
+import org.minis.beans.BeansException;
+
+/**
+ * A hook into the creation of beans, called after a bean is injected: {@link #postProcessBeforeInitialization}
+ * before its initialization callbacks, {@link #postProcessAfterInitialization} after them. Either may return
+ * another object, a wrapper or a proxy, which is then handed out instead of the bean.
+ * <p>
+ * A processor declares the beans it applies to by type and by name. The factory resolves, once per bean
+ * definition, the processors applying to it in {@link #getOrder() order}, so creating a bean only calls
+ * those, however many processors are registered.
+ */
+public interface BeanPostProcessor {
+    int HIGHEST_PRECEDENCE = Integer.MIN_VALUE;
+    int LOWEST_PRECEDENCE = Integer.MAX_VALUE;
+
+    default Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    default Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    /**
+     * Called ahead of {@link #postProcessAfterInitialization} for a singleton that a bean of its own reference
+     * cycle references before it is initialized, so that this bean is injected with the same object the factory
+     * hands out afterwards. A processor replacing the bean here must return the bean unchanged from
+     * postProcessAfterInitialization later on; the factory then hands out the early reference.
+     *
+     * @param bean     the injected, not yet initialized bean
+     * @param beanName
+     * @return the object to inject into the cycle
+     * @throws BeansException
+     */
+    default Object getEarlyBeanReference(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    /**
+     * @return the types of the beans to process, a bean is processed if its class is assignable to any of
+     * them; null for beans of any type
+     */
+    default Class<?>[] getBeanTypes() {
+        return null;
+    }
+
+    /**
+     * @return the names of the beans to process, null for beans of any name
+     */
+    default String[] getBeanNames() {
+        return null;
+    }
+
+    /**
+     * @return the position among the processors of a bean, lower first; processors of equal order run in the
+     * order they were registered
+     */
+    default int getOrder() {
+        return 0;
+    }
+}
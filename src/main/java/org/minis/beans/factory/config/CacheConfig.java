@@ -0,0 +1,88 @@
+package org.minis.beans.factory.config;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * POJO class corresponding to a &lt;cache&gt; tag of a bean in beans.xml, or to a
+ * {@link org.minis.aop.cache.Cacheable} method: the results of the interface methods of that name are cached.
+ */
+public final class CacheConfig {
+    public static final long DEFAULT_MAX_SIZE = 10_000;
+
+    private final String methodName;
+    private final String cacheName;
+    private final long maxSize;
+    private final Duration timeToLive;
+    private final String weigherClassName;
+
+    /**
+     * @param methodName       the cached method, all overloads of that name
+     * @param cacheName        the cache to use, shared with every method naming it, null for a cache of the method
+     *                         alone, named beanName.methodName
+     * @param maxSize          the number of entries kept, or their total weight with a weigher
+     * @param timeToLive       how long an entry is served after it was put, null to keep it until evicted
+     * @param weigherClassName a {@link org.minis.aop.cache.Weigher} with a no-arg constructor, null to count entries
+     * @throws IllegalArgumentException without method name or when maxSize is not positive
+     */
+    public CacheConfig(String methodName, String cacheName, long maxSize, Duration timeToLive, String weigherClassName) {
+        if (methodName == null || methodName.isEmpty()) {
+            throw new IllegalArgumentException("Cache without method name");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid cache size " + maxSize + " for method " + methodName);
+        }
+        if (timeToLive != null && (timeToLive.isNegative() || timeToLive.isZero())) {
+            throw new IllegalArgumentException("Invalid time to live " + timeToLive + " for method " + methodName);
+        }
+        this.methodName = methodName;
+        this.cacheName = cacheName;
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.weigherClassName = weigherClassName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public String getWeigherClassName() {
+        return weigherClassName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheConfig)) {
+            return false;
+        }
+        CacheConfig that = (CacheConfig) o;
+        return maxSize == that.maxSize && methodName.equals(that.methodName) && Objects.equals(cacheName, that.cacheName)
+                && Objects.equals(timeToLive, that.timeToLive) && Objects.equals(weigherClassName, that.weigherClassName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(methodName, cacheName, maxSize, timeToLive, weigherClassName);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheConfig[method " + methodName + ", cache " + cacheName + ", max size " + maxSize
+                + ", time to live " + timeToLive + (weigherClassName != null ? ", weigher " + weigherClassName : "") + "]";
+    }
+}
@@ -1,6 +1,8 @@
 package org.minis.beans.factory.config;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -13,9 +15,28 @@ import java.util.List;
 public class ConstructorArgumentValues {
     //    private final Map<Integer, ConstructorArgumentValue> indexedArgumentValues = new HashMap<>();
 //    private final List<ConstructorArgumentValue> genericArgumentValues = new LinkedList<>();
-    private final List<ConstructorArgumentValue> constructorArgumentValues = new ArrayList<>();
+    /**
+     * Read-only, shared by all frozen definitions without constructor arguments
+     */
+    public static final ConstructorArgumentValues EMPTY = new ConstructorArgumentValues(Collections.emptyList());
+
+    private final List<ConstructorArgumentValue> constructorArgumentValues;
 
     public ConstructorArgumentValues() {
+        this.constructorArgumentValues = new ArrayList<>();
+    }
+
+    private ConstructorArgumentValues(List<ConstructorArgumentValue> constructorArgumentValues) {
+        this.constructorArgumentValues = constructorArgumentValues;
+    }
+
+    /**
+     * @param argumentValues
+     * @return read-only arguments over exactly the given array, {@link #EMPTY} if there are none
+     */
+    public static ConstructorArgumentValues of(ConstructorArgumentValue... argumentValues) {
+        return argumentValues.length == 0 ? EMPTY
+                : new ConstructorArgumentValues(Collections.unmodifiableList(Arrays.asList(argumentValues)));
     }
 
     public void addArgumentValue(ConstructorArgumentValue constructorArgumentValue) {
@@ -26,6 +47,10 @@ public class ConstructorArgumentValues {
         return this.constructorArgumentValues.get(index);
     }
 
+    public List<ConstructorArgumentValue> getArgumentValues() {
+        return this.constructorArgumentValues;
+    }
+
     public boolean isEmpty() {
         return this.constructorArgumentValues.isEmpty();
     }
@@ -0,0 +1,76 @@
+package org.minis.beans.factory.config;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * POJO class corresponding to the &lt;pool&gt; tag of a bean of scope pooled in beans.xml
+ */
+public final class PoolConfig {
+    /**
+     * Up to 8 instances, none kept beyond a minute of idleness, waiting for an instance without limit
+     */
+    public static final PoolConfig DEFAULT = new PoolConfig(0, 8, Duration.ofMinutes(1), null);
+
+    private final int minSize;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final Duration maxWait;
+
+    /**
+     * @param minSize     instances created up front and never evicted
+     * @param maxSize     instances in use and idle together
+     * @param idleTimeout how long an idle instance above the minimum is kept, null to keep it forever
+     * @param maxWait     how long a borrower waits when all instances are in use, null or negative to wait without limit
+     * @throws IllegalArgumentException unless {@code 0 <= minSize <= maxSize} and {@code maxSize > 0}
+     */
+    public PoolConfig(int minSize, int maxSize, Duration idleTimeout, Duration maxWait) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size, min " + minSize + " and max " + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.maxWait = maxWait == null || maxWait.isNegative() ? null : maxWait;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PoolConfig)) {
+            return false;
+        }
+        PoolConfig that = (PoolConfig) o;
+        return minSize == that.minSize && maxSize == that.maxSize && Objects.equals(idleTimeout, that.idleTimeout)
+                && Objects.equals(maxWait, that.maxWait);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minSize, maxSize, idleTimeout, maxWait);
+    }
+
+    @Override
+    public String toString() {
+        return "PoolConfig[min " + minSize + ", max " + maxSize + ", idle timeout " + idleTimeout
+                + ", max wait " + (maxWait == null ? "unlimited" : maxWait) + "]";
+    }
+}
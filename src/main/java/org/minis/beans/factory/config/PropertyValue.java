@@ -1,13 +1,15 @@
 package org.minis.beans.factory.config;
 
+import java.util.Objects;
+
 /**
  * POJO class corresponding to the &lt;property&gt; tag in beans.xml
  */
 public class PropertyValue {
-    private String type;
-    private String name;
-    private Object value;
-    private boolean isRef;
+    private final String type;
+    private final String name;
+    private final Object value;
+    private final boolean isRef;
 
     public PropertyValue(String type, String name, Object value, boolean isRef) {
         this.type = type;
@@ -31,4 +33,22 @@ public class PropertyValue {
     public String getType() {
         return type;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PropertyValue)) {
+            return false;
+        }
+        PropertyValue that = (PropertyValue) o;
+        return isRef == that.isRef && Objects.equals(type, that.type) && Objects.equals(name, that.name)
+                && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, name, value, isRef);
+    }
 }
@@ -1,15 +1,35 @@
 package org.minis.beans.factory.config;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class PropertyValues {
+    /**
+     * Read-only, shared by all frozen definitions without properties
+     */
+    public static final PropertyValues EMPTY = new PropertyValues(Collections.emptyList());
+
     private final List<PropertyValue> propertyValues;
 
     public PropertyValues() {
         this.propertyValues = new ArrayList<>(10);
     }
 
+    private PropertyValues(List<PropertyValue> propertyValues) {
+        this.propertyValues = propertyValues;
+    }
+
+    /**
+     * @param propertyValues
+     * @return read-only property values over exactly the given array, {@link #EMPTY} if there are none
+     */
+    public static PropertyValues of(PropertyValue... propertyValues) {
+        return propertyValues.length == 0 ? EMPTY
+                : new PropertyValues(Collections.unmodifiableList(Arrays.asList(propertyValues)));
+    }
+
     public List<PropertyValue> getPropertyValues() {
         return this.propertyValues;
     }
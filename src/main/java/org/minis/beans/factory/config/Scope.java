@@ -0,0 +1,34 @@
+package org.minis.beans.factory.config;
+
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.ObjectFactory;
+
+/**
+ * Holds the instances of the beans whose definitions name this scope, registered with
+ * {@link org.minis.beans.factory.support.SimpleBeanFactory#registerScope(String, Scope)}.
+ * A scope decides which instance is current, e.g. one per thread or per task, and when the instances end.
+ */
+public interface Scope {
+    /**
+     * @param name          the bean name
+     * @param objectFactory creates and wires a new instance when the scope has none yet
+     * @return the current instance
+     * @throws BeansException
+     * @throws IllegalStateException when the scope is not active on the calling thread
+     */
+    Object get(String name, ObjectFactory<?> objectFactory) throws BeansException;
+
+    /**
+     * Removes the current instance without running its destruction callback
+     *
+     * @param name
+     * @return the removed instance, or null
+     */
+    Object remove(String name);
+
+    /**
+     * @param name
+     * @param callback run when the current instance of the bean ends with its scope
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+}
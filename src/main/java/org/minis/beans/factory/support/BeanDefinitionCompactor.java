@@ -0,0 +1,108 @@
+package org.minis.beans.factory.support;
+
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.config.ConstructorArgumentValue;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PropertyValue;
+import org.minis.beans.factory.config.PropertyValues;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites bean definitions into their compact, frozen form: every string equal across the definitions
+ * compacted by one compactor, like class names, property names and types, becomes a single instance, equal
+ * property values become a single instance, lists become read-only views over exact-size arrays, and empty
+ * ones are replaced by shared instances.
+ * <p>
+ * The strings are deduplicated in a map of this compactor rather than with {@link String#intern()}, so that
+ * nothing outlives the definitions themselves.
+ */
+final class BeanDefinitionCompactor {
+    private final Map<String, String> strings = new HashMap<>(1024);
+    private final Map<PropertyValue, PropertyValue> propertyValues = new HashMap<>(1024);
+
+    /**
+     * Compacts and freezes the definition, unless it is frozen already
+     *
+     * @param beanDefinition
+     */
+    void compact(BeanDefinition beanDefinition) {
+        if (beanDefinition.isFrozen()) {
+            return;
+        }
+        // the content stays equal, so what was resolved from it stays valid
+        Object beanClass = beanDefinition.getBeanClass();
+        Object injectionPlan = beanDefinition.getInjectionPlan();
+        beanDefinition.setId(string(beanDefinition.getId()));
+        beanDefinition.setClassName(string(beanDefinition.getClassName()));
+        beanDefinition.setInitMethodName(string(beanDefinition.getInitMethodName()));
+        if (beanDefinition.isCustomScope()) {
+            beanDefinition.setScope(string(beanDefinition.getScope()));
+        }
+        beanDefinition.setDependsOn(compactDependsOn(beanDefinition.getDependsOn()));
+        beanDefinition.setConstructorArgumentValues(compactArguments(beanDefinition.getConstructorArgumentValues()));
+        beanDefinition.setPropertyValues(compactProperties(beanDefinition.getPropertyValues()));
+        beanDefinition.setBeanClass(beanClass);
+        beanDefinition.setInjectionPlan(injectionPlan);
+        beanDefinition.freeze();
+    }
+
+    private String[] compactDependsOn(String[] dependsOn) {
+        if (dependsOn == null || dependsOn.length == 0) {
+            return BeanDefinition.NO_DEPENDS_ON;
+        }
+        String[] compact = new String[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            compact[i] = string(dependsOn[i]);
+        }
+        return compact;
+    }
+
+    private ConstructorArgumentValues compactArguments(ConstructorArgumentValues argumentValues) {
+        if (argumentValues == null || argumentValues.isEmpty()) {
+            return ConstructorArgumentValues.EMPTY;
+        }
+        ConstructorArgumentValue[] compact = new ConstructorArgumentValue[argumentValues.getArgumentCount()];
+        for (int i = 0; i < compact.length; i++) {
+            ConstructorArgumentValue argumentValue = argumentValues.getIndexedArgumentValue(i);
+            // not shared, an argument value is mutable
+            compact[i] = new ConstructorArgumentValue(string(argumentValue.getType()), string(argumentValue.getName()),
+                    value(argumentValue.getValue()));
+        }
+        return ConstructorArgumentValues.of(compact);
+    }
+
+    private PropertyValues compactProperties(PropertyValues propertyValues) {
+        if (propertyValues == null || propertyValues.isEmpty()) {
+            return PropertyValues.EMPTY;
+        }
+        List<PropertyValue> values = propertyValues.getPropertyValues();
+        PropertyValue[] compact = new PropertyValue[values.size()];
+        for (int i = 0; i < compact.length; i++) {
+            PropertyValue propertyValue = values.get(i);
+            PropertyValue compactValue = new PropertyValue(string(propertyValue.getType()), string(propertyValue.getName()),
+                    value(propertyValue.getValue()), propertyValue.isRef());
+            PropertyValue shared = this.propertyValues.putIfAbsent(compactValue, compactValue);
+            compact[i] = shared != null ? shared : compactValue;
+        }
+        return PropertyValues.of(compact);
+    }
+
+    private Object value(Object value) {
+        return value instanceof String ? string((String) value) : value;
+    }
+
+    /**
+     * @param string
+     * @return the instance equal to the string that this compactor saw first
+     */
+    String string(String string) {
+        if (string == null) {
+            return null;
+        }
+        String shared = this.strings.putIfAbsent(string, string);
+        return shared != null ? shared : string;
+    }
+}
@@ -0,0 +1,244 @@
+package org.minis.beans.factory.support;
+
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.config.ConstructorArgumentValue;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PropertyValue;
+import org.minis.beans.factory.config.PropertyValues;
+import org.minis.beans.factory.xml.ParallelXmlBeanDefinitionLoader;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the heap taken by the parsed configuration of bean definitions: the definitions, their
+ * argument and property values, lists, arrays and strings, each shared object counted once. The resolved
+ * classes and injection plans are not counted.
+ * <p>
+ * Sizes follow a 64-bit JVM with compressed references: 12 byte object headers, 16 byte array headers, 8 byte
+ * alignment and Latin-1 strings stored one byte per character. The backing array of an {@link ArrayList} is
+ * assumed to have the default capacity of 10, or its size when larger, as its real capacity is not visible.
+ */
+public final class BeanDefinitionFootprint {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int DEFAULT_ARRAY_LIST_CAPACITY = 10;
+    private static final Class<?> ARRAY_LIST_VIEW_CLASS = Arrays.asList(new Object[1]).getClass();
+    private static final Class<?> FROZEN_LIST_CLASS = Collections.unmodifiableList(Arrays.asList(new Object[1])).getClass();
+    private static final Map<Class<?>, Long> shallowSizes = new ConcurrentHashMap<>();
+
+    private final int definitionCount;
+    private final long totalBytes;
+    private final int stringCount;
+    private final long stringBytes;
+
+    private BeanDefinitionFootprint(int definitionCount, long totalBytes, int stringCount, long stringBytes) {
+        this.definitionCount = definitionCount;
+        this.totalBytes = totalBytes;
+        this.stringCount = stringCount;
+        this.stringBytes = stringBytes;
+    }
+
+    /**
+     * Prints the footprint of a configuration as parsed and after {@link SimpleBeanFactory#freezeConfiguration()}:
+     * {@code BeanDefinitionFootprint <config files or patterns on the class path>}
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: BeanDefinitionFootprint <config file>...");
+            System.exit(1);
+        }
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        new ParallelXmlBeanDefinitionLoader(beanFactory).loadBeanDefinitions(args);
+        System.out.println("Parsed: " + beanFactory.getBeanDefinitionFootprint());
+        beanFactory.freezeConfiguration();
+        System.out.println("Frozen: " + beanFactory.getBeanDefinitionFootprint());
+    }
+
+    public static BeanDefinitionFootprint measure(Collection<BeanDefinition> beanDefinitions) {
+        Walker walker = new Walker();
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            walker.definition(beanDefinition);
+        }
+        return new BeanDefinitionFootprint(beanDefinitions.size(), walker.totalBytes, walker.stringCount, walker.stringBytes);
+    }
+
+    public int getDefinitionCount() {
+        return definitionCount;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getBytesPerDefinition() {
+        return definitionCount == 0 ? 0 : totalBytes / definitionCount;
+    }
+
+    /**
+     * @return the number of distinct string instances
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    public long getStringBytes() {
+        return stringBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bean definitions in about %,d bytes, %,d per definition, %,d of them in %,d strings",
+                definitionCount, totalBytes, getBytesPerDefinition(), stringBytes, stringCount);
+    }
+
+    private static final class Walker {
+        private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long totalBytes;
+        private int stringCount;
+        private long stringBytes;
+
+        void definition(BeanDefinition beanDefinition) {
+            if (!this.seen.add(beanDefinition)) {
+                return;
+            }
+            this.totalBytes += shallowSize(BeanDefinition.class);
+            string(beanDefinition.getId());
+            string(beanDefinition.getClassName());
+            string(beanDefinition.getInitMethodName());
+            if (beanDefinition.isCustomScope()) {
+                string(beanDefinition.getScope());
+            }
+            String[] dependsOn = beanDefinition.getDependsOn();
+            if (dependsOn != null && this.seen.add(dependsOn)) {
+                this.totalBytes += arraySize(dependsOn.length, REFERENCE);
+                for (String beanName : dependsOn) {
+                    string(beanName);
+                }
+            }
+
+            ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+            if (argumentValues != null && this.seen.add(argumentValues)) {
+                List<ConstructorArgumentValue> values = argumentValues.getArgumentValues();
+                this.totalBytes += shallowSize(ConstructorArgumentValues.class);
+                if (this.seen.add(values)) {
+                    this.totalBytes += listSize(values);
+                }
+                for (ConstructorArgumentValue argumentValue : values) {
+                    if (this.seen.add(argumentValue)) {
+                        this.totalBytes += shallowSize(ConstructorArgumentValue.class);
+                        string(argumentValue.getType());
+                        string(argumentValue.getName());
+                        value(argumentValue.getValue());
+                    }
+                }
+            }
+
+            PropertyValues propertyValues = beanDefinition.getPropertyValues();
+            if (propertyValues != null && this.seen.add(propertyValues)) {
+                List<PropertyValue> values = propertyValues.getPropertyValues();
+                this.totalBytes += shallowSize(PropertyValues.class);
+                if (this.seen.add(values)) {
+                    this.totalBytes += listSize(values);
+                }
+                for (PropertyValue propertyValue : values) {
+                    if (this.seen.add(propertyValue)) {
+                        this.totalBytes += shallowSize(PropertyValue.class);
+                        string(propertyValue.getType());
+                        string(propertyValue.getName());
+                        value(propertyValue.getValue());
+                    }
+                }
+            }
+        }
+
+        private void value(Object value) {
+            if (value instanceof String) {
+                string((String) value);
+            } else if (value != null && this.seen.add(value)) {
+                this.totalBytes += shallowSize(value.getClass());
+            }
+        }
+
+        private void string(String string) {
+            if (string == null || !this.seen.add(string)) {
+                return;
+            }
+            boolean latin1 = true;
+            for (int i = 0; i < string.length() && latin1; i++) {
+                latin1 = string.charAt(i) <= 0xFF;
+            }
+            long size = shallowSize(String.class) + arraySize(string.length(), latin1 ? 1 : 2);
+            this.totalBytes += size;
+            this.stringBytes += size;
+            this.stringCount++;
+        }
+    }
+
+    /**
+     * @param list
+     * @return the size of the list and its backing array, without the elements
+     */
+    private static long listSize(List<?> list) {
+        if (list instanceof ArrayList) {
+            int capacity = list.isEmpty() ? 0 : Math.max(DEFAULT_ARRAY_LIST_CAPACITY, list.size());
+            return shallowSize(ArrayList.class) + arraySize(capacity, REFERENCE);
+        }
+        if (list.getClass() == FROZEN_LIST_CLASS) {
+            // see PropertyValues.of: a read-only view over Arrays.asList
+            return shallowSize(FROZEN_LIST_CLASS) + shallowSize(ARRAY_LIST_VIEW_CLASS) + arraySize(list.size(), REFERENCE);
+        }
+        return shallowSize(list.getClass()) + (list.isEmpty() ? 0 : arraySize(list.size(), REFERENCE));
+    }
+
+    private static long arraySize(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+
+    static long shallowSize(Class<?> type) {
+        return shallowSizes.computeIfAbsent(type, key -> {
+            if (key.isArray()) {
+                return (long) ARRAY_HEADER;
+            }
+            long size = OBJECT_HEADER;
+            for (Class<?> c = key; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += fieldSize(field.getType());
+                    }
+                }
+            }
+            return align(size);
+        });
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,234 @@
+package org.minis.beans.factory.support;
+
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.config.PropertyValue;
+import org.minis.beans.factory.config.PropertyValues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The dependency graph of a set of bean definitions, built from {@code dependsOn} and property refs.
+ * <p>
+ * Beans referencing each other in a cycle (like aService, baseService and testService) can only be created
+ * together through early singleton references, so the graph is condensed into its strongly connected
+ * components. Components are ordered dependencies first; each one only depends on components before it.
+ */
+public final class BeanDependencyGraph {
+    private static final int[] NO_DEPENDENCIES = new int[0];
+
+    private final List<Component> components;
+    private final Map<String, Integer> componentIndexes;
+
+    private BeanDependencyGraph(List<Component> components, Map<String, Integer> componentIndexes) {
+        this.components = components;
+        this.componentIndexes = componentIndexes;
+    }
+
+    /**
+     * @param beanNames       the bean names, in registration order
+     * @param beanDefinitions the definitions by bean name
+     * @return
+     */
+    public static BeanDependencyGraph build(List<String> beanNames, Map<String, BeanDefinition> beanDefinitions) {
+        int n = beanNames.size();
+        Map<String, Integer> nodes = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            nodes.put(beanNames.get(i), i);
+        }
+
+        // references to undefined beans are left out, they fail at creation time as before
+        int[][] edges = new int[n][];
+        for (int i = 0; i < n; i++) {
+            Set<String> dependencies = getDependencies(beanDefinitions.get(beanNames.get(i)));
+            int[] targets = new int[dependencies.size()];
+            int count = 0;
+            for (String dependency : dependencies) {
+                Integer target = nodes.get(dependency);
+                if (target != null) {
+                    targets[count++] = target;
+                }
+            }
+            edges[i] = count == targets.length ? targets : Arrays.copyOf(targets, count);
+        }
+
+        int[] componentOfNode = findComponents(edges);
+        int componentCount = 0;
+        for (int c : componentOfNode) {
+            componentCount = Math.max(componentCount, c + 1);
+        }
+
+        List<List<String>> members = new ArrayList<>(componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            members.add(new ArrayList<>(1));
+        }
+        Map<String, Integer> componentIndexes = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            members.get(componentOfNode[i]).add(beanNames.get(i));
+            componentIndexes.put(beanNames.get(i), componentOfNode[i]);
+        }
+
+        List<Component> components = new ArrayList<>(componentCount);
+        int[] seen = new int[componentCount];
+        Arrays.fill(seen, -1);
+        for (int c = 0; c < componentCount; c++) {
+            List<Integer> dependencies = new ArrayList<>();
+            for (String beanName : members.get(c)) {
+                for (int target : edges[nodes.get(beanName)]) {
+                    int d = componentOfNode[target];
+                    if (d != c && seen[d] != c) {
+                        seen[d] = c;
+                        dependencies.add(d);
+                    }
+                }
+            }
+            int[] dependencyArray = dependencies.isEmpty() ? NO_DEPENDENCIES : new int[dependencies.size()];
+            for (int i = 0; i < dependencyArray.length; i++) {
+                dependencyArray[i] = dependencies.get(i);
+            }
+            components.add(new Component(c, members.get(c).toArray(new String[0]), dependencyArray));
+        }
+        return new BeanDependencyGraph(Collections.unmodifiableList(components), componentIndexes);
+    }
+
+    /**
+     * The names of the beans the given definition needs before it is complete:
+     * its {@code dependsOn} entries and the beans referenced by its properties.
+     *
+     * @param beanDefinition
+     * @return
+     */
+    public static Set<String> getDependencies(BeanDefinition beanDefinition) {
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (beanDefinition.getDependsOn() != null) {
+            Collections.addAll(dependencies, beanDefinition.getDependsOn());
+        }
+        PropertyValues propertyValues = beanDefinition.getPropertyValues();
+        if (propertyValues != null) {
+            for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
+                if (propertyValue.isRef()) {
+                    dependencies.add((String) propertyValue.getValue());
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Iterative Tarjan, so that long reference chains can not overflow the stack. Tarjan emits a component
+     * only after every component reachable from it, which numbers the components dependencies first.
+     */
+    private static int[] findComponents(int[][] edges) {
+        int n = edges.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] edgePositions = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int stackTop = -1;
+        int componentCount = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int callTop = 0;
+            callStack[0] = root;
+            edgePositions[0] = 0;
+            index[root] = low[root] = counter++;
+            stack[++stackTop] = root;
+            onStack[root] = true;
+
+            while (callTop >= 0) {
+                int v = callStack[callTop];
+                if (edgePositions[callTop] < edges[v].length) {
+                    int w = edges[v][edgePositions[callTop]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[++stackTop] = w;
+                        onStack[w] = true;
+                        callStack[++callTop] = w;
+                        edgePositions[callTop] = 0;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[stackTop--];
+                            onStack[w] = false;
+                            component[w] = componentCount;
+                        } while (w != v);
+                        componentCount++;
+                    }
+                    callTop--;
+                    if (callTop >= 0) {
+                        int parent = callStack[callTop];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * @return the components, every component listed after all the components it depends on
+     */
+    public List<Component> getComponents() {
+        return components;
+    }
+
+    /**
+     * @param beanName
+     * @return the index of the bean's component in {@link #getComponents()}, or -1 for an unknown bean
+     */
+    public int getComponentIndex(String beanName) {
+        Integer index = this.componentIndexes.get(beanName);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * A group of beans that can only be created together: a single bean or a reference cycle.
+     */
+    public static final class Component {
+        private final int index;
+        private final String[] beanNames;
+        private final int[] dependencies;
+
+        Component(int index, String[] beanNames, int[] dependencies) {
+            this.index = index;
+            this.beanNames = beanNames;
+            this.dependencies = dependencies;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the beans of this component, in registration order
+         */
+        public String[] getBeanNames() {
+            return beanNames;
+        }
+
+        /**
+         * @return the indexes of the components this one references
+         */
+        public int[] getDependencies() {
+            return dependencies;
+        }
+    }
+}
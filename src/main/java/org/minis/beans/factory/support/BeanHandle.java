@@ -0,0 +1,40 @@
+package org.minis.beans.factory.support;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bean name resolved once by {@link SimpleBeanFactory#getBeanHandle(String)}, so that
+ * {@link SimpleBeanFactory#getBean(BeanHandle)} returns a created singleton with a single array read
+ * instead of hashing the name on every call.
+ * <p>
+ * A handle resolved after {@link SimpleBeanFactory#refresh()} points into the table of the registry frozen by
+ * that refresh. Any other handle, or a bean without an instance in that table (a prototype, a singleton
+ * registered after the refresh or a removed one), is looked up by name.
+ */
+public final class BeanHandle {
+    private final String beanName;
+    final AtomicReferenceArray<Object> instances;
+    final int index;
+
+    BeanHandle(String beanName, AtomicReferenceArray<Object> instances, int index) {
+        this.beanName = beanName;
+        this.instances = instances;
+        this.index = index;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * @return whether lookups through this handle can be served from the frozen table
+     */
+    public boolean isIndexed() {
+        return instances != null;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanHandle[" + beanName + (instances != null ? ", #" + index : "") + "]";
+    }
+}
@@ -0,0 +1,41 @@
+package org.minis.beans.factory.support;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thrown by a {@link SimpleBeanFactory#refresh() refresh} on a refresh executor when beans failed to be created
+ * and initialized, or were not done in time. It reports every failure at once, each cause is also added as
+ * suppressed exception, rather than the first one only.
+ */
+public class BeanInitializationException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Throwable> failures;
+    private final List<String> uninitializedBeanNames;
+
+    /**
+     * @param message
+     * @param failures               the causes by name of the failed bean, in registration order
+     * @param uninitializedBeanNames the eager beans left out, as they reference a failed bean or were still
+     *                               pending at the timeout
+     */
+    public BeanInitializationException(String message, Map<String, Throwable> failures,
+                                       List<String> uninitializedBeanNames) {
+        super(message);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.uninitializedBeanNames = Collections.unmodifiableList(uninitializedBeanNames);
+        for (Throwable failure : failures.values()) {
+            addSuppressed(failure);
+        }
+    }
+
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    public List<String> getUninitializedBeanNames() {
+        return uninitializedBeanNames;
+    }
+}
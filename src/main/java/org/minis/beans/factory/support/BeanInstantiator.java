@@ -0,0 +1,10 @@
+package org.minis.beans.factory.support;
+
+/**
+ * Creates a raw instance of one bean, with its constructor arguments already bound.
+ * Produced by an {@link InstantiationStrategy} and cached in the {@link InjectionPlan}.
+ */
+@FunctionalInterface
+public interface BeanInstantiator {
+    Object instantiate() throws Throwable;
+}
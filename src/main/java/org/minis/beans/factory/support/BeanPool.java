@@ -0,0 +1,342 @@
+package org.minis.beans.factory.support;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.ObjectFactory;
+import org.minis.beans.factory.config.PoolConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The instances of a bean of scope pooled, see {@link SimpleBeanFactory#getBeanPool(String)}. Instances are
+ * borrowed and given back, either explicitly or through a {@link Lease}:
+ * <pre>
+ * try (BeanPool.Lease&lt;Parser&gt; lease = beanFactory.leaseBean("parser", Parser.class)) {
+ *     lease.get().parse(input);
+ * }
+ * </pre>
+ * Idle instances are kept in a lock-free deque, the most recently returned one is borrowed first and the
+ * longest idle one evicted first. The number of instances in use is bounded by the permits of a non-fair
+ * {@link Semaphore}, so borrowing and returning are a few compare-and-set operations as long as an instance
+ * is free; only a borrower finding all {@link PoolConfig#getMaxSize() max size} instances in use parks.
+ * The borrowed instances are tracked by identity, so an instance returned twice, or one that was not borrowed
+ * from this pool, is rejected instead of handing out a permit and an idle instance too many.
+ * <p>
+ * Idle instances above the minimum size are evicted once idle for longer than the idle timeout. This is checked
+ * whenever an instance is returned, or by calling {@link #evictIdle()}. Evicted instances that are
+ * {@link AutoCloseable} are closed.
+ * <p>
+ * Hits count borrows served by an idle instance, misses those that created one, and waits those that found
+ * the pool exhausted, with the time they waited. Together they show whether a pool is too small (waits),
+ * too large (evictions) or its minimum size too low (misses after startup).
+ *
+ * @param <T>
+ */
+public final class BeanPool<T> {
+    private static final Logger logger = LogManager.getLogger(BeanPool.class);
+
+    private final String beanName;
+    private final PoolConfig config;
+    private final ObjectFactory<? extends T> objectFactory;
+    private final long idleTimeoutNanos;
+    private final long maxWaitNanos;
+    private final ConcurrentLinkedDeque<IdleInstance<T>> idleInstances = new ConcurrentLinkedDeque<>();
+    private final Map<BorrowedInstance, Boolean> borrowedInstances = new ConcurrentHashMap<>(16);
+    private final Semaphore permits;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    BeanPool(String beanName, PoolConfig config, ObjectFactory<? extends T> objectFactory) {
+        this.beanName = beanName;
+        this.config = config;
+        this.objectFactory = objectFactory;
+        this.idleTimeoutNanos = config.getIdleTimeout() == null ? -1 : config.getIdleTimeout().toNanos();
+        this.maxWaitNanos = config.getMaxWait() == null ? -1 : config.getMaxWait().toNanos();
+        this.permits = new Semaphore(config.getMaxSize());
+    }
+
+    /**
+     * Creates the instances of the minimum size
+     *
+     * @throws BeansException
+     */
+    void prefill() throws BeansException {
+        long now = System.nanoTime();
+        while (this.size.get() < this.config.getMinSize()) {
+            T instance = this.objectFactory.getObject();
+            this.size.incrementAndGet();
+            this.idleInstances.offerLast(new IdleInstance<>(instance, now));
+            this.idleCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Takes an idle instance, or creates one when none is idle and the pool is not at its maximum size,
+     * or waits for one to be returned. The instance has to be given back with {@link #release(Object)}.
+     *
+     * @return
+     * @throws BeansException when no instance was returned within the max wait, or the creation failed
+     */
+    public T borrow() throws BeansException {
+        if (!this.permits.tryAcquire()) {
+            awaitPermit();
+        }
+        IdleInstance<T> idle = this.idleInstances.pollFirst();
+        if (idle != null) {
+            this.idleCount.decrementAndGet();
+            this.hits.increment();
+            this.borrowedInstances.put(new BorrowedInstance(idle.instance), Boolean.TRUE);
+            return idle.instance;
+        }
+        this.misses.increment();
+        try {
+            T instance = this.objectFactory.getObject();
+            this.size.incrementAndGet();
+            this.borrowedInstances.put(new BorrowedInstance(instance), Boolean.TRUE);
+            return instance;
+        } catch (BeansException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    private void awaitPermit() throws BeansException {
+        this.waits.increment();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            if (this.maxWaitNanos < 0) {
+                this.permits.acquire();
+                acquired = true;
+            } else {
+                acquired = this.permits.tryAcquire(this.maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("Interrupted while waiting for pooled bean '" + this.beanName + "'");
+        } finally {
+            this.waitNanos.add(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            this.timeouts.increment();
+            throw new BeansException("Pool of bean '" + this.beanName + "' exhausted, all " + this.config.getMaxSize()
+                    + " instances stayed in use for " + this.config.getMaxWait());
+        }
+    }
+
+    /**
+     * Gives back an instance taken with {@link #borrow()}. It must not be used afterwards.
+     *
+     * @param instance
+     * @throws IllegalArgumentException when the instance is not borrowed from this pool, or returned already
+     */
+    public void release(T instance) {
+        if (instance == null) {
+            throw new IllegalArgumentException("Can not return null to the pool of bean '" + this.beanName + "'");
+        }
+        if (this.borrowedInstances.remove(new BorrowedInstance(instance)) == null) {
+            throw new IllegalArgumentException("Can not return " + instance.getClass().getName() + "@"
+                    + Integer.toHexString(System.identityHashCode(instance)) + " to the pool of bean '"
+                    + this.beanName + "', it is not borrowed from it or was returned already");
+        }
+        long now = System.nanoTime();
+        this.idleInstances.offerFirst(new IdleInstance<>(instance, now));
+        this.idleCount.incrementAndGet();
+        this.permits.release();
+        evictIdle(now);
+    }
+
+    /**
+     * @return a lease on a borrowed instance, which returns it when closed
+     * @throws BeansException see {@link #borrow()}
+     */
+    public Lease<T> lease() throws BeansException {
+        return new Lease<>(this, borrow());
+    }
+
+    /**
+     * Evicts the instances idle for longer than the idle timeout, as long as the pool stays at its minimum size.
+     * Runs on every return, can also be called periodically to shrink a pool nobody uses anymore.
+     */
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    private void evictIdle(long now) {
+        if (this.idleTimeoutNanos < 0) {
+            return;
+        }
+        while (true) {
+            IdleInstance<T> oldest = this.idleInstances.peekLast();
+            if (oldest == null || now - oldest.idleSince < this.idleTimeoutNanos) {
+                return;
+            }
+            // reserves the eviction, so that concurrent evictions never take the pool below its minimum size
+            int current = this.size.get();
+            if (current <= this.config.getMinSize()) {
+                return;
+            }
+            if (!this.size.compareAndSet(current, current - 1)) {
+                continue;
+            }
+            // a borrower or another eviction may have taken it in the meantime
+            if (this.idleInstances.removeLastOccurrence(oldest)) {
+                this.idleCount.decrementAndGet();
+                this.evictions.increment();
+                destroy(oldest.instance);
+            } else {
+                this.size.incrementAndGet();
+            }
+        }
+    }
+
+    private void destroy(T instance) {
+        if (instance instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) instance).close();
+            } catch (Exception e) {
+                logger.error("Closing evicted instance of pooled bean {} failed", this.beanName, e);
+            }
+        }
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return the instances in use and idle
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+    public int getActiveCount() {
+        return Math.max(0, size.get() - idleCount.get());
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the borrows that found every instance in use, including those that timed out
+     */
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    public long getWaitTime(TimeUnit unit) {
+        return unit.convert(waitNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BeanPool[%s: %d instances, %d idle, %d hits, %d misses, %d waits for %d ms, %d timeouts, %d evictions]",
+                beanName, getSize(), getIdleCount(), getHitCount(), getMissCount(), getWaitCount(),
+                getWaitTime(TimeUnit.MILLISECONDS), getTimeoutCount(), getEvictionCount());
+    }
+
+    private static final class IdleInstance<T> {
+        final T instance;
+        final long idleSince;
+
+        IdleInstance(T instance, long idleSince) {
+            this.instance = instance;
+            this.idleSince = idleSince;
+        }
+    }
+
+    /**
+     * The key of a borrowed instance, by identity, as pooled beans may define equals as they like
+     */
+    private static final class BorrowedInstance {
+        private final Object instance;
+
+        BorrowedInstance(Object instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof BorrowedInstance && ((BorrowedInstance) o).instance == this.instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.instance);
+        }
+    }
+
+    /**
+     * A borrowed instance, returned to its pool by {@link #close()}
+     *
+     * @param <T>
+     */
+    public static final class Lease<T> implements AutoCloseable {
+        private final BeanPool<T> pool;
+        private T instance;
+
+        private Lease(BeanPool<T> pool, T instance) {
+            this.pool = pool;
+            this.instance = instance;
+        }
+
+        /**
+         * @return the borrowed instance
+         * @throws IllegalStateException once the lease is closed
+         */
+        public T get() {
+            T instance = this.instance;
+            if (instance == null) {
+                throw new IllegalStateException("Lease on pooled bean '" + this.pool.beanName + "' is closed");
+            }
+            return instance;
+        }
+
+        /**
+         * Returns the instance to the pool, only the first call has an effect
+         */
+        @Override
+        public void close() {
+            T instance = this.instance;
+            if (instance != null) {
+                this.instance = null;
+                this.pool.release(instance);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.minis.beans.factory.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Maps every superclass and interface of each bean class to the names of the beans assignable to it,
+ * so a lookup by type is a single hash lookup instead of a scan over all definitions.
+ * <p>
+ * The index is immutable. It is built from the definitions known at the time and rebuilt by the factory
+ * when they change.
+ */
+final class BeanTypeIndex {
+    private static final String[] NO_NAMES = new String[0];
+
+    private final Map<Class<?>, String[]> beanNamesByType;
+
+    private BeanTypeIndex(Map<Class<?>, String[]> beanNamesByType) {
+        this.beanNamesByType = beanNamesByType;
+    }
+
+    /**
+     * @param beanNames    bean names in registration order, which is kept for every type
+     * @param typeResolver returns the class of a bean, or null when it can not be resolved
+     * @return
+     */
+    static BeanTypeIndex build(List<String> beanNames, Function<String, Class<?>> typeResolver) {
+        Map<Class<?>, List<String>> names = new HashMap<>();
+        Set<Class<?>> types = new HashSet<>();
+        for (String beanName : beanNames) {
+            Class<?> beanClass = typeResolver.apply(beanName);
+            if (beanClass == null) {
+                continue;
+            }
+            types.clear();
+            collectTypes(beanClass, types);
+            for (Class<?> type : types) {
+                names.computeIfAbsent(type, t -> new ArrayList<>(1)).add(beanName);
+            }
+        }
+
+        Map<Class<?>, String[]> beanNamesByType = new HashMap<>((int) (names.size() / 0.75f) + 1);
+        for (Map.Entry<Class<?>, List<String>> entry : names.entrySet()) {
+            beanNamesByType.put(entry.getKey(), entry.getValue().toArray(NO_NAMES));
+        }
+        return new BeanTypeIndex(Collections.unmodifiableMap(beanNamesByType));
+    }
+
+    /**
+     * Adds the class, all its superclasses and all interfaces they implement, directly or inherited.
+     */
+    private static void collectTypes(Class<?> beanClass, Set<Class<?>> types) {
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.push(beanClass);
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.pop();
+            if (!types.add(type)) {
+                continue;
+            }
+            if (type.getSuperclass() != null) {
+                pending.push(type.getSuperclass());
+            }
+            for (Class<?> interfaceType : type.getInterfaces()) {
+                pending.push(interfaceType);
+            }
+        }
+    }
+
+    /**
+     * @param type
+     * @return the names of the beans assignable to the type, never null; callers must not modify the array
+     */
+    String[] getBeanNames(Class<?> type) {
+        String[] beanNames = this.beanNamesByType.get(type);
+        return beanNames != null ? beanNames : NO_NAMES;
+    }
+}
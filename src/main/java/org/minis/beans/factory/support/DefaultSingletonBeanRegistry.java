@@ -16,21 +16,22 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
     private final Logger logger = LogManager.getLogger(DefaultSingletonBeanRegistry.class);
 
+    /**
+     * Registration is lock free on the singleton map, only the name list is guarded,
+     * so registering a singleton never blocks readers or the creation of unrelated beans.
+     */
     @Override
     public void registerSingleton(String beanName, Object singletonObject) {
-        // for thread safety in multi-threaded environment
-        synchronized (this.singletonObjects) {
-            // double check lock
-            Object object = this.singletonObjects.get(beanName);
-            if (object != null) {
-                throw new IllegalStateException("Could not register object [" + singletonObject +
-                        "] under bean name '" + beanName + "': there is already object [" + object + "] bound");
-            }
-            this.singletonObjects.put(beanName, singletonObject);
+        Object object = this.singletonObjects.putIfAbsent(beanName, singletonObject);
+        if (object != null) {
+            throw new IllegalStateException("Could not register object [" + singletonObject +
+                    "] under bean name '" + beanName + "': there is already object [" + object + "] bound");
+        }
+        synchronized (this.beanNames) {
             this.beanNames.add(beanName);
-
-            logger.debug("Register bean [{}] singleton object {}", beanName, singletonObject);
         }
+
+        logger.debug("Register bean [{}] singleton object {}", beanName, singletonObject);
     }
 
     @Override
@@ -45,12 +46,14 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
     @Override
     public String[] getSingletonNames() {
-        return (String[]) this.beanNames.toArray();
+        synchronized (this.beanNames) {
+            return this.beanNames.toArray(new String[0]);
+        }
     }
 
     protected void removeSingleton(String beanName) {
-        synchronized (this.singletonObjects) {
-            singletonObjects.remove(beanName);
+        singletonObjects.remove(beanName);
+        synchronized (this.beanNames) {
             beanNames.remove(beanName);
         }
     }
@@ -0,0 +1,179 @@
+package org.minis.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The bean names known at the end of a refresh, mapped to dense ids {@code 0..n-1} by a minimal perfect hash,
+ * and a table of the singleton instances indexed by those ids.
+ * <p>
+ * The hash is built by hash and displace: the names are spread over {@code n} buckets by a first hash, and for
+ * every bucket a seed is searched that sends all of its names to free ids with a second hash. A bucket of one
+ * name stores its id directly. A lookup is two mixes of the cached {@link String#hashCode()}, one seed read and
+ * one comparison with the name stored under the id, as any string maps to some id. Names with equal hash codes
+ * can not be told apart that way, for them the whole table hashes the characters instead.
+ * <p>
+ * The set of names is fixed. A singleton of a known name that is created or removed later is written to
+ * its slot, anything else stays in the dynamic maps of the factory.
+ */
+final class FrozenBeanRegistry {
+    private static final int MAX_SEED = 1 << 20;
+
+    private final String[] names;
+    private final int[] seeds;
+    private final boolean hashCharacters;
+    private final AtomicReferenceArray<Object> instances;
+
+    private FrozenBeanRegistry(String[] names, int[] seeds, boolean hashCharacters) {
+        this.names = names;
+        this.seeds = seeds;
+        this.hashCharacters = hashCharacters;
+        this.instances = new AtomicReferenceArray<>(names.length);
+    }
+
+    /**
+     * @param beanNames distinct bean names
+     * @return
+     */
+    static FrozenBeanRegistry build(Collection<String> beanNames) {
+        String[] keys = beanNames.toArray(new String[0]);
+        FrozenBeanRegistry registry = build(keys, false);
+        return registry != null ? registry : build(keys, true);
+    }
+
+    /**
+     * @return the registry, or null when two names collide under every seed
+     */
+    private static FrozenBeanRegistry build(String[] keys, boolean hashCharacters) {
+        int n = keys.length;
+        List<List<String>> buckets = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            buckets.add(new ArrayList<>(2));
+        }
+        for (String key : keys) {
+            buckets.get(reduce(hash(0, key, hashCharacters), n)).add(key);
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        // the largest buckets are placed first, while most ids are still free
+        Arrays.sort(order, Comparator.comparingInt((Integer b) -> buckets.get(b).size()).reversed());
+
+        String[] names = new String[n];
+        int[] seeds = new int[n];
+        int[] ids = new int[n];
+        int b = 0;
+        for (; b < n && buckets.get(order[b]).size() > 1; b++) {
+            List<String> bucket = buckets.get(order[b]);
+            int seed = 1;
+            int placed = 0;
+            while (placed < bucket.size()) {
+                int id = reduce(hash(seed, bucket.get(placed), hashCharacters), n);
+                if (names[id] == null && !contains(ids, placed, id)) {
+                    ids[placed++] = id;
+                } else if (++seed == MAX_SEED) {
+                    return null;
+                } else {
+                    placed = 0;
+                }
+            }
+            for (int i = 0; i < placed; i++) {
+                names[ids[i]] = bucket.get(i);
+            }
+            seeds[order[b]] = seed;
+        }
+        int free = 0;
+        for (; b < n && !buckets.get(order[b]).isEmpty(); b++) {
+            while (names[free] != null) {
+                free++;
+            }
+            names[free] = buckets.get(order[b]).get(0);
+            seeds[order[b]] = -free - 1;
+        }
+        return new FrozenBeanRegistry(names, seeds, hashCharacters);
+    }
+
+    private static boolean contains(int[] ids, int length, int id) {
+        for (int i = 0; i < length; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hash(int seed, String key, boolean hashCharacters) {
+        int h;
+        if (hashCharacters) {
+            // FNV-1a over the characters, starting from the seed
+            h = 0x811C9DC5 ^ seed;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x01000193;
+            }
+        } else {
+            h = key.hashCode() ^ seed * 0x9E3779B9;
+        }
+        // murmur3 finalizer
+        h = (h ^ (h >>> 16)) * 0x85EBCA6B;
+        h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Maps a hash to {@code [0, n)} with a multiplication instead of a division
+     */
+    private static int reduce(int hash, int n) {
+        return (int) (((hash & 0xFFFFFFFFL) * n) >>> 32);
+    }
+
+    /**
+     * @param beanName
+     * @return the id of the name, or -1 when it was not known when the registry was built
+     */
+    int indexOf(String beanName) {
+        int n = this.names.length;
+        if (n == 0) {
+            return -1;
+        }
+        int seed = this.seeds[reduce(hash(0, beanName, this.hashCharacters), n)];
+        int id = seed < 0 ? -seed - 1 : reduce(hash(seed, beanName, this.hashCharacters), n);
+        String name = this.names[id];
+        return name == beanName || name.equals(beanName) ? id : -1;
+    }
+
+    String getName(int id) {
+        return this.names[id];
+    }
+
+    int size() {
+        return this.names.length;
+    }
+
+    /**
+     * The table shared with the handles of this registry
+     */
+    AtomicReferenceArray<Object> getInstances() {
+        return this.instances;
+    }
+
+    void setInstance(String beanName, Object instance) {
+        int id = indexOf(beanName);
+        if (id >= 0) {
+            this.instances.set(id, instance);
+        }
+    }
+
+    /**
+     * Empties every slot, so the handles of a replaced registry fall back to lookups by name.
+     */
+    void clear() {
+        for (int i = 0; i < this.instances.length(); i++) {
+            this.instances.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package org.minis.beans.factory.support;
+
+import org.minis.BeanDefinition;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.ConstructorArgumentValue;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PropertyValue;
+import org.minis.beans.factory.config.PropertyValues;
+import org.minis.core.convert.ConversionException;
+import org.minis.core.convert.ConversionService;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The reflection metadata needed to create and wire one bean, resolved once from its {@link BeanDefinition}.
+ * <p>
+ * Resolving a plan loads the bean class, picks the constructor, looks up every setter and converts the
+ * literal constructor arguments and property values with a {@link ConversionService}, and looks up the init
+ * method. Creating a bean afterwards only replays the plan, so no {@code Class.forName},
+ * {@code getConstructor}, {@code getMethod} or string conversion happens on the creation path.
+ * How the constructor and the setters are finally invoked is decided by the {@link InstantiationStrategy}.
+ * <p>
+ * The converted values are shared by every creation, except arrays, the only mutable values a conversion
+ * produces: each instance gets its own copy, so one instance changing an element is not seen by the others.
+ */
+public final class InjectionPlan {
+    private static final PropertyInjection[] NO_PROPERTIES = new PropertyInjection[0];
+    /**
+     * Type names usable without package in bean definitions
+     */
+    private static final Map<String, Class<?>> TYPE_ALIASES = new HashMap<>(32);
+
+    static {
+        for (Class<?> type : new Class<?>[]{boolean.class, byte.class, short.class, int.class, long.class,
+                float.class, double.class, char.class, Boolean.class, Byte.class, Short.class, Integer.class,
+                Long.class, Float.class, Double.class, Character.class, String.class, Object.class}) {
+            TYPE_ALIASES.put(type.getName(), type);
+            TYPE_ALIASES.put(type.getSimpleName(), type);
+        }
+    }
+
+    private final Class<?> beanClass;
+    private final Constructor<?> constructor;
+    private final Object[] constructorArguments;
+    private final BeanInstantiator instantiator;
+    private final PropertyInjection[] propertyInjections;
+    private final Method initMethod;
+
+    private InjectionPlan(Class<?> beanClass, Constructor<?> constructor, Object[] constructorArguments,
+                          BeanInstantiator instantiator, PropertyInjection[] propertyInjections, Method initMethod) {
+        this.beanClass = beanClass;
+        this.constructor = constructor;
+        this.constructorArguments = constructorArguments;
+        this.instantiator = instantiator;
+        this.propertyInjections = propertyInjections;
+        this.initMethod = initMethod;
+    }
+
+    /**
+     * Resolves the plan of the given definition.
+     *
+     * @param beanDefinition
+     * @param instantiationStrategy
+     * @param conversionService     converts the literal values to the parameter types
+     * @return
+     * @throws BeansException if the class, the constructor, a setter or the init method can not be resolved,
+     *                        or a value can not be converted
+     */
+    public static InjectionPlan resolve(BeanDefinition beanDefinition, InstantiationStrategy instantiationStrategy,
+                                        ConversionService conversionService) throws BeansException {
+        String beanName = beanDefinition.getId();
+        Class<?> beanClass = loadClass(beanDefinition.getClassName(), beanName);
+
+        // process constructor arguments
+        ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+        int argumentCount = argumentValues == null ? 0 : argumentValues.getArgumentCount();
+        Class<?>[] paramTypes = new Class<?>[argumentCount];
+        Object[] paramValues = new Object[argumentCount];
+
+        // each parameter is converted to its declared type once, here
+        for (int i = 0; i < argumentCount; i++) {
+            ConstructorArgumentValue argumentValue = argumentValues.getIndexedArgumentValue(i);
+            paramTypes[i] = resolveType(argumentValue.getType(), beanName);
+            paramValues[i] = convert(argumentValue.getValue(), paramTypes[i], conversionService,
+                    "constructor argument " + i, beanName);
+        }
+
+        Constructor<?> constructor;
+        try {
+            // if it is a no argument constructor, the declared one is used directly
+            constructor = argumentCount == 0 ? beanClass.getDeclaredConstructor() : beanClass.getConstructor(paramTypes);
+        } catch (NoSuchMethodException | SecurityException e) {
+            throw new BeansException("No matching constructor found for bean: " + beanName, e);
+        }
+
+        return new InjectionPlan(beanClass, constructor, paramValues,
+                createInstantiator(constructor, paramValues, instantiationStrategy),
+                resolvePropertyInjections(beanName, beanClass, beanDefinition.getPropertyValues(), instantiationStrategy,
+                        conversionService),
+                resolveInitMethod(beanName, beanClass, beanDefinition.getInitMethodName()));
+    }
+
+    /**
+     * An instantiator of the strategy binds the arguments once, so with an array among them the constructor is
+     * called reflectively instead, with fresh copies of the arrays every time.
+     */
+    private static BeanInstantiator createInstantiator(Constructor<?> constructor, Object[] arguments,
+                                                       InstantiationStrategy instantiationStrategy) {
+        for (Object argument : arguments) {
+            if (isArray(argument)) {
+                return () -> {
+                    Object[] copies = new Object[arguments.length];
+                    for (int i = 0; i < arguments.length; i++) {
+                        copies[i] = copyOf(arguments[i]);
+                    }
+                    return constructor.newInstance(copies);
+                };
+            }
+        }
+        return instantiationStrategy.createInstantiator(constructor, arguments);
+    }
+
+    private static boolean isArray(Object value) {
+        return value != null && value.getClass().isArray();
+    }
+
+    /**
+     * @return a deep copy of an array, any other value as is
+     */
+    static Object copyOf(Object value) {
+        if (!isArray(value)) {
+            return value;
+        }
+        int length = Array.getLength(value);
+        Class<?> componentType = value.getClass().getComponentType();
+        Object copy = Array.newInstance(componentType, length);
+        if (componentType.isPrimitive()) {
+            System.arraycopy(value, 0, copy, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                Array.set(copy, i, copyOf(Array.get(value, i)));
+            }
+        }
+        return copy;
+    }
+
+    private static Method resolveInitMethod(String beanName, Class<?> beanClass, String initMethodName)
+            throws BeansException {
+        if (initMethodName == null) {
+            return null;
+        }
+        try {
+            return beanClass.getMethod(initMethodName);
+        } catch (NoSuchMethodException | SecurityException e) {
+            throw new BeansException("No public no-arg init method " + initMethodName + " found for bean: " + beanName, e);
+        }
+    }
+
+    private static PropertyInjection[] resolvePropertyInjections(String beanName, Class<?> beanClass,
+                                                                 PropertyValues propertyValues,
+                                                                 InstantiationStrategy instantiationStrategy,
+                                                                 ConversionService conversionService)
+            throws BeansException {
+        if (propertyValues == null || propertyValues.isEmpty()) {
+            return NO_PROPERTIES;
+        }
+
+        PropertyInjection[] injections = new PropertyInjection[propertyValues.size()];
+        for (int i = 0; i < propertyValues.size(); i++) {
+            PropertyValue propertyValue = propertyValues.getPropertyValues().get(i);
+            String pName = propertyValue.getName();
+            Class<?> paramType = resolveType(propertyValue.getType(), beanName);
+            // a reference is resolved on each creation, a literal is converted once, here
+            Object value = propertyValue.isRef() ? propertyValue.getValue()
+                    : convert(propertyValue.getValue(), paramType, conversionService, "property " + pName, beanName);
+
+            // Look up the setter method according to the setXxxx specification
+            String methodName = "set" + Character.toUpperCase(pName.charAt(0)) + pName.substring(1);
+            Method setter;
+            try {
+                setter = beanClass.getMethod(methodName, paramType);
+            } catch (NoSuchMethodException | SecurityException e) {
+                throw new BeansException("No setter " + methodName + " found for property " + pName
+                        + " of bean: " + beanName, e);
+            }
+            injections[i] = new PropertyInjection(pName, paramType, setter,
+                    instantiationStrategy.createPropertySetter(setter), value, propertyValue.isRef());
+        }
+        return injections;
+    }
+
+    private static Class<?> loadClass(String className, String beanName) throws BeansException {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new BeansException("Class " + className + " not found for bean: " + beanName, e);
+        }
+    }
+
+    /**
+     * Resolves the type attribute of a constructor argument or property: a class name, a primitive, a
+     * java.lang type without package like Integer, or any of these followed by [] for an array.
+     * A missing type means String, as it always has.
+     *
+     * @param typeName
+     * @param beanName
+     * @return
+     * @throws BeansException
+     */
+    static Class<?> resolveType(String typeName, String beanName) throws BeansException {
+        if (typeName == null || typeName.isEmpty()) {
+            return String.class;
+        }
+        if (typeName.endsWith("[]")) {
+            Class<?> componentType = resolveType(typeName.substring(0, typeName.length() - 2), beanName);
+            return Array.newInstance(componentType, 0).getClass();
+        }
+        Class<?> type = TYPE_ALIASES.get(typeName);
+        return type != null ? type : loadClass(typeName, beanName);
+    }
+
+    private static Object convert(Object value, Class<?> type, ConversionService conversionService, String target,
+                                  String beanName) throws BeansException {
+        try {
+            return conversionService.convert(value, type);
+        } catch (ConversionException e) {
+            throw new BeansException("Can not convert " + target + " of bean: " + beanName + " to " + type.getName(), e);
+        }
+    }
+
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * The converted constructor arguments, shared by every plan lookup; callers must not modify it nor the arrays
+     * in it, instantiations get their own copies of those.
+     */
+    public Object[] getConstructorArguments() {
+        return constructorArguments;
+    }
+
+    public BeanInstantiator getInstantiator() {
+        return instantiator;
+    }
+
+    public PropertyInjection[] getPropertyInjections() {
+        return propertyInjections;
+    }
+
+    /**
+     * @return the init-method of the definition, null without
+     */
+    public Method getInitMethod() {
+        return initMethod;
+    }
+
+    /**
+     * One resolved &lt;property&gt;: the setter to call and either the literal value or the referenced bean name.
+     */
+    public static final class PropertyInjection {
+        private final String name;
+        private final Class<?> type;
+        private final Method setter;
+        private final PropertySetter propertySetter;
+        private final Object value;
+        private final boolean isRef;
+        private final boolean copied;
+
+        PropertyInjection(String name, Class<?> type, Method setter, PropertySetter propertySetter, Object value,
+                          boolean isRef) {
+            this.name = name;
+            this.type = type;
+            this.setter = setter;
+            this.propertySetter = propertySetter;
+            this.value = value;
+            this.isRef = isRef;
+            this.copied = isArray(value);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the parameter type of the setter
+         */
+        public Class<?> getType() {
+            return type;
+        }
+
+        public Method getSetter() {
+            return setter;
+        }
+
+        public PropertySetter getPropertySetter() {
+            return propertySetter;
+        }
+
+        /**
+         * @return the referenced bean name, or the converted literal value, as a fresh copy for an array
+         */
+        public Object getValue() {
+            return copied ? copyOf(value) : value;
+        }
+
+        public boolean isRef() {
+            return isRef;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.minis.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Decides how the factory calls the constructor and the setters resolved in an {@link InjectionPlan}.
+ * <p>
+ * Both methods are called once while a plan is resolved, the returned accessors are then invoked
+ * on every creation of the bean.
+ */
+public interface InstantiationStrategy {
+    /**
+     * @param constructor the constructor chosen for the bean
+     * @param arguments   the converted constructor arguments, must not be modified
+     * @return
+     */
+    BeanInstantiator createInstantiator(Constructor<?> constructor, Object[] arguments);
+
+    /**
+     * @param setter the resolved setter method
+     * @return
+     */
+    PropertySetter createPropertySetter(Method setter);
+}
@@ -0,0 +1,65 @@
+package org.minis.beans.factory.support;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Spins {@link BeanInstantiator} and {@link PropertySetter} implementations with {@link LambdaMetafactory},
+ * so creating a bean is a direct {@code new} and setter call the JIT can inline, instead of
+ * {@code Constructor.newInstance} and {@code Method.invoke}.
+ * <p>
+ * The converted constructor arguments are captured by the generated instantiator. Whenever a class or member
+ * is not accessible from this class loader the strategy falls back to {@link SimpleInstantiationStrategy}.
+ */
+public class LambdaInstantiationStrategy extends SimpleInstantiationStrategy {
+    private static final MethodType INSTANTIATE_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SET_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private final Logger logger = LogManager.getLogger(LambdaInstantiationStrategy.class);
+
+    @Override
+    public BeanInstantiator createInstantiator(Constructor<?> constructor, Object[] arguments) {
+        try {
+            MethodHandle implementation = lookup.unreflectConstructor(constructor);
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "instantiate",
+                    MethodType.methodType(BeanInstantiator.class, constructor.getParameterTypes()),
+                    INSTANTIATE_TYPE, implementation,
+                    MethodType.methodType(constructor.getDeclaringClass()));
+            // the captured arguments are unboxed to the constructor parameter types here, once
+            return (BeanInstantiator) callSite.getTarget().invokeWithArguments(Arrays.asList(arguments));
+        } catch (Throwable e) {
+            logger.debug("Falling back to reflection for constructor {}: {}", constructor, e);
+            return super.createInstantiator(constructor, arguments);
+        }
+    }
+
+    @Override
+    public PropertySetter createPropertySetter(Method setter) {
+        try {
+            MethodHandle implementation = lookup.unreflect(setter);
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "set",
+                    MethodType.methodType(PropertySetter.class),
+                    SET_TYPE, implementation,
+                    MethodType.methodType(void.class, setter.getDeclaringClass(),
+                            wrap(setter.getParameterTypes()[0])));
+            return (PropertySetter) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            logger.debug("Falling back to reflection for setter {}: {}", setter, e);
+            return super.createPropertySetter(setter);
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+}
@@ -0,0 +1,59 @@
+package org.minis.beans.factory.support;
+
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.BeanFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * A JDK proxy injected in place of a lazy-init bean, which only asks the factory for the target
+ * on the first method call and then delegates every call to it.
+ */
+public class LazyResolutionProxy implements InvocationHandler {
+    private final BeanFactory beanFactory;
+    private final String beanName;
+    private volatile Object target;
+
+    private LazyResolutionProxy(BeanFactory beanFactory, String beanName) {
+        this.beanFactory = beanFactory;
+        this.beanName = beanName;
+    }
+
+    /**
+     * @param beanFactory
+     * @param beanName      the lazy bean to resolve on first use
+     * @param interfaceType the interface the proxy implements
+     * @return
+     */
+    public static Object create(BeanFactory beanFactory, String beanName, Class<?> interfaceType) {
+        ClassLoader classLoader = interfaceType.getClassLoader() != null ? interfaceType.getClassLoader()
+                : LazyResolutionProxy.class.getClassLoader();
+        return Proxy.newProxyInstance(classLoader, new Class<?>[]{interfaceType},
+                new LazyResolutionProxy(beanFactory, beanName));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if ("equals".equals(method.getName()) && args != null && args.length == 1 && args[0] == proxy) {
+            return true;
+        }
+        try {
+            return method.invoke(getTarget(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private Object getTarget() throws BeansException {
+        Object target = this.target;
+        if (target == null) {
+            // getBean already guarantees a single instance, no extra locking needed here
+            target = this.beanFactory.getBean(this.beanName);
+            this.target = target;
+        }
+        return target;
+    }
+}
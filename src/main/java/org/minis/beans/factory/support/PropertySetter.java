@@ -0,0 +1,10 @@
+package org.minis.beans.factory.support;
+
+/**
+ * Sets one property value on a bean instance.
+ * Produced by an {@link InstantiationStrategy} and cached in the {@link InjectionPlan}.
+ */
+@FunctionalInterface
+public interface PropertySetter {
+    void set(Object bean, Object value) throws Throwable;
+}
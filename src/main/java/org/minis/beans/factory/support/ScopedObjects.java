@@ -0,0 +1,181 @@
+package org.minis.beans.factory.support;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.ObjectFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The instances of one thread or task in a scope. A lookup of an existing instance is a single map read.
+ * A creation is a {@link FutureTask} per name: threads of one task asking for a bean together wait for the one
+ * creation of that name, while other names are created in parallel. The lock of this instance only guards the
+ * bookkeeping and is never held while a bean is created, so it can not be part of a wait cycle with the creation
+ * locks of the singletons a scoped bean references.
+ */
+final class ScopedObjects {
+    private static final Logger logger = LogManager.getLogger(ScopedObjects.class);
+
+    private final Map<String, Object> objects = new ConcurrentHashMap<>(16);
+    private final Map<String, Creation> creations = new ConcurrentHashMap<>(8);
+    private final Map<String, Runnable> destructionCallbacks = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean destroyed = false;
+
+    Object get(String name, ObjectFactory<?> objectFactory) throws BeansException {
+        Object object = this.objects.get(name);
+        if (object != null) {
+            return object;
+        }
+        Creation creation = new Creation(objectFactory);
+        Creation existing;
+        this.lock.lock();
+        try {
+            if (this.destroyed) {
+                throw new IllegalStateException("Scope has ended, can not create bean '" + name + "'");
+            }
+            object = this.objects.get(name);
+            if (object != null) {
+                return object;
+            }
+            existing = this.creations.putIfAbsent(name, creation);
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (existing != null) {
+            if (existing.thread == Thread.currentThread()) {
+                throw new BeansException("Scoped bean '" + name + "' is in creation, it references itself");
+            }
+            return await(name, existing);
+        }
+        creation.run();
+        this.lock.lock();
+        try {
+            if (!creation.isFailed() && !this.destroyed) {
+                this.objects.put(name, creation.getNow());
+            }
+            // a failed creation is retried by the next lookup
+            this.creations.remove(name, creation);
+        } finally {
+            this.lock.unlock();
+        }
+        return await(name, creation);
+    }
+
+    private static Object await(String name, Creation creation) throws BeansException {
+        try {
+            return creation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("Interrupted while waiting for scoped bean '" + name + "'", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BeansException) {
+                throw (BeansException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BeansException("Failed to create scoped bean '" + name + "'", cause);
+        }
+    }
+
+    Object remove(String name) {
+        this.lock.lock();
+        try {
+            this.destructionCallbacks.remove(name);
+            return this.objects.remove(name);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * A callback registered after the scope ended, by a creation still running then, is run right away.
+     */
+    void registerDestructionCallback(String name, Runnable callback) {
+        this.lock.lock();
+        try {
+            if (!this.destroyed) {
+                this.destructionCallbacks.put(name, callback);
+                return;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        runDestructionCallback(name, callback);
+    }
+
+    /**
+     * Drops every instance and runs the destruction callbacks in the reverse order of their registration,
+     * so a bean ends before the beans it was created with. A failing callback does not stop the others.
+     */
+    void destroy() {
+        List<Map.Entry<String, Runnable>> callbacks;
+        this.lock.lock();
+        try {
+            this.destroyed = true;
+            callbacks = new ArrayList<>(this.destructionCallbacks.entrySet());
+            this.destructionCallbacks.clear();
+            this.objects.clear();
+        } finally {
+            this.lock.unlock();
+        }
+        for (int i = callbacks.size() - 1; i >= 0; i--) {
+            runDestructionCallback(callbacks.get(i).getKey(), callbacks.get(i).getValue());
+        }
+    }
+
+    private static void runDestructionCallback(String name, Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            logger.error("Destruction callback of scoped bean {} failed", name, e);
+        }
+    }
+
+    /**
+     * The creation of one name, run by the thread that registered it
+     */
+    private static final class Creation extends FutureTask<Object> {
+        private final Thread thread = Thread.currentThread();
+        private volatile boolean failed;
+
+        Creation(ObjectFactory<?> objectFactory) {
+            super(objectFactory::getObject);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            this.failed = true;
+            super.setException(t);
+        }
+
+        boolean isFailed() {
+            return this.failed;
+        }
+
+        /**
+         * @return the object of a creation that is done and did not fail
+         */
+        Object getNow() {
+            try {
+                return get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -3,30 +3,83 @@ package org.minis.beans.factory.support;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.minis.BeanDefinition;
+import org.minis.aop.Advisor;
+import org.minis.aop.AdvisorAutoProxyCreator;
+import org.minis.aop.cache.CacheManager;
 import org.minis.beans.*;
-import org.minis.beans.factory.BeanFactory;
-import org.minis.beans.factory.config.ConstructorArgumentValue;
-import org.minis.beans.factory.config.ConstructorArgumentValues;
-import org.minis.beans.factory.config.PropertyValue;
-import org.minis.beans.factory.config.PropertyValues;
+import org.minis.beans.factory.InitializingBean;
+import org.minis.beans.factory.ListableBeanFactory;
+import org.minis.beans.factory.ObjectFactory;
+import org.minis.beans.factory.config.BeanPostProcessor;
+import org.minis.beans.factory.config.PoolConfig;
+import org.minis.beans.factory.config.Scope;
+import org.minis.core.convert.ConversionService;
+import org.minis.core.convert.DefaultConversionService;
+import org.minis.core.metrics.ApplicationStartup;
+import org.minis.core.metrics.StartupStep;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 
-public class SimpleBeanFactory extends DefaultSingletonBeanRegistry implements BeanDefinitionRegistry, BeanFactory {
+public class SimpleBeanFactory extends DefaultSingletonBeanRegistry implements BeanDefinitionRegistry, ListableBeanFactory {
     private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
+    /**
+     * Guarded by itself, which also guards building and dropping the dependency graph and the type index, so that
+     * neither is published for a registry that changed meanwhile
+     */
     private final List<String> beanDefinitionNames = new ArrayList<>();
-    private final Map<String, Object> earlySingletonObjects = new HashMap<>(16);
+    private final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>(16);
+    /**
+     * The references handed out to the reference cycle of a singleton in creation, see {@link #getEarlyBeanReference}
+     */
+    private final Map<String, EarlyReference> earlyBeanReferences = new ConcurrentHashMap<>(16);
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
+    private final Map<String, BeanPool<Object>> beanPools = new ConcurrentHashMap<>(16);
+    private final List<BeanPostProcessor> beanPostProcessors = new CopyOnWriteArrayList<>();
+    /**
+     * The processors applying to each bean created so far, in order, see {@link #getBeanPostProcessors(BeanDefinition, Class)};
+     * replaced as a whole when a processor is added
+     */
+    private volatile Map<String, BeanPostProcessor[]> applicablePostProcessors = new ConcurrentHashMap<>(256);
+    private final AdvisorAutoProxyCreator autoProxyCreator = new AdvisorAutoProxyCreator(this);
     private final Logger logger = LogManager.getLogger(SimpleBeanFactory.class);
+    private InstantiationStrategy instantiationStrategy = new SimpleInstantiationStrategy();
+    private ConversionService conversionService = new DefaultConversionService();
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+    private Executor refreshExecutor;
+    private Duration refreshTimeout;
+    private boolean lazyResolutionProxies = false;
+    /**
+     * Creation locks, one per bean name, kept until the definition of that name is removed
+     */
+    private final Map<String, ReentrantLock> creationLocks = new ConcurrentHashMap<>(256);
+    private volatile BeanDependencyGraph dependencyGraph;
+    private volatile BeanTypeIndex typeIndex;
+    private volatile FrozenBeanRegistry frozenRegistry;
+    private volatile boolean configurationFrozen = false;
 
     public SimpleBeanFactory() {
+        registerScope(ThreadScope.SCOPE_NAME, new ThreadScope());
+        registerScope(TaskScope.SCOPE_NAME, new TaskScope());
+        addBeanPostProcessor(this.autoProxyCreator);
     }
 
     /**
@@ -38,39 +91,477 @@ public class SimpleBeanFactory extends DefaultSingletonBeanRegistry implements B
      * you can use only one method to container all the instances of the Bean to be created!
      */
     public void refresh() {
-        for (String beanName : beanDefinitionNames) {
+        freezeConfiguration();
+        registerPostProcessorBeans();
+        if (this.refreshExecutor != null) {
+            parallelRefresh(this.refreshExecutor);
+        } else {
+            for (String beanName : getBeanDefinitionNames()) {
+                try {
+                    preInstantiate(beanName);
+                } catch (BeansException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        // every bean class is resolved by now, so lookups by type never load classes later on
+        getTypeIndex();
+        freezeRegistry();
+    }
+
+    /**
+     * Creates the beans implementing {@link BeanPostProcessor}, then those implementing {@link Advisor}, ahead
+     * of all others, so that every other bean is created with them applied.
+     */
+    protected void registerPostProcessorBeans() {
+        for (String beanName : getTypeIndex().getBeanNames(BeanPostProcessor.class)) {
             try {
-                getBean(beanName);
+                BeanPostProcessor beanPostProcessor = (BeanPostProcessor) getBean(beanName);
+                if (!this.beanPostProcessors.contains(beanPostProcessor)) {
+                    addBeanPostProcessor(beanPostProcessor);
+                }
             } catch (BeansException e) {
-                e.printStackTrace();
+                logger.error("Can not create bean post processor {}", beanName, e);
+            }
+        }
+        for (String beanName : getTypeIndex().getBeanNames(Advisor.class)) {
+            try {
+                Advisor advisor = (Advisor) getBean(beanName);
+                if (!this.autoProxyCreator.getAdvisors().contains(advisor)) {
+                    this.autoProxyCreator.addAdvisor(advisor);
+                }
+            } catch (BeansException e) {
+                logger.error("Can not create advisor bean {}", beanName, e);
             }
         }
     }
 
+    /**
+     * Applies the processor to the beans created from now on; beans created already stay as they are.
+     * It is placed after the processors of lower or equal {@link BeanPostProcessor#getOrder() order}.
+     *
+     * @param beanPostProcessor
+     */
+    public synchronized void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
+        int index = this.beanPostProcessors.size();
+        while (index > 0 && this.beanPostProcessors.get(index - 1).getOrder() > beanPostProcessor.getOrder()) {
+            index--;
+        }
+        this.beanPostProcessors.add(index, beanPostProcessor);
+        this.applicablePostProcessors = new ConcurrentHashMap<>(256);
+    }
+
+    /**
+     * @return all processors, in order, including the {@link AdvisorAutoProxyCreator} of this factory
+     */
+    public List<BeanPostProcessor> getBeanPostProcessors() {
+        return Collections.unmodifiableList(this.beanPostProcessors);
+    }
+
+    /**
+     * Applies the advisor to the beans created from now on; beans created already stay as they are.
+     *
+     * @param advisor
+     */
+    public void addAdvisor(Advisor advisor) {
+        this.autoProxyCreator.addAdvisor(advisor);
+    }
+
+    public List<Advisor> getAdvisors() {
+        return this.autoProxyCreator.getAdvisors();
+    }
+
+    /**
+     * Creates and initializes the beans on the refresh executor, following the {@link BeanDependencyGraph}:
+     * a group of beans is only started once every group it references is complete, so the init callbacks
+     * of independent subgraphs run concurrently, while a bean's callbacks always see the beans it references
+     * initialized. A reference cycle is created as one group on one thread.
+     * <p>
+     * Returns once every group is complete. The beans referencing a failed bean are not started, and all
+     * failures are reported together at the end.
+     *
+     * @param executor
+     * @throws BeanInitializationException when beans failed, or were not complete within the refresh timeout;
+     *                                     groups still running at the timeout are not interrupted
+     */
+    private void parallelRefresh(Executor executor) {
+        List<BeanDependencyGraph.Component> components = getDependencyGraph().getComponents();
+        logger.debug("Refreshing {} beans in {} groups in parallel", getBeanDefinitionCount(), components.size());
+
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[components.size()];
+        for (BeanDependencyGraph.Component component : components) {
+            Runnable task = () -> {
+                for (String beanName : component.getBeanNames()) {
+                    try {
+                        preInstantiate(beanName);
+                    } catch (BeansException | RuntimeException e) {
+                        failures.put(beanName, e);
+                        // fails the group, so the groups referencing it are not started
+                        throw new CompletionException(e);
+                    }
+                }
+            };
+            int[] dependencies = component.getDependencies();
+            if (dependencies.length == 0) {
+                futures[component.getIndex()] = CompletableFuture.runAsync(task, executor);
+            } else {
+                CompletableFuture<?>[] dependencyFutures = new CompletableFuture<?>[dependencies.length];
+                for (int i = 0; i < dependencies.length; i++) {
+                    dependencyFutures[i] = futures[dependencies[i]];
+                }
+                futures[component.getIndex()] = CompletableFuture.allOf(dependencyFutures).thenRunAsync(task, executor);
+            }
+        }
+        boolean timedOut = false;
+        try {
+            if (this.refreshTimeout == null) {
+                CompletableFuture.allOf(futures).get();
+            } else {
+                CompletableFuture.allOf(futures).get(this.refreshTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException e) {
+            // reported below, with the other failures
+        } catch (TimeoutException e) {
+            timedOut = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the beans to be initialized", e);
+        }
+        if (failures.isEmpty() && !timedOut) {
+            return;
+        }
+
+        Map<String, Throwable> orderedFailures = new LinkedHashMap<>();
+        List<String> uninitializedBeanNames = new ArrayList<>();
+        for (String beanName : getBeanDefinitionNames()) {
+            int componentIndex = getDependencyGraph().getComponentIndex(beanName);
+            CompletableFuture<?> future = futures[componentIndex];
+            if (failures.containsKey(beanName)) {
+                orderedFailures.put(beanName, failures.get(beanName));
+            } else if ((!future.isDone() || future.isCompletedExceptionally()) && isPreInstantiated(beanName)
+                    && !containsSingleton(beanName) && !this.beanPools.containsKey(beanName)) {
+                uninitializedBeanNames.add(beanName);
+            }
+        }
+        String message = (timedOut ? "Beans not initialized within " + this.refreshTimeout : "Failed to initialize beans")
+                + (orderedFailures.isEmpty() ? "" : ", failed: " + String.join(", ", orderedFailures.keySet()))
+                + (uninitializedBeanNames.isEmpty() ? "" : ", not initialized: " + String.join(", ", uninitializedBeanNames));
+        throw new BeanInitializationException(message, orderedFailures, uninitializedBeanNames);
+    }
+
+    /**
+     * Prototypes, scoped and lazy-init beans are created on demand only, pools get their minimum size.
+     */
+    private boolean isPreInstantiated(String beanName) {
+        BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+        return (beanDefinition.isSingleton() || beanDefinition.isPooled()) && !beanDefinition.isLazyInit();
+    }
+
+    private void preInstantiate(String beanName) throws BeansException {
+        if (!isPreInstantiated(beanName)) {
+            return;
+        }
+        if (this.beanDefinitionMap.get(beanName).isPooled()) {
+            getBeanPool(beanName);
+        } else {
+            getBean(beanName);
+        }
+    }
+
+    /**
+     * Makes the scope available to the definitions naming it. The {@link ThreadScope thread} and
+     * {@link TaskScope task} scopes are registered by default, and can be replaced.
+     *
+     * @param scopeName
+     * @param scope
+     * @throws IllegalArgumentException for the names singleton and prototype
+     */
+    public void registerScope(String scopeName, Scope scope) {
+        if (BeanDefinition.ScopeType.forName(scopeName) != BeanDefinition.ScopeType.CUSTOM) {
+            throw new IllegalArgumentException("Scope name '" + scopeName + "' is reserved");
+        }
+        this.scopes.put(scopeName, scope);
+    }
+
+    public Scope getRegisteredScope(String scopeName) {
+        return this.scopes.get(scopeName);
+    }
+
+    public String[] getRegisteredScopeNames() {
+        return this.scopes.keySet().toArray(new String[0]);
+    }
+
+    public Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    /**
+     * Makes {@link #refresh()} create and initialize independent beans concurrently on the given executor,
+     * e.g. a {@link java.util.concurrent.ForkJoinPool} or, for init callbacks doing blocking I/O, on JDK 21+,
+     * a virtual thread per task executor. A failing bean then fails the refresh, see
+     * {@link BeanInitializationException}. {@code null}, the default, creates the beans one at a time on
+     * the calling thread, logging failures.
+     *
+     * @param refreshExecutor
+     */
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    public Duration getRefreshTimeout() {
+        return refreshTimeout;
+    }
+
+    /**
+     * Limits how long {@link #refresh()} waits for the beans created on the refresh executor; {@code null},
+     * the default, waits until all are complete.
+     *
+     * @param refreshTimeout
+     */
+    public void setRefreshTimeout(Duration refreshTimeout) {
+        this.refreshTimeout = refreshTimeout;
+    }
+
+    public InstantiationStrategy getInstantiationStrategy() {
+        return instantiationStrategy;
+    }
+
+    /**
+     * Changes how constructors and setters are invoked, e.g. to a {@link LambdaInstantiationStrategy}.
+     * Injection plans resolved with the previous strategy are discarded.
+     *
+     * @param instantiationStrategy
+     */
+    public void setInstantiationStrategy(InstantiationStrategy instantiationStrategy) {
+        this.instantiationStrategy = instantiationStrategy;
+        for (BeanDefinition beanDefinition : this.beanDefinitionMap.values()) {
+            beanDefinition.setInjectionPlan(null);
+        }
+    }
+
+    public ConversionService getConversionService() {
+        return conversionService;
+    }
+
+    /**
+     * Changes how literal constructor arguments and property values are converted, e.g. to a
+     * {@link DefaultConversionService} with additional converters.
+     * Injection plans resolved with the previous service are discarded.
+     *
+     * @param conversionService
+     */
+    public void setConversionService(ConversionService conversionService) {
+        this.conversionService = conversionService;
+        for (BeanDefinition beanDefinition : this.beanDefinitionMap.values()) {
+            beanDefinition.setInjectionPlan(null);
+        }
+    }
+
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
+    /**
+     * Records a "minis.beans.create" step for every created bean, with its "minis.beans.instantiate" and
+     * "minis.beans.inject" children; the creation of referenced beans nests under "minis.beans.inject".
+     * A "minis.beans.init" step records the init callbacks of a bean that has any.
+     * Looking up an existing singleton records nothing.
+     *
+     * @param applicationStartup
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    public boolean isLazyResolutionProxies() {
+        return lazyResolutionProxies;
+    }
+
+    /**
+     * When enabled, a reference to a lazy-init bean that is not created yet is injected as a
+     * {@link LazyResolutionProxy} if the property type is an interface, so wiring an eager bean
+     * does not force the creation of the lazy one.
+     *
+     * @param lazyResolutionProxies
+     */
+    public void setLazyResolutionProxies(boolean lazyResolutionProxies) {
+        this.lazyResolutionProxies = lazyResolutionProxies;
+    }
+
+    /**
+     * Compacts and freezes every registered definition, see {@link BeanDefinitionCompactor}, so a large
+     * configuration takes a fraction of the heap it was parsed into. Called at the start of {@link #refresh()};
+     * definitions registered afterwards are compacted and frozen one by one, without sharing strings.
+     */
+    public void freezeConfiguration() {
+        long start = System.nanoTime();
+        BeanDefinitionCompactor compactor = new BeanDefinitionCompactor();
+        // the registered names come first, so references to a bean share the name instance of its registration
+        String[] beanNames = getBeanDefinitionNames();
+        for (String beanName : beanNames) {
+            compactor.string(beanName);
+        }
+        for (String beanName : beanNames) {
+            compactor.compact(this.beanDefinitionMap.get(beanName));
+        }
+        this.configurationFrozen = true;
+        logger.debug("Froze {} bean definitions in {} ms", beanNames.length,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return an estimate of the heap taken by the registered definitions, see {@link BeanDefinitionFootprint}
+     */
+    public BeanDefinitionFootprint getBeanDefinitionFootprint() {
+        return BeanDefinitionFootprint.measure(this.beanDefinitionMap.values());
+    }
+
+    public boolean isConfigurationFrozen() {
+        return configurationFrozen;
+    }
+
+    /**
+     * Maps the names of all definitions and singletons registered so far to dense ids with a
+     * {@link FrozenBeanRegistry}, and copies the singletons created so far into its table. Called at the end
+     * of {@link #refresh()}, when the set of bean names is settled.
+     * <p>
+     * Singletons of these names created or removed later are kept in sync with the table, beans registered
+     * later are only in the dynamic maps. Calling this again builds a new registry, the handles of the
+     * previous one keep working through lookups by name.
+     */
+    public void freezeRegistry() {
+        long start = System.nanoTime();
+        Set<String> beanNames = new LinkedHashSet<>(Arrays.asList(getBeanDefinitionNames()));
+        Collections.addAll(beanNames, getSingletonNames());
+        FrozenBeanRegistry registry = FrozenBeanRegistry.build(beanNames);
+        FrozenBeanRegistry previous = this.frozenRegistry;
+        this.frozenRegistry = registry;
+        for (int i = 0; i < registry.size(); i++) {
+            Object singleton = this.singletonObjects.get(registry.getName(i));
+            if (singleton != null) {
+                registry.getInstances().set(i, singleton);
+            }
+        }
+        if (previous != null) {
+            previous.clear();
+        }
+        logger.debug("Froze the registry of {} bean names in {} ms", registry.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Resolves a bean name once, for repeated lookups with {@link #getBean(BeanHandle)}.
+     * Handles resolved before {@link #refresh()} work, but always look up by name.
+     *
+     * @param beanName
+     * @return
+     * @throws BeansException when there is neither a definition nor a singleton of that name
+     */
+    public BeanHandle getBeanHandle(String beanName) throws BeansException {
+        FrozenBeanRegistry registry = this.frozenRegistry;
+        int index = registry == null ? -1 : registry.indexOf(beanName);
+        if (index >= 0) {
+            return new BeanHandle(beanName, registry.getInstances(), index);
+        }
+        if (!containsBeanDefinition(beanName) && !containsSingleton(beanName)) {
+            throw new BeansException("No bean named '" + beanName + "' is defined");
+        }
+        return new BeanHandle(beanName, null, -1);
+    }
+
+    /**
+     * A singleton in the frozen table is returned after a single array read,
+     * everything else is looked up by name.
+     *
+     * @param handle
+     * @return
+     * @throws BeansException
+     */
+    public Object getBean(BeanHandle handle) throws BeansException {
+        if (handle.instances != null) {
+            Object singleton = handle.instances.get(handle.index);
+            if (singleton != null) {
+                return singleton;
+            }
+        }
+        return getBean(handle.getBeanName());
+    }
+
     @Override
     public void registerBeanDefinition(String name, BeanDefinition beanDefinition) {
-        this.beanDefinitionMap.put(name, beanDefinition);
-        this.beanDefinitionNames.add(name);
-//        if (!beanDefinition.isLazyInit()) {
-//            try {
-//                getBean(name);
-//            } catch (BeansException e) {
-//                e.printStackTrace();
-//            }
-//        }
+        if (this.configurationFrozen) {
+            new BeanDefinitionCompactor().compact(beanDefinition);
+        }
+        synchronized (this.beanDefinitionNames) {
+            this.beanDefinitionMap.put(name, beanDefinition);
+            this.beanDefinitionNames.add(name);
+            this.dependencyGraph = null;
+            this.typeIndex = null;
+        }
+        this.applicablePostProcessors.remove(name);
+        this.autoProxyCreator.forget(name);
     }
 
     public void registerBean(String beanName, Object obj) {
         this.registerSingleton(beanName, obj);
     }
 
+    @Override
+    public void registerSingleton(String beanName, Object singletonObject) {
+        super.registerSingleton(beanName, singletonObject);
+        BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+        if (beanDefinition != null && beanDefinition.getBeanClass() instanceof Class
+                && beanDefinition.getBeanClass() != singletonObject.getClass()) {
+            invalidateTypeIndex();
+        }
+        FrozenBeanRegistry registry = this.frozenRegistry;
+        if (registry != null) {
+            registry.setInstance(beanName, singletonObject);
+        }
+    }
+
+    @Override
+    protected void removeSingleton(String beanName) {
+        super.removeSingleton(beanName);
+        invalidateTypeIndex();
+        FrozenBeanRegistry registry = this.frozenRegistry;
+        if (registry != null) {
+            registry.setInstance(beanName, null);
+        }
+    }
+
     @Override
     public void removeBeanDefinition(String name) {
-        this.beanDefinitionMap.remove(name);
-        this.beanDefinitionNames.remove(name);
+        synchronized (this.beanDefinitionNames) {
+            this.beanDefinitionMap.remove(name);
+            this.beanDefinitionNames.remove(name);
+            this.dependencyGraph = null;
+            this.typeIndex = null;
+        }
+        this.beanPools.remove(name);
+        this.creationLocks.remove(name);
+        this.applicablePostProcessors.remove(name);
+        this.autoProxyCreator.forget(name);
         this.removeSingleton(name);
     }
 
+    /**
+     * @return the names of all registered definitions, in registration order
+     */
+    @Override
+    public String[] getBeanDefinitionNames() {
+        synchronized (this.beanDefinitionNames) {
+            return this.beanDefinitionNames.toArray(new String[0]);
+        }
+    }
+
+    private int getBeanDefinitionCount() {
+        synchronized (this.beanDefinitionNames) {
+            return this.beanDefinitionNames.size();
+        }
+    }
+
     @Override
     public BeanDefinition getBeanDefinition(String name) {
         return this.beanDefinitionMap.get(name);
@@ -81,41 +572,329 @@ public class SimpleBeanFactory extends DefaultSingletonBeanRegistry implements B
         return this.beanDefinitionMap.containsKey(name);
     }
 
+    /**
+     * A cached singleton is returned after a single map read, without logging or any other allocation,
+     * so the container can be used for lookups on hot paths. Everything else goes through {@link #doGetBean}.
+     * Callers repeating the same lookup resolve a {@link #getBeanHandle(String) handle} once instead, which saves
+     * hashing the name.
+     *
+     * @param beanName
+     * @return
+     * @throws BeansException
+     */
     public Object getBean(String beanName) throws BeansException {
-        logger.debug("Attempting to retrieve bean with name: " + beanName);
+        Object singleton = this.singletonObjects.get(beanName);
+        if (singleton != null) {
+            return singleton;
+        }
+        return doGetBean(beanName);
+    }
+
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws BeansException {
+        String[] beanNames = getTypeIndex().getBeanNames(requiredType);
+        if (beanNames.length == 0) {
+            throw new BeansException("No bean of type " + requiredType.getName() + " is defined");
+        }
+        if (beanNames.length > 1) {
+            throw new BeansException("Expected a single bean of type " + requiredType.getName() + " but found "
+                    + beanNames.length + ": " + String.join(", ", beanNames));
+        }
+        Object bean = getBean(beanNames[0]);
+        if (!requiredType.isInstance(bean)) {
+            // a lazy bean proxied on this creation, the index is rebuilt with the type of the proxy
+            throw new BeansException("Bean '" + beanNames[0] + "' is a " + bean.getClass().getName()
+                    + ", proxied with the interfaces of its class, not a " + requiredType.getName());
+        }
+        return requiredType.cast(bean);
+    }
+
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        return getTypeIndex().getBeanNames(type).clone();
+    }
+
+    @Override
+    public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
+        String[] beanNames = getTypeIndex().getBeanNames(type);
+        Map<String, T> beans = new LinkedHashMap<>((int) (beanNames.length / 0.75f) + 1);
+        for (String beanName : beanNames) {
+            Object bean = getBean(beanName);
+            // a lazy bean proxied on this creation, the index is rebuilt with the type of the proxy
+            if (type.isInstance(bean)) {
+                beans.put(beanName, type.cast(bean));
+            }
+        }
+        return beans;
+    }
 
-        // try to get bean instance
-        Object singleton = this.getSingleton(beanName);
+    /**
+     * Singletons are created under the creation lock of their name, which every caller asking for that bean
+     * takes, whatever the current {@link BeanDependencyGraph}. Concurrent callers asking for the same bean wait
+     * for the single in-flight creation, while unrelated beans are created in parallel. The bean of a reference
+     * cycle is created under the locks of the whole cycle, its group in the graph, taken in name order; a
+     * thread only ever takes the locks of a group referenced by the one it already holds, so waits can not
+     * form a cycle. Early singleton references are only read under the lock, i.e. only by the thread creating them.
+     *
+     * @param beanName
+     * @return
+     * @throws BeansException
+     */
+    private Object doGetBean(String beanName) throws BeansException {
         // if not found bean instance, get its BeanDefinition to instantiate
-        if (singleton == null) {
+        final BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+        if (beanDefinition == null) {
+            throw new BeansException("No bean named '" + beanName + "' is defined");
+        }
+        if (beanDefinition.isPrototype()) {
+            // a prototype is never cached, every call creates and wires a fresh instance
+            return createPrototype(beanDefinition);
+        }
+        if (beanDefinition.isCustomScope()) {
+            return getScopedBean(beanDefinition, () -> createPrototype(beanDefinition));
+        }
+        if (beanDefinition.isPooled()) {
+            throw new BeansException("Bean '" + beanName + "' is pooled, borrow it with leaseBean or getBeanPool");
+        }
+
+        ReentrantLock[] creationLocks = lockCreation(beanName);
+        try {
+            // another thread may have completed the bean while this one was waiting
+            Object singleton = this.singletonObjects.get(beanName);
+            if (singleton != null) {
+                return singleton;
+            }
             // if singleton object not found, try to get from early singleton object
-            logger.debug("Bean not found in singleton instances. Checking early singleton objects for bean: " + beanName);
             singleton = this.earlySingletonObjects.get(beanName);
-            if (singleton == null) {
-                logger.debug("Bean not found. Creating new bean instance for name: " + beanName);
-                // if early singleton object not found, create and register bean
-                final BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
-                singleton = createBean(beanDefinition);
+            if (singleton != null) {
+                logger.debug("Returning early singleton object for bean: {}", beanName);
+                return getEarlyBeanReference(beanDefinition, singleton);
+            }
+
+            logger.debug("Bean not found. Creating new bean instance for name: {}", beanName);
+            // if early singleton object not found, create and register bean
+            try {
+                singleton = initializeSingleton(beanDefinition, createBean(beanDefinition));
                 registerBean(beanName, singleton);
+            } finally {
+                this.earlySingletonObjects.remove(beanName);
+                this.earlyBeanReferences.remove(beanName);
+            }
+
+            logger.debug("New bean instance created and registered for name: {}", beanName);
+            return singleton;
+        } finally {
+            unlockCreation(creationLocks);
+        }
+    }
+
+    /**
+     * Takes the creation locks of a singleton, see {@link #doGetBean}, for subclasses creating singletons
+     * themselves, like generated factories. They have to be released with {@link #unlockCreation}.
+     *
+     * @param beanName
+     * @return the locks taken, in order
+     */
+    protected ReentrantLock[] lockCreation(String beanName) {
+        ReentrantLock[] creationLocks = getCreationLocks(beanName);
+        for (ReentrantLock creationLock : creationLocks) {
+            creationLock.lock();
+        }
+        return creationLocks;
+    }
+
+    protected void unlockCreation(ReentrantLock[] creationLocks) {
+        for (int i = creationLocks.length - 1; i >= 0; i--) {
+            creationLocks[i].unlock();
+        }
+    }
+
+    /**
+     * Returns the current instance of a bean of a custom scope, which the object factory creates when the scope
+     * has none. An instance that is {@link AutoCloseable} is closed when it ends with its scope.
+     *
+     * @param beanDefinition
+     * @param objectFactory
+     * @return
+     * @throws BeansException when the scope of the definition is not registered
+     */
+    protected Object getScopedBean(BeanDefinition beanDefinition, ObjectFactory<?> objectFactory) throws BeansException {
+        String beanName = beanDefinition.getId();
+        Scope scope = this.scopes.get(beanDefinition.getScope());
+        if (scope == null) {
+            throw new BeansException("No scope registered for scope name '" + beanDefinition.getScope()
+                    + "' of bean '" + beanName + "'");
+        }
+        return scope.get(beanName, () -> {
+            Object bean = objectFactory.getObject();
+            if (bean instanceof AutoCloseable) {
+                scope.registerDestructionCallback(beanName, () -> {
+                    try {
+                        ((AutoCloseable) bean).close();
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Failed to close scoped bean '" + beanName + "'", e);
+                    }
+                });
+            }
+            return bean;
+        });
+    }
+
+    /**
+     * Returns the pool of a bean of scope pooled, creating it with its minimum size on first use.
+     * A pooled bean is not available through {@link #getBean(String)} nor as a reference of another bean,
+     * as nothing would return it.
+     *
+     * @param beanName
+     * @return
+     * @throws BeansException when there is no such bean, it is not pooled or creating the minimum size failed
+     */
+    public BeanPool<Object> getBeanPool(String beanName) throws BeansException {
+        BeanPool<Object> pool = this.beanPools.get(beanName);
+        if (pool != null) {
+            return pool;
+        }
+        BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+        if (beanDefinition == null) {
+            throw new BeansException("No bean named '" + beanName + "' is defined");
+        }
+        if (!beanDefinition.isPooled()) {
+            throw new BeansException("Bean '" + beanName + "' is not of scope " + BeanDefinition.SCOPE_POOLED);
+        }
+        PoolConfig poolConfig = beanDefinition.getPoolConfig() != null ? beanDefinition.getPoolConfig() : PoolConfig.DEFAULT;
+        pool = new BeanPool<>(beanName, poolConfig, () -> createPooledInstance(beanDefinition));
+        // not computeIfAbsent: filling the pool creates beans, which may create other pools
+        BeanPool<Object> existing = this.beanPools.putIfAbsent(beanName, pool);
+        if (existing != null) {
+            return existing;
+        }
+        pool.prefill();
+        logger.debug("Created pool of bean {}: {}", beanName, poolConfig);
+        return pool;
+    }
+
+    /**
+     * @param beanName
+     * @return a lease on an instance of a pooled bean, returning it to its pool when closed
+     * @throws BeansException see {@link #getBeanPool(String)} and {@link BeanPool#borrow()}
+     */
+    public BeanPool.Lease<Object> leaseBean(String beanName) throws BeansException {
+        return getBeanPool(beanName).lease();
+    }
+
+    /**
+     * @param beanName
+     * @param requiredType
+     * @param <T>
+     * @return a lease on an instance of a pooled bean, returning it to its pool when closed
+     * @throws BeansException see {@link #leaseBean(String)}, or when the bean is not of the required type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> BeanPool.Lease<T> leaseBean(String beanName, Class<T> requiredType) throws BeansException {
+        BeanPool<Object> pool = getBeanPool(beanName);
+        Class<?> beanType = getType(beanName);
+        if (beanType == null || !requiredType.isAssignableFrom(beanType)) {
+            throw new BeansException("Pooled bean '" + beanName + "' is of type " + beanType + ", not " + requiredType.getName());
+        }
+        return (BeanPool.Lease<T>) (BeanPool.Lease<?>) pool.lease();
+    }
+
+    /**
+     * Creates an instance for the pool of a pooled bean, through the same path as a prototype
+     *
+     * @param beanDefinition
+     * @return
+     * @throws BeansException
+     */
+    protected Object createPooledInstance(BeanDefinition beanDefinition) throws BeansException {
+        return createPrototype(beanDefinition);
+    }
 
-                logger.debug("New bean instance created and registered for name: " + beanName);
+    /**
+     * ReentrantLock rather than synchronized, so threads waiting for a creation do not pin virtual threads.
+     * The lock of the bean itself is always among the returned ones, so two callers of one bean exclude each
+     * other even when the graph was rebuilt between their calls.
+     *
+     * @param beanName
+     * @return the locks of the bean's group in name order, the bean's own lock alone outside a reference cycle
+     */
+    private ReentrantLock[] getCreationLocks(String beanName) {
+        BeanDependencyGraph graph = getDependencyGraph();
+        int componentIndex = graph.getComponentIndex(beanName);
+        String[] groupNames = componentIndex < 0 ? null : graph.getComponents().get(componentIndex).getBeanNames();
+        if (groupNames == null || groupNames.length == 1 || !Arrays.asList(groupNames).contains(beanName)) {
+            return new ReentrantLock[]{getCreationLock(beanName)};
+        }
+        String[] lockNames = groupNames.clone();
+        Arrays.sort(lockNames);
+        ReentrantLock[] locks = new ReentrantLock[lockNames.length];
+        for (int i = 0; i < lockNames.length; i++) {
+            locks[i] = getCreationLock(lockNames[i]);
+        }
+        return locks;
+    }
+
+    private ReentrantLock getCreationLock(String beanName) {
+        return this.creationLocks.computeIfAbsent(beanName, name -> new ReentrantLock());
+    }
 
-                // reserve place for bean post processor
-                logger.debug("Starting post-processing for bean: " + beanName);
+    /**
+     * The graph is built on first use and dropped whenever a definition is registered or removed.
+     *
+     * @return
+     */
+    private BeanDependencyGraph getDependencyGraph() {
+        BeanDependencyGraph graph = this.dependencyGraph;
+        if (graph == null) {
+            synchronized (this.beanDefinitionNames) {
+                graph = this.dependencyGraph;
+                if (graph == null) {
+                    graph = BeanDependencyGraph.build(this.beanDefinitionNames, this.beanDefinitionMap);
+                    this.dependencyGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
 
-                // step 1: postProcessBeforeInitialization
-                // step 2: afterPropertiesSet
-                // step 3: init-method
-                // step 4: postProcessAfterInitialization
+    /**
+     * The index is built on first use, at the latest at the end of {@link #refresh()}, and dropped whenever a
+     * definition is registered or removed, or a singleton is registered as an object of another class than its
+     * definition, e.g. a proxy. Beans whose class can not be loaded are left out of it.
+     *
+     * @return
+     */
+    private BeanTypeIndex getTypeIndex() {
+        BeanTypeIndex index = this.typeIndex;
+        if (index == null) {
+            synchronized (this.beanDefinitionNames) {
+                index = this.typeIndex;
+                if (index == null) {
+                    index = BeanTypeIndex.build(this.beanDefinitionNames, this::getIndexedType);
+                    this.typeIndex = index;
+                    logger.debug("Indexed the types of {} beans", this.beanDefinitionNames.size());
+                }
             }
         }
-        if (singleton == null) {
-            logger.error("Failed to retrieve or create bean with name: " + beanName);
-            throw new BeansException("Unable to retrieve or create bean with name: " + beanName);
+        return index;
+    }
+
+    /**
+     * Under the lock the index is built with, so an index built from the previous state is not published afterwards
+     */
+    private void invalidateTypeIndex() {
+        synchronized (this.beanDefinitionNames) {
+            this.typeIndex = null;
         }
+    }
 
-        logger.debug("Successfully retrieved bean with name: " + beanName);
-        return singleton;
+    /**
+     * @return the class of the singleton if it is created, a proxy implementing only the interfaces of the bean
+     * class included, else the class of the definition
+     */
+    private Class<?> getIndexedType(String beanName) {
+        Object singleton = this.singletonObjects.get(beanName);
+        return singleton != null ? singleton.getClass() : getType(beanName);
     }
 
     @Override
@@ -135,203 +914,379 @@ public class SimpleBeanFactory extends DefaultSingletonBeanRegistry implements B
 
     @Override
     public Class<?> getType(String name) {
-        return (Class<?>) beanDefinitionMap.get(name).getBeanClass();
+        BeanDefinition beanDefinition = beanDefinitionMap.get(name);
+        if (beanDefinition == null) {
+            return null;
+        }
+        Object beanClass = beanDefinition.getBeanClass();
+        if (beanClass instanceof Class) {
+            return (Class<?>) beanClass;
+        }
+        try {
+            Class<?> resolved = Class.forName(beanDefinition.getClassName());
+            beanDefinition.setBeanClass(resolved);
+            return resolved;
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.warn("Can not resolve class {} of bean {}", beanDefinition.getClassName(), name);
+            return null;
+        }
     }
 
     /**
      * @param beanDefinition
      * @return
      */
-    private Object createBean(BeanDefinition beanDefinition) {
-        logger.debug("Starting bean creation for ID: " + beanDefinition.getId() + ", Class: " + beanDefinition.getClassName());
-        Class<?> clz = null;
-        // create raw bean
-        Object obj = doCreateBean(beanDefinition);
-        logger.debug("Raw bean created for ID: " + beanDefinition.getId());
+    private Object createBean(BeanDefinition beanDefinition) throws BeansException {
+        logger.debug("Starting bean creation for ID: {}, Class: {}", beanDefinition.getId(), beanDefinition.getClassName());
+        StartupStep createStep = this.applicationStartup.start("minis.beans.create").tag("beanName", beanDefinition.getId());
+        try {
+            InjectionPlan injectionPlan;
+            Object obj;
+            StartupStep instantiateStep = this.applicationStartup.start("minis.beans.instantiate");
+            try {
+                injectionPlan = getInjectionPlan(beanDefinition);
+                // create raw bean
+                obj = doCreateBean(beanDefinition, injectionPlan);
+            } finally {
+                instantiateStep.end();
+            }
+            logger.debug("{} bean created. {}: {}", beanDefinition.getId(), beanDefinition.getClassName(), obj);
 
-        this.earlySingletonObjects.put(beanDefinition.getId(), obj);
-        logger.debug("Bean ID: " + beanDefinition.getId() + " added to earlySingletonObjects");
+            this.earlySingletonObjects.put(beanDefinition.getId(), obj);
+            logger.debug("Bean ID: {} added to earlySingletonObjects", beanDefinition.getId());
 
-        try {
-            clz = Class.forName(beanDefinition.getClassName());
-            logger.debug("Class loaded for bean ID: " + beanDefinition.getId());
-        } catch (ClassNotFoundException e) {
-            logger.error("Class not found for bean ID: " + beanDefinition.getId() + ", Class: " + beanDefinition.getClassName(), e);
+            StartupStep injectStep = this.applicationStartup.start("minis.beans.inject");
+            try {
+                handleProperties(beanDefinition, injectionPlan, obj);
+            } finally {
+                injectStep.end();
+            }
+            return obj;
+        } finally {
+            createStep.end();
         }
-        handleProperties(beanDefinition, clz, obj);
-        return obj;
     }
 
     /**
-     * doCreateBean creates a raw instance,
-     * just calling the constructor method without property handling
+     * The reference to a singleton in creation, for a bean of its own reference cycle: the bean as replaced by
+     * the {@link BeanPostProcessor#getEarlyBeanReference} of its processors, computed on the first such
+     * reference and shared by all others.
+     *
+     * @param beanDefinition
+     * @param bean           the injected, not yet initialized singleton
+     * @return
+     * @throws BeansException when a processor returns null
+     */
+    protected Object getEarlyBeanReference(BeanDefinition beanDefinition, Object bean) throws BeansException {
+        String beanName = beanDefinition.getId();
+        EarlyReference earlyReference = this.earlyBeanReferences.get(beanName);
+        // one left behind by a failed creation belongs to another instance
+        if (earlyReference == null || earlyReference.bean != bean) {
+            Object reference = bean;
+            for (BeanPostProcessor processor : getBeanPostProcessors(beanDefinition, bean.getClass())) {
+                reference = processor.getEarlyBeanReference(reference, beanName);
+                if (reference == null) {
+                    throw new BeansException("Bean post processor " + processor + " returned null for bean '" + beanName + "'");
+                }
+            }
+            earlyReference = new EarlyReference(bean, reference);
+            this.earlyBeanReferences.put(beanName, earlyReference);
+        }
+        return earlyReference.reference;
+    }
+
+    /**
+     * {@link #initializeBean Initializes} a singleton, and returns its early reference if its reference cycle
+     * took one, so there is a single identity of the singleton.
      *
      * @param beanDefinition
+     * @param bean
      * @return
+     * @throws BeansException when a processor replaced the bean after its cycle was injected with another object
      */
-    private Object doCreateBean(BeanDefinition beanDefinition) {
-        logger.debug("Starting bean creation for ID: " + beanDefinition.getId() + ", Class: " + beanDefinition.getClassName());
-        Class<?> clz = null;
-        Object obj = null;
-        Constructor<?> constructor = null;
+    protected Object initializeSingleton(BeanDefinition beanDefinition, Object bean) throws BeansException {
+        Object initialized = initializeBean(beanDefinition, bean);
+        EarlyReference taken = this.earlyBeanReferences.remove(beanDefinition.getId());
+        Object earlyReference = taken == null || taken.bean != bean ? null : taken.reference;
+        if (earlyReference == null || earlyReference == initialized) {
+            return initialized;
+        }
+        if (initialized != bean) {
+            throw new BeansException("Bean '" + beanDefinition.getId() + "' was injected into its reference cycle as "
+                    + earlyReference.getClass().getName() + ", but its post processors replaced it with "
+                    + initialized.getClass().getName() + " afterwards");
+        }
+        return earlyReference;
+    }
+
+    /**
+     * Runs after a bean is created and injected, and returns the object to hand out instead of it, as
+     * replaced by the {@link BeanPostProcessor}s applying to the bean: e.g. a proxy when an {@link Advisor}
+     * applies to one of its methods. Beans referencing a singleton of their own reference cycle were injected
+     * before this ran, with its {@link #getEarlyBeanReference early reference}.
+     * <p>
+     * step 1: postProcessBeforeInitialization
+     * step 2: afterPropertiesSet of an {@link InitializingBean}
+     * step 3: init-method, unless it is afterPropertiesSet again
+     * step 4: postProcessAfterInitialization
+     *
+     * @param beanDefinition
+     * @param bean
+     * @return
+     * @throws BeansException when a processor returns null or an init callback fails
+     */
+    protected Object initializeBean(BeanDefinition beanDefinition, Object bean) throws BeansException {
+        BeanPostProcessor[] processors = getBeanPostProcessors(beanDefinition, bean.getClass());
+        String beanName = beanDefinition.getId();
+        Object result = bean;
+        for (BeanPostProcessor processor : processors) {
+            result = processor.postProcessBeforeInitialization(result, beanName);
+            if (result == null) {
+                throw new BeansException("Bean post processor " + processor + " returned null for bean '" + beanName + "'");
+            }
+        }
+        if (result instanceof InitializingBean || beanDefinition.getInitMethodName() != null) {
+            invokeInitMethods(beanDefinition, result);
+        }
+        for (BeanPostProcessor processor : processors) {
+            result = processor.postProcessAfterInitialization(result, beanName);
+            if (result == null) {
+                throw new BeansException("Bean post processor " + processor + " returned null for bean '" + beanName + "'");
+            }
+        }
+        return result;
+    }
 
+    private void invokeInitMethods(BeanDefinition beanDefinition, Object bean) throws BeansException {
+        String beanName = beanDefinition.getId();
+        StartupStep initStep = this.applicationStartup.start("minis.beans.init").tag("beanName", beanName);
         try {
-            clz = Class.forName(beanDefinition.getClassName());
-
-            // process constructor arguments
-            ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
-
-            if (!argumentValues.isEmpty()) {
-                Class<?>[] paramTypes = new Class<?>[argumentValues.getArgumentCount()];
-                Object[] paramValues = new Object[argumentValues.getArgumentCount()];
-
-                // for each parameter, being handled separately by the data type
-                for (int i = 0; i < argumentValues.getArgumentCount(); i++) {
-                    ConstructorArgumentValue argumentValue = argumentValues.getIndexedArgumentValue(i);
-
-                    switch (argumentValue.getType()) {
-                        case "Integer":
-                        case "java.lang.Integer":
-                            paramTypes[i] = Integer.class;
-                            paramValues[i] = Integer.valueOf((String) argumentValue.getValue());
-                            break;
-
-                        case "int":
-                            paramTypes[i] = int.class;
-                            paramValues[i] = Integer.valueOf((String) argumentValue.getValue());
-                            break;
-
-                        case "String":
-                        case "java.lang.String":
-                        default:
-                            paramTypes[i] = String.class;
-                            paramValues[i] = argumentValue.getValue();
-                            break;
-                    }
-                    logger.debug("Processing constructor argument: Type=" + argumentValue.getType() + ", Value=" + argumentValue.getValue());
-                }
-                try {
-                    constructor = clz.getConstructor(paramTypes);
-                    obj = constructor.newInstance(paramValues);
-                } catch (NoSuchMethodException | InvocationTargetException | SecurityException |
-                         InstantiationException | IllegalAccessException | IllegalArgumentException e) {
-                    e.printStackTrace();
+            if (bean instanceof InitializingBean) {
+                ((InitializingBean) bean).afterPropertiesSet();
+            }
+            String initMethodName = beanDefinition.getInitMethodName();
+            if (initMethodName != null && !(bean instanceof InitializingBean && "afterPropertiesSet".equals(initMethodName))) {
+                invokeInitMethod(beanDefinition, bean);
+            }
+        } catch (BeansException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeansException("Initialization of bean '" + beanName + "' failed", unwrap(e));
+        } finally {
+            initStep.end();
+        }
+    }
+
+    /**
+     * Calls the init-method of the definition on the bean, as returned by the postProcessBeforeInitialization
+     * of the processors, through the method resolved in its {@link InjectionPlan}.
+     *
+     * @param beanDefinition a definition with an init-method
+     * @param bean
+     * @throws Throwable whatever the call throws
+     */
+    protected void invokeInitMethod(BeanDefinition beanDefinition, Object bean) throws Throwable {
+        getInjectionPlan(beanDefinition).getInitMethod().invoke(bean);
+    }
+
+    /**
+     * Filters the registered processors down to those declaring the bean's name and type, on the first
+     * creation of the bean, so later creations only iterate these.
+     *
+     * @param beanDefinition
+     * @param beanClass      the class of the instance, which the processors see
+     * @return the processors in order, not to be modified
+     */
+    private BeanPostProcessor[] getBeanPostProcessors(BeanDefinition beanDefinition, Class<?> beanClass) {
+        Map<String, BeanPostProcessor[]> cache = this.applicablePostProcessors;
+        BeanPostProcessor[] processors = cache.get(beanDefinition.getId());
+        if (processors == null) {
+            List<BeanPostProcessor> applicable = new ArrayList<>();
+            for (BeanPostProcessor processor : this.beanPostProcessors) {
+                if (appliesTo(processor, beanDefinition.getId(), beanClass)) {
+                    applicable.add(processor);
                 }
-            } else {
-                // if it is a no argument constructor, create the instance directly
-                obj = clz.getDeclaredConstructor().newInstance();
             }
-        } catch (InstantiationException | IllegalAccessException | ClassNotFoundException | InvocationTargetException |
-                 NoSuchMethodException e) {
-            logger.error("Error creating bean for ID: " + beanDefinition.getId() + ", Class: " + beanDefinition.getClassName(), e);
+            processors = applicable.toArray(new BeanPostProcessor[0]);
+            cache.put(beanDefinition.getId(), processors);
+        }
+        return processors;
+    }
+
+    private static boolean appliesTo(BeanPostProcessor processor, String beanName, Class<?> beanClass) {
+        String[] beanNames = processor.getBeanNames();
+        if (beanNames != null && !Arrays.asList(beanNames).contains(beanName)) {
+            return false;
+        }
+        Class<?>[] beanTypes = processor.getBeanTypes();
+        if (beanTypes == null) {
+            return true;
+        }
+        for (Class<?> beanType : beanTypes) {
+            if (beanType.isAssignableFrom(beanClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the backend of the caches of the beans created from now on, see {@link CacheManager}
+     *
+     * @param cacheManager
+     */
+    public void setCacheManager(CacheManager cacheManager) {
+        this.autoProxyCreator.setCacheManager(cacheManager);
+    }
+
+    public CacheManager getCacheManager() {
+        return this.autoProxyCreator.getCacheManager();
+    }
+
+    /**
+     * Returns the cached injection plan of the definition, resolving it on first use.
+     * Concurrent first resolutions are harmless, they produce equivalent plans.
+     *
+     * @param beanDefinition
+     * @return
+     * @throws BeansException
+     */
+    private InjectionPlan getInjectionPlan(BeanDefinition beanDefinition) throws BeansException {
+        Object resolved = beanDefinition.getInjectionPlan();
+        InjectionPlan injectionPlan;
+        if (resolved instanceof InjectionPlan) {
+            injectionPlan = (InjectionPlan) resolved;
+        } else {
+            injectionPlan = InjectionPlan.resolve(beanDefinition, this.instantiationStrategy, this.conversionService);
+            beanDefinition.setBeanClass(injectionPlan.getBeanClass());
+            beanDefinition.setInjectionPlan(injectionPlan);
+            logger.debug("Resolved injection plan for bean ID: {}", beanDefinition.getId());
         }
-        logger.debug(String.format("%s bean created. %s: %s", beanDefinition.getId(), beanDefinition.getClassName(), obj));
+        return injectionPlan;
+    }
 
+    /**
+     * doCreateBean creates a raw instance,
+     * just calling the constructor method without property handling
+     *
+     * @param beanDefinition
+     * @param injectionPlan
+     * @return
+     */
+    private Object doCreateBean(BeanDefinition beanDefinition, InjectionPlan injectionPlan) throws BeansException {
+        Object obj;
+        try {
+            obj = injectionPlan.getInstantiator().instantiate();
+        } catch (Throwable e) {
+            throw new BeansException("Error creating bean for ID: " + beanDefinition.getId()
+                    + ", Class: " + beanDefinition.getClassName(), unwrap(e));
+        }
         return obj;
     }
 
-    private void handleProperties(BeanDefinition beanDefinition, Class<?> clz, Object obj) {
+    private void handleProperties(BeanDefinition beanDefinition, InjectionPlan injectionPlan, Object obj)
+            throws BeansException {
         // process property
         logger.debug("Starting to handle properties for bean ID: {} ", beanDefinition.getId());
-        PropertyValues propertyValues = beanDefinition.getPropertyValues();
-
-        if (!propertyValues.isEmpty()) {
-            for (int i = 0; i < propertyValues.size(); i++) {
-                PropertyValue propertyValue = propertyValues.getPropertyValues().get(i);
-                String pName = propertyValue.getName();
-                String pType = propertyValue.getType();
-                Object pValue = propertyValue.getValue();
-                boolean isRef = propertyValue.isRef();
-
-                logger.debug("Processing property - Name: " + pName + ", Type: " + pType + ", Value: " + pValue + ", isRef: " + isRef);
-
-                Class<?>[] paramTypes = new Class<?>[1];
-                Object[] paramValues = new Object[1];
-
-                if (!isRef) {
-                    switch (pType) {
-                        case "String":
-                        case "java.lang.String":
-                        default:
-                            paramTypes[0] = String.class;
-                            break;
-
-                        case "Integer":
-                        case "java.lang.Integer":
-                            paramTypes[0] = Integer.class;
-                            break;
-
-                        case "int":
-                            paramTypes[0] = int.class;
-                            break;
-                    }
-                    paramValues[0] = pValue;
-                } else {
-                    // is ref, create dependent beans
-                    logger.debug("Handling reference type for property: " + pName + ", referring to bean ID: " + pValue);
-                    try {
-                        paramTypes[0] = Class.forName(pType);
-                    } catch (ClassNotFoundException e) {
-                        logger.error("Class not found for property: " + pName + ", Type: " + pType, e);
+        injectProperties(beanDefinition, injectionPlan, obj);
+        logger.debug("Completed handling properties for bean ID: {}", beanDefinition.getId());
+    }
 
-                    }
+    /**
+     * Creates a prototype or scoped instance: only instantiation and injection, without touching the singleton caches.
+     * Prototypes referencing each other in a cycle can not be resolved and end in a StackOverflowError.
+     *
+     * @param beanDefinition
+     * @return
+     * @throws BeansException
+     */
+    private Object createPrototype(BeanDefinition beanDefinition) throws BeansException {
+        StartupStep createStep = this.applicationStartup.start("minis.beans.create").tag("beanName", beanDefinition.getId());
+        try {
+            InjectionPlan injectionPlan;
+            Object obj;
+            StartupStep instantiateStep = this.applicationStartup.start("minis.beans.instantiate");
+            try {
+                injectionPlan = getInjectionPlan(beanDefinition);
+                obj = doCreateBean(beanDefinition, injectionPlan);
+            } finally {
+                instantiateStep.end();
+            }
+            StartupStep injectStep = this.applicationStartup.start("minis.beans.inject");
+            try {
+                injectProperties(beanDefinition, injectionPlan, obj);
+            } finally {
+                injectStep.end();
+            }
+            return initializeBean(beanDefinition, obj);
+        } finally {
+            createStep.end();
+        }
+    }
 
-                    try {
-                        paramValues[0] = getBean((String) pValue);
-                    } catch (BeansException e) {
-                        logger.error("Bean exception occurred for reference: " + pValue, e);
-                    }
-                }
-                // Look up the setter method according to the setXxxx specification and call the setter method to set the property
-                String methodName = "set" + pName.substring(0, 1).toUpperCase() + pName.substring(1);
-                logger.debug("Looking up setter method: " + methodName + " for property: " + pName);
+    /**
+     * Replays the property injections of the plan on the given instance.
+     * A reference or setter that fails fails the creation, whatever the scope, rather than handing out a half
+     * wired instance: a prototype, pooled or scoped instance is used just like a singleton.
+     *
+     * @param beanDefinition
+     * @param injectionPlan
+     * @param obj
+     * @throws BeansException when a reference can not be resolved or does not fit its property, or a setter fails
+     */
+    private void injectProperties(BeanDefinition beanDefinition, InjectionPlan injectionPlan, Object obj)
+            throws BeansException {
+        for (InjectionPlan.PropertyInjection propertyInjection : injectionPlan.getPropertyInjections()) {
+            Object pValue = propertyInjection.getValue();
 
-                Method method = null;
+            if (propertyInjection.isRef()) {
+                // is ref, create dependent beans
                 try {
-                    assert clz != null;
-                    method = clz.getMethod(methodName, paramTypes);
-                } catch (NoSuchMethodException | SecurityException e) {
-                    logger.error(e);
+                    pValue = resolveReference((String) pValue, propertyInjection.getType());
+                } catch (BeansException e) {
+                    throw new BeansException("Can not resolve reference '" + pValue + "' of property "
+                            + propertyInjection.getName() + " of bean '" + beanDefinition.getId() + "'", e);
                 }
-                try {
-                    assert method != null;
-                    method.invoke(obj, paramValues);
-                    logger.debug("Property " + pName + " set successfully using method: " + methodName);
-                } catch (InvocationTargetException | IllegalAccessException e) {
-                    logger.error("Error setting property " + pName + " using method: " + methodName, e);
+                if (pValue != null && !propertyInjection.getType().isInstance(pValue)) {
+                    // typically a proxy, which only implements the interfaces of the referenced bean
+                    throw new BeansException("Bean '" + propertyInjection.getValue() + "' is a "
+                            + pValue.getClass().getName() + ", which does not fit property "
+                            + propertyInjection.getName() + " of type " + propertyInjection.getType().getName()
+                            + " of bean '" + beanDefinition.getId() + "'");
                 }
             }
+
+            // call the resolved setter method to set the property
+            try {
+                propertyInjection.getPropertySetter().set(obj, pValue);
+            } catch (Throwable e) {
+                throw new BeansException("Error setting property " + propertyInjection.getName() + " of bean '"
+                        + beanDefinition.getId() + "' using method " + propertyInjection.getSetter().getName(), unwrap(e));
+            }
         }
-        logger.debug("Completed handling properties for bean ID: " + beanDefinition.getId());
-    }
-
-//    /**
-//     * Initial implementation of getBean()
-//     * @param beanName
-//     * @return
-//     * @throws BeansException
-//     */
-//    @Override
-//    public Object getBean(String beanName) throws BeansException {
-//        // try to get bean instance
-//        Object singleton = this.getSingleton(beanName);
-//        // if not found bean instance, get its BeanDefinition to instantiate
-//        if (singleton == null) {
-//            BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
-//            if (beanDefinition == null) {
-//                throw new BeansException(String.format("Bean name [%s] not found", beanName));
-//            }
-//
-//            try {
-//                singleton = Class.forName(beanDefinition.getClassName()).getDeclaredConstructor().newInstance();
-//            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | NoSuchMethodException |
-//                     InvocationTargetException e) {
-//                e.printStackTrace();
-//            }
-//
-//            // register the new bean instance
-//            this.registerSingleton(beanName, singleton);
-//        }
-//        return singleton;
-//    }
+    }
+
+    private Object resolveReference(String beanName, Class<?> type) throws BeansException {
+        if (this.lazyResolutionProxies && type.isInterface() && !this.singletonObjects.containsKey(beanName)) {
+            BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+            if (beanDefinition != null && beanDefinition.isLazyInit()) {
+                return LazyResolutionProxy.create(this, beanName, type);
+            }
+        }
+        return getBean(beanName);
+    }
+
+    private static final class EarlyReference {
+        final Object bean;
+        final Object reference;
+
+        EarlyReference(Object bean, Object reference) {
+            this.bean = bean;
+            this.reference = reference;
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof InvocationTargetException ? ((InvocationTargetException) e).getTargetException() : e;
+    }
 }
@@ -0,0 +1,20 @@
+package org.minis.beans.factory.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * The default strategy, calling constructors and setters through reflection.
+ */
+public class SimpleInstantiationStrategy implements InstantiationStrategy {
+
+    @Override
+    public BeanInstantiator createInstantiator(Constructor<?> constructor, Object[] arguments) {
+        return () -> constructor.newInstance(arguments);
+    }
+
+    @Override
+    public PropertySetter createPropertySetter(Method setter) {
+        return (bean, value) -> setter.invoke(bean, value);
+    }
+}
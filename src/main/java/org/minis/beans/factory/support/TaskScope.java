@@ -0,0 +1,153 @@
+package org.minis.beans.factory.support;
+
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.ObjectFactory;
+import org.minis.beans.factory.config.Scope;
+
+import java.util.concurrent.Callable;
+
+/**
+ * One instance of a bean per task, registered as {@value #SCOPE_NAME} by default. A task is an explicit
+ * {@link Context} with a deterministic end:
+ * <pre>
+ * TaskScope taskScope = (TaskScope) beanFactory.getRegisteredScope(TaskScope.SCOPE_NAME);
+ * try (TaskScope.Context task = taskScope.open()) {
+ *     executor.submit(task.wrap(subtask));   // subtasks on other threads see the same instances
+ *     ...
+ * }                                          // instances dropped, destruction callbacks run
+ * </pre>
+ * A context is bound to a thread only while the task or a wrapped subtask runs on it, and unbound in a finally
+ * block, so no thread, pooled or virtual, keeps a reference to it afterwards. This is the binding a
+ * {@code ScopedValue} would give on JDK 21+. Lookups are a thread local read and a map read, tasks share no state.
+ */
+public class TaskScope implements Scope {
+    public static final String SCOPE_NAME = "task";
+
+    private final ThreadLocal<Context> currentContext = new ThreadLocal<>();
+
+    /**
+     * Starts a task on the calling thread, nested in the current one if there is one.
+     * The task ends with {@link Context#close()}, which has to be called on the same thread.
+     *
+     * @return
+     */
+    public Context open() {
+        Context context = new Context(this.currentContext.get());
+        this.currentContext.set(context);
+        return context;
+    }
+
+    /**
+     * Runs the callable as a task of its own
+     *
+     * @param task
+     * @param <V>
+     * @return
+     * @throws Exception
+     */
+    public <V> V call(Callable<V> task) throws Exception {
+        Context context = open();
+        try {
+            return task.call();
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * @return the task of the calling thread, or null
+     */
+    public Context getCurrentContext() {
+        return this.currentContext.get();
+    }
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) throws BeansException {
+        return requireContext(name).objects.get(name, objectFactory);
+    }
+
+    @Override
+    public Object remove(String name) {
+        Context context = this.currentContext.get();
+        return context == null ? null : context.objects.remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        requireContext(name).objects.registerDestructionCallback(name, callback);
+    }
+
+    private Context requireContext(String name) {
+        Context context = this.currentContext.get();
+        if (context == null) {
+            throw new IllegalStateException("No task is active on thread " + Thread.currentThread().getName()
+                    + " for task scoped bean '" + name + "'");
+        }
+        return context;
+    }
+
+    private void bind(Context context) {
+        if (context == null) {
+            this.currentContext.remove();
+        } else {
+            this.currentContext.set(context);
+        }
+    }
+
+    /**
+     * The instances of one task
+     */
+    public final class Context implements AutoCloseable {
+        private final Context parent;
+        private final ScopedObjects objects = new ScopedObjects();
+
+        private Context(Context parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * @param subtask
+         * @return a runnable running the subtask within this task, on whatever thread it is run
+         */
+        public Runnable wrap(Runnable subtask) {
+            return () -> {
+                Context previous = currentContext.get();
+                currentContext.set(this);
+                try {
+                    subtask.run();
+                } finally {
+                    bind(previous);
+                }
+            };
+        }
+
+        /**
+         * @param subtask
+         * @param <V>
+         * @return a callable calling the subtask within this task, on whatever thread it is called
+         */
+        public <V> Callable<V> wrap(Callable<V> subtask) {
+            return () -> {
+                Context previous = currentContext.get();
+                currentContext.set(this);
+                try {
+                    return subtask.call();
+                } finally {
+                    bind(previous);
+                }
+            };
+        }
+
+        /**
+         * Ends the task: restores the enclosing task on the calling thread, drops the instances and runs their
+         * destruction callbacks. Subtasks still running afterwards can not create instances anymore.
+         */
+        @Override
+        public void close() {
+            if (currentContext.get() == this) {
+                bind(this.parent);
+            }
+            this.objects.destroy();
+        }
+    }
+}
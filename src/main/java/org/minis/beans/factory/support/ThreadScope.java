@@ -0,0 +1,55 @@
+package org.minis.beans.factory.support;
+
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.ObjectFactory;
+import org.minis.beans.factory.config.Scope;
+
+/**
+ * One instance of a bean per thread, registered as {@value #SCOPE_NAME} by default.
+ * <p>
+ * The instances live in a thread local, which is only set on threads that use the scope. A virtual thread takes
+ * its instances along when it ends. A pooled thread keeps them until {@link #end()} is called on it, which also runs
+ * the destruction callbacks; a request running on a pooled thread should end the scope when it completes, or use
+ * a {@link TaskScope} instead.
+ */
+public class ThreadScope implements Scope {
+    public static final String SCOPE_NAME = "thread";
+
+    private final ThreadLocal<ScopedObjects> threadObjects = new ThreadLocal<>();
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) throws BeansException {
+        ScopedObjects objects = this.threadObjects.get();
+        if (objects == null) {
+            objects = new ScopedObjects();
+            this.threadObjects.set(objects);
+        }
+        return objects.get(name, objectFactory);
+    }
+
+    @Override
+    public Object remove(String name) {
+        ScopedObjects objects = this.threadObjects.get();
+        return objects == null ? null : objects.remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        ScopedObjects objects = this.threadObjects.get();
+        if (objects != null) {
+            objects.registerDestructionCallback(name, callback);
+        }
+    }
+
+    /**
+     * Ends the scope on the calling thread: drops its instances, runs their destruction callbacks and clears
+     * the thread local. The next lookup on the thread starts a new scope.
+     */
+    public void end() {
+        ScopedObjects objects = this.threadObjects.get();
+        if (objects != null) {
+            this.threadObjects.remove();
+            objects.destroy();
+        }
+    }
+}
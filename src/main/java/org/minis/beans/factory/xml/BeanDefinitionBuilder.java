@@ -0,0 +1,128 @@
+package org.minis.beans.factory.xml;
+
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.config.CacheConfig;
+import org.minis.beans.factory.config.ConstructorArgumentValue;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PoolConfig;
+import org.minis.beans.factory.config.PropertyValue;
+import org.minis.beans.factory.config.PropertyValues;
+import org.minis.core.convert.DefaultConversionService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the attribute values of one &lt;bean&gt; element and its children into a {@link BeanDefinition},
+ * so that the DOM based and the streaming reader share the exact same element and attribute semantics.
+ */
+final class BeanDefinitionBuilder {
+    private final BeanDefinition beanDefinition;
+    private final ConstructorArgumentValues argumentValues = new ConstructorArgumentValues();
+    private final PropertyValues propertyValues = new PropertyValues();
+    private final List<String> refs = new ArrayList<>();
+    private final List<CacheConfig> cacheConfigs = new ArrayList<>();
+
+    BeanDefinitionBuilder(String beanId, String beanClassName) {
+        this.beanDefinition = new BeanDefinition(beanId, beanClassName);
+    }
+
+    void scope(String scope) {
+        if (scope != null && !scope.isEmpty()) {
+            this.beanDefinition.setScope(scope);
+        }
+    }
+
+    /**
+     * @param lazyInit        the bean's lazy-init attribute
+     * @param defaultLazyInit the default-lazy-init attribute of &lt;beans&gt;, used when lazy-init is
+     *                        missing or "default"
+     */
+    void lazyInit(String lazyInit, String defaultLazyInit) {
+        if (lazyInit == null || lazyInit.isEmpty() || "default".equals(lazyInit)) {
+            lazyInit = defaultLazyInit;
+        }
+        this.beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
+    }
+
+    /**
+     * @param initMethod the bean's init-method attribute, a public no-arg method called once the bean is injected
+     */
+    void initMethod(String initMethod) {
+        if (!isEmpty(initMethod)) {
+            this.beanDefinition.setInitMethodName(initMethod.trim());
+        }
+    }
+
+    /**
+     * Process the &lt;pool&gt; tag of a pooled bean, a missing attribute keeps its {@link PoolConfig#DEFAULT default}.
+     * Durations are written like 500ms, 30s or PT1M, see {@link DefaultConversionService#parseDuration(String)}.
+     */
+    void pool(String minSize, String maxSize, String idleTimeout, String maxWait) {
+        PoolConfig defaults = PoolConfig.DEFAULT;
+        try {
+            this.beanDefinition.setPoolConfig(new PoolConfig(
+                    isEmpty(minSize) ? defaults.getMinSize() : Integer.parseInt(minSize.trim()),
+                    isEmpty(maxSize) ? defaults.getMaxSize() : Integer.parseInt(maxSize.trim()),
+                    isEmpty(idleTimeout) ? defaults.getIdleTimeout() : DefaultConversionService.parseDuration(idleTimeout),
+                    isEmpty(maxWait) ? defaults.getMaxWait() : DefaultConversionService.parseDuration(maxWait)));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new RuntimeException("Invalid <pool> of bean " + this.beanDefinition.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Process a &lt;cache&gt; tag, caching the results of the bean's interface methods of the given name.
+     * Without max-size {@link CacheConfig#DEFAULT_MAX_SIZE} entries are kept, without time-to-live they are kept
+     * until evicted.
+     */
+    void cache(String method, String name, String maxSize, String timeToLive, String weigher) {
+        try {
+            this.cacheConfigs.add(new CacheConfig(isEmpty(method) ? null : method.trim(),
+                    isEmpty(name) ? null : name.trim(),
+                    isEmpty(maxSize) ? CacheConfig.DEFAULT_MAX_SIZE : Long.parseLong(maxSize.trim()),
+                    isEmpty(timeToLive) ? null : DefaultConversionService.parseDuration(timeToLive),
+                    isEmpty(weigher) ? null : weigher.trim()));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new RuntimeException("Invalid <cache> of bean " + this.beanDefinition.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // process <constructor-arg>: in beans.xml
+    void constructorArgument(String aType, String aName, String aValue) {
+        this.argumentValues.addArgumentValue(new ConstructorArgumentValue(aType, aName, aValue));
+    }
+
+    // process <property> tag in beans.xml
+    void property(String pType, String pName, String pValue, String pRef) {
+        String pV = "";
+        boolean isRef = false;
+
+        if (pValue != null && !pValue.isEmpty()) {
+            pV = pValue;
+        } else if (pRef != null && !pRef.isEmpty()) {
+            isRef = true;
+            pV = pRef;
+            this.refs.add(pRef);
+        }
+        this.propertyValues.addPropertyValue(new PropertyValue(pType, pName, pV, isRef));
+    }
+
+    BeanDefinition build() {
+        if (this.beanDefinition.getPoolConfig() != null && !this.beanDefinition.isPooled()) {
+            throw new RuntimeException("Bean " + this.beanDefinition.getId() + " has a <pool> but is not of scope "
+                    + BeanDefinition.SCOPE_POOLED);
+        }
+        // mutable until the definition is frozen, which shares the empty ones then
+        this.beanDefinition.setConstructorArgumentValues(this.argumentValues);
+        this.beanDefinition.setPropertyValues(this.propertyValues);
+        this.beanDefinition.setCacheConfigs(this.cacheConfigs);
+        this.beanDefinition.setDependsOn(this.refs.isEmpty() ? BeanDefinition.NO_DEPENDS_ON
+                : this.refs.toArray(new String[0]));
+        return this.beanDefinition;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,426 @@
+package org.minis.beans.factory.xml;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.config.CacheConfig;
+import org.minis.beans.factory.config.ConstructorArgumentValue;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PoolConfig;
+import org.minis.beans.factory.config.PropertyValue;
+import org.minis.beans.factory.config.PropertyValues;
+import org.minis.beans.factory.support.BeanDefinitionRegistry;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A compact binary copy of a parsed registry, so that the next start can skip XML parsing.
+ * <p>
+ * Layout, all integers big endian:
+ * <pre>
+ * header      magic, version, CRC32 of the source XML (long), string count, bean count,
+ *             constructor argument count, property count, depends-on count, pool count, cache count
+ * strings     length + UTF-8 bytes for every distinct string, referenced by index, -1 meaning null
+ * beans       fixed-width records: id, class name, scope, lazy-init,
+ *             first and count of constructor arguments, properties and depends-on entries, pool or -1,
+ *             first and count of caches, init method
+ * arguments   fixed-width records: type, name, value
+ * properties  fixed-width records: type, name, value, isRef
+ * depends-on  bean name indexes
+ * pools       fixed-width records: min size, max size, idle timeout and max wait in nanoseconds (long, -1 meaning none)
+ * caches      fixed-width records: method, cache name, weigher, max size (long), time to live in nanoseconds (long)
+ * </pre>
+ * The file is read through a memory-mapped {@link FileChannel}. It is only used while the checksum still
+ * matches the XML file; otherwise the caller parses the XML again and rewrites the snapshot. A file holding a
+ * {@code <component-scan>} is neither read from nor written to a snapshot, as the scanned components change with
+ * the class path while the XML stays the same.
+ */
+public final class BeanDefinitionSnapshot {
+    private static final int MAGIC = 0x4D494E53;
+    private static final int VERSION = 4;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 * 7;
+    private static final int BEAN_RECORD_INTS = 14;
+    private static final int ARGUMENT_RECORD_INTS = 3;
+    private static final int PROPERTY_RECORD_INTS = 4;
+    private static final int POOL_RECORD_BYTES = 4 + 4 + 8 + 8;
+    private static final int CACHE_RECORD_BYTES = 4 + 4 + 4 + 8 + 8;
+
+    private static final Duration MAX_NANOS = Duration.ofNanos(Long.MAX_VALUE);
+
+    private static final Logger logger = LogManager.getLogger(BeanDefinitionSnapshot.class);
+
+    private BeanDefinitionSnapshot() {
+    }
+
+    /**
+     * Build-time entry point: {@code BeanDefinitionSnapshot <config file on the class path> <snapshot directory>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BeanDefinitionSnapshot <config file> <snapshot directory>");
+            System.exit(1);
+        }
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        loadBeanDefinitions(args[0], Paths.get(args[1]), beanFactory);
+    }
+
+    /**
+     * Loads the bean definitions of a class path XML file, from its snapshot in the given directory when
+     * that is still current, otherwise from the XML, writing a fresh snapshot afterwards. A file mentioning
+     * {@code component-scan} anywhere is always parsed, and a snapshot left from an earlier version of it deleted.
+     *
+     * @param fileName    the config file on the class path
+     * @param snapshotDir the directory holding the snapshots
+     * @param beanFactory the factory to register into, expected to be empty
+     */
+    public static void loadBeanDefinitions(String fileName, Path snapshotDir, SimpleBeanFactory beanFactory) {
+        URL xmlPath = BeanDefinitionSnapshot.class.getClassLoader().getResource(fileName);
+        if (xmlPath == null) {
+            throw new RuntimeException("Config file " + fileName + " not found on the class path");
+        }
+        Path snapshotFile = snapshotDir.resolve(fileName.replace('/', '_') + ".snapshot");
+        try {
+            byte[] xml = readAllBytes(xmlPath);
+            if (scansComponents(xml)) {
+                Files.deleteIfExists(snapshotFile);
+                new StreamingXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new ByteArrayInputStream(xml));
+                logger.debug("{} scans components, loaded without snapshot", fileName);
+                return;
+            }
+            long checksum = checksum(xml);
+            if (read(snapshotFile, checksum, beanFactory)) {
+                logger.debug("Loaded bean definitions of {} from snapshot {}", fileName, snapshotFile);
+                return;
+            }
+            new StreamingXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new ByteArrayInputStream(xml));
+            List<BeanDefinition> beanDefinitions = new ArrayList<>();
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                beanDefinitions.add(beanFactory.getBeanDefinition(beanName));
+            }
+            write(snapshotFile, checksum, beanDefinitions);
+            logger.debug("Wrote snapshot {} for {}", snapshotFile, fileName);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static long checksum(URL xmlPath) throws IOException {
+        return checksum(readAllBytes(xmlPath));
+    }
+
+    private static long checksum(byte[] xml) {
+        CRC32 crc = new CRC32();
+        crc.update(xml, 0, xml.length);
+        return crc.getValue();
+    }
+
+    /**
+     * Errs on the safe side: a comment mentioning the element also counts
+     */
+    private static boolean scansComponents(byte[] xml) {
+        return new String(xml, StandardCharsets.UTF_8).contains(StreamingXmlBeanDefinitionReader.COMPONENT_SCAN_ELEMENT);
+    }
+
+    private static byte[] readAllBytes(URL xmlPath) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream inputStream = xmlPath.openStream()) {
+            int n;
+            while ((n = inputStream.read(buffer)) > 0) {
+                outputStream.write(buffer, 0, n);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Registers the definitions stored in the snapshot.
+     *
+     * @return false, with nothing registered, when the file is missing, of another version or
+     * was written for a different XML content
+     */
+    public static boolean read(Path snapshotFile, long expectedChecksum, BeanDefinitionRegistry registry)
+            throws IOException {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != expectedChecksum) {
+                return false;
+            }
+            int stringCount = buffer.getInt();
+            int beanCount = buffer.getInt();
+            int argumentCount = buffer.getInt();
+            int propertyCount = buffer.getInt();
+            int dependsOnCount = buffer.getInt();
+            int poolCount = buffer.getInt();
+            buffer.getInt();
+
+            String[] strings = new String[stringCount];
+            byte[] bytes = new byte[64];
+            for (int i = 0; i < stringCount; i++) {
+                int length = buffer.getInt();
+                if (bytes.length < length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+
+            // the record sections are fixed-width, so each one can be addressed directly
+            int beansStart = buffer.position();
+            int argumentsStart = beansStart + beanCount * BEAN_RECORD_INTS * 4;
+            int propertiesStart = argumentsStart + argumentCount * ARGUMENT_RECORD_INTS * 4;
+            int dependsOnStart = propertiesStart + propertyCount * PROPERTY_RECORD_INTS * 4;
+            int poolsStart = dependsOnStart + dependsOnCount * 4;
+            int cachesStart = poolsStart + poolCount * POOL_RECORD_BYTES;
+
+            for (int b = 0; b < beanCount; b++) {
+                int record = beansStart + b * BEAN_RECORD_INTS * 4;
+                BeanDefinition beanDefinition = new BeanDefinition(string(strings, buffer.getInt(record)),
+                        string(strings, buffer.getInt(record + 4)));
+                beanDefinition.setScope(string(strings, buffer.getInt(record + 8)));
+                beanDefinition.setLazyInit(buffer.getInt(record + 12) != 0);
+                beanDefinition.setInitMethodName(string(strings, buffer.getInt(record + 52)));
+
+                int firstArgument = buffer.getInt(record + 16);
+                int beanArgumentCount = buffer.getInt(record + 20);
+                ConstructorArgumentValues argumentValues = new ConstructorArgumentValues();
+                for (int a = 0; a < beanArgumentCount; a++) {
+                    int argument = argumentsStart + (firstArgument + a) * ARGUMENT_RECORD_INTS * 4;
+                    argumentValues.addArgumentValue(new ConstructorArgumentValue(string(strings, buffer.getInt(argument)),
+                            string(strings, buffer.getInt(argument + 4)), string(strings, buffer.getInt(argument + 8))));
+                }
+                beanDefinition.setConstructorArgumentValues(argumentValues);
+
+                int firstProperty = buffer.getInt(record + 24);
+                int beanPropertyCount = buffer.getInt(record + 28);
+                PropertyValues propertyValues = new PropertyValues();
+                for (int p = 0; p < beanPropertyCount; p++) {
+                    int property = propertiesStart + (firstProperty + p) * PROPERTY_RECORD_INTS * 4;
+                    propertyValues.addPropertyValue(new PropertyValue(string(strings, buffer.getInt(property)),
+                            string(strings, buffer.getInt(property + 4)), string(strings, buffer.getInt(property + 8)),
+                            buffer.getInt(property + 12) != 0));
+                }
+                beanDefinition.setPropertyValues(propertyValues);
+
+                int firstDependsOn = buffer.getInt(record + 32);
+                int beanDependsOnCount = buffer.getInt(record + 36);
+                String[] dependsOn = beanDependsOnCount == 0 ? BeanDefinition.NO_DEPENDS_ON : new String[beanDependsOnCount];
+                for (int d = 0; d < dependsOn.length; d++) {
+                    dependsOn[d] = string(strings, buffer.getInt(dependsOnStart + (firstDependsOn + d) * 4));
+                }
+                beanDefinition.setDependsOn(dependsOn);
+
+                int pool = buffer.getInt(record + 40);
+                if (pool >= 0) {
+                    int poolRecord = poolsStart + pool * POOL_RECORD_BYTES;
+                    beanDefinition.setPoolConfig(new PoolConfig(buffer.getInt(poolRecord), buffer.getInt(poolRecord + 4),
+                            duration(buffer.getLong(poolRecord + 8)), duration(buffer.getLong(poolRecord + 16))));
+                }
+
+                int firstCache = buffer.getInt(record + 44);
+                int beanCacheCount = buffer.getInt(record + 48);
+                if (beanCacheCount > 0) {
+                    List<CacheConfig> cacheConfigs = new ArrayList<>(beanCacheCount);
+                    for (int c = 0; c < beanCacheCount; c++) {
+                        int cacheRecord = cachesStart + (firstCache + c) * CACHE_RECORD_BYTES;
+                        cacheConfigs.add(new CacheConfig(string(strings, buffer.getInt(cacheRecord)),
+                                string(strings, buffer.getInt(cacheRecord + 4)), buffer.getLong(cacheRecord + 12),
+                                duration(buffer.getLong(cacheRecord + 20)), string(strings, buffer.getInt(cacheRecord + 8))));
+                    }
+                    beanDefinition.setCacheConfigs(cacheConfigs);
+                }
+
+                registry.registerBeanDefinition(beanDefinition.getId(), beanDefinition);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first and moves it in place, so a concurrently starting JVM
+     * never maps a half written file. Definitions holding non-string literal values are not supported,
+     * in that case no snapshot is written.
+     */
+    public static void write(Path snapshotFile, long checksum, List<BeanDefinition> beanDefinitions) throws IOException {
+        StringTable strings = new StringTable();
+        List<int[]> beans = new ArrayList<>(beanDefinitions.size());
+        List<int[]> arguments = new ArrayList<>();
+        List<int[]> properties = new ArrayList<>();
+        List<Integer> dependsOns = new ArrayList<>();
+        List<PoolConfig> pools = new ArrayList<>();
+        List<CacheConfig> caches = new ArrayList<>();
+
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            int firstArgument = arguments.size();
+            ConstructorArgumentValues argumentValues = beanDefinition.getConstructorArgumentValues();
+            int argumentCount = argumentValues == null ? 0 : argumentValues.getArgumentCount();
+            for (int a = 0; a < argumentCount; a++) {
+                ConstructorArgumentValue argumentValue = argumentValues.getIndexedArgumentValue(a);
+                if (!isStringOrNull(argumentValue.getValue())) {
+                    logger.debug("Bean {} holds a non-string argument, no snapshot written", beanDefinition.getId());
+                    return;
+                }
+                arguments.add(new int[]{strings.index(argumentValue.getType()), strings.index(argumentValue.getName()),
+                        strings.index((String) argumentValue.getValue())});
+            }
+
+            int firstProperty = properties.size();
+            PropertyValues propertyValues = beanDefinition.getPropertyValues();
+            List<PropertyValue> propertyList = propertyValues == null ? new ArrayList<>() : propertyValues.getPropertyValues();
+            for (PropertyValue propertyValue : propertyList) {
+                if (!isStringOrNull(propertyValue.getValue())) {
+                    logger.debug("Bean {} holds a non-string property, no snapshot written", beanDefinition.getId());
+                    return;
+                }
+                properties.add(new int[]{strings.index(propertyValue.getType()), strings.index(propertyValue.getName()),
+                        strings.index((String) propertyValue.getValue()), propertyValue.isRef() ? 1 : 0});
+            }
+
+            int firstDependsOn = dependsOns.size();
+            String[] dependsOn = beanDefinition.getDependsOn() == null ? new String[0] : beanDefinition.getDependsOn();
+            for (String name : dependsOn) {
+                dependsOns.add(strings.index(name));
+            }
+
+            int pool = -1;
+            if (beanDefinition.getPoolConfig() != null) {
+                pool = pools.size();
+                pools.add(beanDefinition.getPoolConfig());
+            }
+
+            int firstCache = caches.size();
+            for (CacheConfig cache : beanDefinition.getCacheConfigs()) {
+                // indexed now, the string table is sized and written before the cache records
+                strings.index(cache.getMethodName());
+                strings.index(cache.getCacheName());
+                strings.index(cache.getWeigherClassName());
+                caches.add(cache);
+            }
+
+            beans.add(new int[]{strings.index(beanDefinition.getId()), strings.index(beanDefinition.getClassName()),
+                    strings.index(beanDefinition.getScope()), beanDefinition.isLazyInit() ? 1 : 0,
+                    firstArgument, argumentCount, firstProperty, propertyList.size(), firstDependsOn, dependsOn.length, pool,
+                    firstCache, beanDefinition.getCacheConfigs().size(), strings.index(beanDefinition.getInitMethodName())});
+        }
+
+        int size = HEADER_BYTES + strings.byteSize()
+                + 4 * (beans.size() * BEAN_RECORD_INTS + arguments.size() * ARGUMENT_RECORD_INTS
+                + properties.size() * PROPERTY_RECORD_INTS + dependsOns.size()) + pools.size() * POOL_RECORD_BYTES
+                + caches.size() * CACHE_RECORD_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(checksum)
+                .putInt(strings.values.size()).putInt(beans.size()).putInt(arguments.size())
+                .putInt(properties.size()).putInt(dependsOns.size()).putInt(pools.size()).putInt(caches.size());
+        for (byte[] value : strings.values) {
+            buffer.putInt(value.length).put(value);
+        }
+        putRecords(buffer, beans);
+        putRecords(buffer, arguments);
+        putRecords(buffer, properties);
+        for (int value : dependsOns) {
+            buffer.putInt(value);
+        }
+        for (PoolConfig pool : pools) {
+            buffer.putInt(pool.getMinSize()).putInt(pool.getMaxSize())
+                    .putLong(nanos(pool.getIdleTimeout())).putLong(nanos(pool.getMaxWait()));
+        }
+        for (CacheConfig cache : caches) {
+            buffer.putInt(strings.index(cache.getMethodName())).putInt(strings.index(cache.getCacheName()))
+                    .putInt(strings.index(cache.getWeigherClassName()))
+                    .putLong(cache.getMaxSize()).putLong(nanos(cache.getTimeToLive()));
+        }
+        buffer.flip();
+
+        Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+        Path tempFile = Files.createTempFile(snapshotFile.toAbsolutePath().getParent(),
+                snapshotFile.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void putRecords(ByteBuffer buffer, List<int[]> records) {
+        for (int[] record : records) {
+            for (int value : record) {
+                buffer.putInt(value);
+            }
+        }
+    }
+
+    private static boolean isStringOrNull(Object value) {
+        return value == null || value instanceof String;
+    }
+
+    /**
+     * @return the duration in nanoseconds, -1 for null; durations beyond 292 years are capped
+     */
+    private static long nanos(Duration duration) {
+        if (duration == null) {
+            return -1;
+        }
+        return duration.compareTo(MAX_NANOS) > 0 ? Long.MAX_VALUE : duration.toNanos();
+    }
+
+    private static Duration duration(long nanos) {
+        return nanos < 0 ? null : Duration.ofNanos(nanos);
+    }
+
+    private static String string(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    /**
+     * Deduplicates the strings of the snapshot, a type name like java.lang.String is stored once.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private int byteSize;
+
+        int index(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                values.add(bytes);
+                byteSize += 4 + bytes.length;
+                indexes.put(value, index);
+            }
+            return index;
+        }
+
+        int byteSize() {
+            return byteSize;
+        }
+    }
+}
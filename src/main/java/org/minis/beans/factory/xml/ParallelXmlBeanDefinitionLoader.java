@@ -0,0 +1,267 @@
+package org.minis.beans.factory.xml;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.support.BeanDefinitionRegistry;
+import org.minis.core.io.ClassPathResourceResolver;
+import org.minis.core.metrics.ApplicationStartup;
+import org.minis.core.metrics.StartupStep;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads bean definitions from many XML files at once.
+ * <p>
+ * Every file is parsed by a {@link StreamingXmlBeanDefinitionReader} into a registry of its own, on a pool
+ * of at most {@link #setParallelism parallelism} threads, so the parsing time follows the largest file
+ * rather than the sum of all of them. The parsed definitions are then registered in the order of the
+ * locations, and of the files within a location, whatever the order the parses complete in.
+ * A bean id defined twice, in one file or across files, fails the whole load before anything is registered,
+ * except for a component found again by an overlapping {@code <component-scan>}: like in a single file, it is
+ * registered once.
+ */
+public class ParallelXmlBeanDefinitionLoader {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final BeanDefinitionRegistry registry;
+    private final ClassPathResourceResolver resourceResolver;
+    private final Logger logger = LogManager.getLogger(ParallelXmlBeanDefinitionLoader.class);
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    public ParallelXmlBeanDefinitionLoader(BeanDefinitionRegistry registry) {
+        this(registry, new ClassPathResourceResolver());
+    }
+
+    public ParallelXmlBeanDefinitionLoader(BeanDefinitionRegistry registry, ClassPathResourceResolver resourceResolver) {
+        this.registry = registry;
+        this.resourceResolver = resourceResolver;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism the maximum number of files parsed at the same time, the number of processors by default
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1, not " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
+    /**
+     * Records a "minis.beans.xml.parse" step per file, on the thread parsing it, and a
+     * "minis.beans.definitions.register" step for the merge.
+     *
+     * @param applicationStartup
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    /**
+     * @param locations file names or patterns, see {@link ClassPathResourceResolver}; a location without
+     *                  wildcards must exist, a pattern may match nothing
+     * @return the number of registered bean definitions
+     */
+    public int loadBeanDefinitions(String... locations) {
+        List<URL> xmlPaths = new ArrayList<>();
+        for (String location : locations) {
+            List<URL> resources;
+            try {
+                resources = this.resourceResolver.getResources(location);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to resolve config location " + location, e);
+            }
+            if (resources.isEmpty() && !ClassPathResourceResolver.isPattern(location)) {
+                throw new RuntimeException("Config file " + location + " not found on the class path");
+            }
+            xmlPaths.addAll(resources);
+        }
+        return loadBeanDefinitions(xmlPaths);
+    }
+
+    /**
+     * @param xmlPaths
+     * @return the number of registered bean definitions
+     */
+    public int loadBeanDefinitions(List<URL> xmlPaths) {
+        List<ParsedDefinitions> parsed = parse(xmlPaths);
+
+        StartupStep registerStep = this.applicationStartup.start("minis.beans.definitions.register");
+        try {
+            return register(parsed, xmlPaths.size());
+        } finally {
+            registerStep.end();
+        }
+    }
+
+    private int register(List<ParsedDefinitions> parsed, int fileCount) {
+        // check the merged result first, so a duplicate leaves the registry untouched
+        Map<String, BeanDefinition> merged = new LinkedHashMap<>();
+        Map<String, URL> sources = new HashMap<>();
+        for (ParsedDefinitions definitions : parsed) {
+            for (Map.Entry<String, BeanDefinition> entry : definitions.beanDefinitions.entrySet()) {
+                String beanName = entry.getKey();
+                URL previousSource = sources.get(beanName);
+                BeanDefinition previous = previousSource != null ? merged.get(beanName)
+                        : this.registry.getBeanDefinition(beanName);
+                if (previous == null) {
+                    merged.put(beanName, entry.getValue());
+                    sources.put(beanName, definitions.xmlPath);
+                } else if (definitions.scannedNames.contains(beanName)
+                        && previous.getClassName().equals(entry.getValue().getClassName())) {
+                    // the same component, as ClassPathBeanDefinitionScanner skips it within one file
+                    logger.debug("Component '{}' of {} is already defined, skipping it", beanName, definitions.xmlPath);
+                } else if (previousSource != null) {
+                    throw new RuntimeException("Bean id '" + beanName + "' of " + definitions.xmlPath
+                            + " is already defined in " + previousSource);
+                } else {
+                    throw new RuntimeException("Bean id '" + beanName + "' of " + definitions.xmlPath
+                            + " is already registered");
+                }
+            }
+        }
+
+        for (Map.Entry<String, BeanDefinition> entry : merged.entrySet()) {
+            this.registry.registerBeanDefinition(entry.getKey(), entry.getValue());
+        }
+        logger.debug("Registered {} bean definitions from {} files", merged.size(), fileCount);
+        return merged.size();
+    }
+
+    private List<ParsedDefinitions> parse(List<URL> xmlPaths) {
+        List<ParsedDefinitions> parsed = new ArrayList<>(xmlPaths.size());
+        if (xmlPaths.size() <= 1 || this.parallelism == 1) {
+            for (URL xmlPath : xmlPaths) {
+                parsed.add(parse(xmlPath));
+            }
+            return parsed;
+        }
+
+        int threads = Math.min(this.parallelism, xmlPaths.size());
+        ExecutorService executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "minis-xml-loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<ParsedDefinitions>> futures = new ArrayList<>(xmlPaths.size());
+            for (URL xmlPath : xmlPaths) {
+                futures.add(CompletableFuture.supplyAsync(() -> parse(xmlPath), executor));
+            }
+            for (CompletableFuture<ParsedDefinitions> future : futures) {
+                parsed.add(future.join());
+            }
+            return parsed;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ParsedDefinitions parse(URL xmlPath) {
+        long start = System.nanoTime();
+        StartupStep parseStep = this.applicationStartup.start("minis.beans.xml.parse").tag("location", xmlPath.toString());
+        ParsedDefinitions definitions = new ParsedDefinitions(xmlPath);
+        try {
+            StreamingXmlBeanDefinitionReader reader = new StreamingXmlBeanDefinitionReader(definitions);
+            reader.setComponentRegistry(definitions.components);
+            reader.loadBeanDefinitions(xmlPath);
+        } finally {
+            parseStep.tag("beanCount", String.valueOf(definitions.beanDefinitions.size())).end();
+        }
+        logger.debug("Parsed {} bean definitions from {} in {} ms", definitions.beanDefinitions.size(), xmlPath,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return definitions;
+    }
+
+    /**
+     * The definitions of one file, in document order
+     */
+    private static final class ParsedDefinitions implements BeanDefinitionRegistry {
+        private final URL xmlPath;
+        private final Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+        private final Set<String> scannedNames = new HashSet<>();
+        /**
+         * This registry, also recording which definitions are scanned components
+         */
+        private final BeanDefinitionRegistry components = new BeanDefinitionRegistry() {
+            @Override
+            public void registerBeanDefinition(String name, BeanDefinition beanDefinition) {
+                ParsedDefinitions.this.registerBeanDefinition(name, beanDefinition);
+                scannedNames.add(name);
+            }
+
+            @Override
+            public void removeBeanDefinition(String name) {
+                ParsedDefinitions.this.removeBeanDefinition(name);
+            }
+
+            @Override
+            public BeanDefinition getBeanDefinition(String name) {
+                return ParsedDefinitions.this.getBeanDefinition(name);
+            }
+
+            @Override
+            public boolean containsBeanDefinition(String name) {
+                return ParsedDefinitions.this.containsBeanDefinition(name);
+            }
+        };
+
+        ParsedDefinitions(URL xmlPath) {
+            this.xmlPath = xmlPath;
+        }
+
+        @Override
+        public void registerBeanDefinition(String name, BeanDefinition beanDefinition) {
+            if (this.beanDefinitions.putIfAbsent(name, beanDefinition) != null) {
+                throw new RuntimeException("Bean id '" + name + "' is defined twice in " + this.xmlPath);
+            }
+        }
+
+        @Override
+        public void removeBeanDefinition(String name) {
+            this.beanDefinitions.remove(name);
+            this.scannedNames.remove(name);
+        }
+
+        @Override
+        public BeanDefinition getBeanDefinition(String name) {
+            return this.beanDefinitions.get(name);
+        }
+
+        @Override
+        public boolean containsBeanDefinition(String name) {
+            return this.beanDefinitions.containsKey(name);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.minis.beans.factory.xml;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.support.BeanDefinitionRegistry;
+import org.minis.context.annotation.ClassPathBeanDefinitionScanner;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+/**
+ * Reads bean definitions with a StAX cursor instead of building a dom4j document first.
+ * <p>
+ * Each top-level element is turned into a {@link BeanDefinition} and registered as soon as its end tag
+ * is read, so only one bean element is held in memory at a time, whatever the size of the file.
+ * Elements and attributes have the same meaning as for {@link XmlBeanDefinitionReader}. A top-level
+ * {@code <component-scan base-package="..."/>} registers the {@code @Component} classes of the packages
+ * through a {@link ClassPathBeanDefinitionScanner}. Any other top-level element is rejected.
+ */
+public class StreamingXmlBeanDefinitionReader {
+    /**
+     * One factory per thread, as StAX does not require factories to be thread-safe and files may be read
+     * concurrently, see {@link ParallelXmlBeanDefinitionLoader}
+     */
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY =
+            ThreadLocal.withInitial(StreamingXmlBeanDefinitionReader::createInputFactory);
+
+    static final String BEAN_ELEMENT = "bean";
+    static final String COMPONENT_SCAN_ELEMENT = "component-scan";
+    static final String BASE_PACKAGE_ATTRIBUTE = "base-package";
+
+    private final BeanDefinitionRegistry registry;
+    private BeanDefinitionRegistry componentRegistry;
+    private final Logger logger = LogManager.getLogger(StreamingXmlBeanDefinitionReader.class);
+
+    public StreamingXmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
+        this.registry = registry;
+        this.componentRegistry = registry;
+    }
+
+    /**
+     * @param componentRegistry where the scanned components are registered, the registry of the reader by default
+     */
+    void setComponentRegistry(BeanDefinitionRegistry componentRegistry) {
+        this.componentRegistry = componentRegistry;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * @param fileName a resource name on the class path, like beans.xml
+     * @return the number of registered bean definitions
+     */
+    public int loadBeanDefinitions(String fileName) {
+        URL xmlPath = this.getClass().getClassLoader().getResource(fileName);
+        if (xmlPath == null) {
+            throw new RuntimeException("Config file " + fileName + " not found on the class path");
+        }
+        return loadBeanDefinitions(xmlPath);
+    }
+
+    public int loadBeanDefinitions(URL xmlPath) {
+        try (InputStream inputStream = xmlPath.openStream()) {
+            return loadBeanDefinitions(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public int loadBeanDefinitions(InputStream inputStream) {
+        logger.debug("Starting loadBeanDefinitions.");
+        int count = 0;
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.get().createXMLStreamReader(inputStream);
+            String defaultLazyInit = null;
+            BeanDefinitionBuilder builder = null;
+            int depth = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (depth == 1) {
+                        // <beans>
+                        defaultLazyInit = reader.getAttributeValue(null, "default-lazy-init");
+                    } else if (depth == 2 && COMPONENT_SCAN_ELEMENT.equals(reader.getLocalName())) {
+                        count += scanComponents(reader.getAttributeValue(null, BASE_PACKAGE_ATTRIBUTE));
+                    } else if (depth == 2 && BEAN_ELEMENT.equals(reader.getLocalName())) {
+                        builder = startBean(reader, defaultLazyInit);
+                    } else if (depth == 2) {
+                        throw unknownElement(reader.getLocalName());
+                    } else if (depth == 3 && builder != null) {
+                        readBeanChild(reader, builder);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == 2 && builder != null) {
+                        BeanDefinition beanDefinition = builder.build();
+                        this.registry.registerBeanDefinition(beanDefinition.getId(), beanDefinition);
+                        logger.debug("Registered BeanDefinition with id: {}", beanDefinition.getId());
+                        builder = null;
+                        count++;
+                    }
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    logger.warn("Failed to close XML stream", e);
+                }
+            }
+        }
+        logger.debug("Finished loadBeanDefinitions.");
+        return count;
+    }
+
+    static RuntimeException unknownElement(String elementName) {
+        return new RuntimeException("Unknown element <" + elementName + "> in <beans>, expected <" + BEAN_ELEMENT
+                + "> or <" + COMPONENT_SCAN_ELEMENT + ">");
+    }
+
+    /**
+     * @param basePackages the base-package attribute, packages separated by commas, semicolons or white space
+     * @return the number of registered components
+     */
+    private int scanComponents(String basePackages) {
+        if (basePackages == null || basePackages.trim().isEmpty()) {
+            throw new RuntimeException("<" + COMPONENT_SCAN_ELEMENT + "> needs a " + BASE_PACKAGE_ATTRIBUTE + " attribute");
+        }
+        return new ClassPathBeanDefinitionScanner(this.componentRegistry).scan(basePackages.trim().split("[,;\\s]+"));
+    }
+
+    private BeanDefinitionBuilder startBean(XMLStreamReader reader, String defaultLazyInit) {
+        String beanId = reader.getAttributeValue(null, "id");
+        String beanClassName = reader.getAttributeValue(null, "class");
+        BeanDefinitionBuilder builder = new BeanDefinitionBuilder(beanId, beanClassName);
+        logger.debug("Created BeanDefinition with id: {} and class: {}", beanId, beanClassName);
+
+        builder.scope(reader.getAttributeValue(null, "scope"));
+        builder.lazyInit(reader.getAttributeValue(null, "lazy-init"), defaultLazyInit);
+        builder.initMethod(reader.getAttributeValue(null, "init-method"));
+        return builder;
+    }
+
+    private void readBeanChild(XMLStreamReader reader, BeanDefinitionBuilder builder) {
+        String localName = reader.getLocalName();
+        if ("constructor-arg".equals(localName)) {
+            builder.constructorArgument(reader.getAttributeValue(null, "type"),
+                    reader.getAttributeValue(null, "name"), reader.getAttributeValue(null, "value"));
+        } else if ("property".equals(localName)) {
+            builder.property(reader.getAttributeValue(null, "type"), reader.getAttributeValue(null, "name"),
+                    reader.getAttributeValue(null, "value"), reader.getAttributeValue(null, "ref"));
+        } else if ("pool".equals(localName)) {
+            builder.pool(reader.getAttributeValue(null, "min-size"), reader.getAttributeValue(null, "max-size"),
+                    reader.getAttributeValue(null, "idle-timeout"), reader.getAttributeValue(null, "max-wait"));
+        } else if ("cache".equals(localName)) {
+            builder.cache(reader.getAttributeValue(null, "method"), reader.getAttributeValue(null, "name"),
+                    reader.getAttributeValue(null, "max-size"), reader.getAttributeValue(null, "time-to-live"),
+                    reader.getAttributeValue(null, "weigher"));
+        }
+    }
+}
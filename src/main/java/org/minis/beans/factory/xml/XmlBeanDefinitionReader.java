@@ -4,15 +4,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.dom4j.Element;
 import org.minis.BeanDefinition;
-import org.minis.beans.factory.config.ConstructorArgumentValue;
-import org.minis.beans.factory.config.ConstructorArgumentValues;
-import org.minis.beans.factory.config.PropertyValue;
-import org.minis.beans.factory.config.PropertyValues;
 import org.minis.beans.factory.support.SimpleBeanFactory;
+import org.minis.context.annotation.ClassPathBeanDefinitionScanner;
 import org.minis.core.io.Resource;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -37,60 +32,71 @@ public class XmlBeanDefinitionReader {
         logger.debug("Starting loadBeanDefinitions.");
         while (resource.hasNext()) {
             Element element = (Element) resource.next();
-            logger.debug("Processing resource: " + element.getPath());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Processing resource: {}", element.getPath());
+            }
+
+            if (StreamingXmlBeanDefinitionReader.COMPONENT_SCAN_ELEMENT.equals(element.getName())) {
+                String basePackages = element.attributeValue(StreamingXmlBeanDefinitionReader.BASE_PACKAGE_ATTRIBUTE);
+                if (basePackages == null || basePackages.trim().isEmpty()) {
+                    throw new RuntimeException("<component-scan> needs a base-package attribute");
+                }
+                new ClassPathBeanDefinitionScanner(this.simpleBeanFactory).scan(basePackages.trim().split("[,;\\s]+"));
+                continue;
+            }
+            if (!StreamingXmlBeanDefinitionReader.BEAN_ELEMENT.equals(element.getName())) {
+                throw StreamingXmlBeanDefinitionReader.unknownElement(element.getName());
+            }
 
             String beanId = element.attributeValue("id");
             String beanClassName = element.attributeValue("class");
 
-            final BeanDefinition beanDefinition = new BeanDefinition(beanId, beanClassName);
+            BeanDefinitionBuilder builder = new BeanDefinitionBuilder(beanId, beanClassName);
+
+            logger.debug("Created BeanDefinition with id: {} and class: {}", beanId, beanClassName);
 
-            logger.debug("Created BeanDefinition with id: " + beanId + " and class: " + beanClassName);
+            builder.scope(element.attributeValue("scope"));
+            builder.lazyInit(element.attributeValue("lazy-init"),
+                    element.getParent() == null ? null : element.getParent().attributeValue("default-lazy-init"));
+            builder.initMethod(element.attributeValue("init-method"));
 
             // process <constructor-arg>: in beans.xml
             List<Element> constructorElements = element.elements("constructor-arg");
-            ConstructorArgumentValues argumentValues = new ConstructorArgumentValues();
             for (Element e : constructorElements) {
-                String aType = e.attributeValue("type");
                 String aName = e.attributeValue("name");
-                String aValue = e.attributeValue("value");
 
-                logger.debug("Processing constructor argument: " + aName + " for bean: " + beanId);
-                argumentValues.addArgumentValue(new ConstructorArgumentValue(aType, aName, aValue));
+                logger.debug("Processing constructor argument: {} for bean: {}", aName, beanId);
+                builder.constructorArgument(e.attributeValue("type"), aName, e.attributeValue("value"));
             }
-            beanDefinition.setConstructorArgumentValues(argumentValues);
 
             // process <property> tag in beans.xml
             List<Element> propertyElements = element.elements("property");
-            PropertyValues propertyValues = new PropertyValues();
-            List<String> refs = new ArrayList<>();
-
             for (Element e : propertyElements) {
-                String pType = e.attributeValue("type");
                 String pName = e.attributeValue("name");
-                String pValue = e.attributeValue("value");
-                String pRef = e.attributeValue("ref");
-                String pV = "";
-                boolean isRef = false;
-
-                logger.debug("Processing property: " + pName + " for bean: " + beanId);
-
-                if (pValue != null && !pValue.isEmpty()) {
-                    pV = pValue;
-                } else if (pRef != null && !pRef.isEmpty()) {
-                    isRef = true;
-                    pV = pRef;
-                    refs.add(pRef);
-                }
-                propertyValues.addPropertyValue(new PropertyValue(pType, pName, pV, isRef));
+
+                logger.debug("Processing property: {} for bean: {}", pName, beanId);
+                builder.property(e.attributeValue("type"), pName, e.attributeValue("value"), e.attributeValue("ref"));
+            }
+
+            // process the <pool> tag of a pooled bean
+            Element poolElement = element.element("pool");
+            if (poolElement != null) {
+                builder.pool(poolElement.attributeValue("min-size"), poolElement.attributeValue("max-size"),
+                        poolElement.attributeValue("idle-timeout"), poolElement.attributeValue("max-wait"));
+            }
+
+            // process the <cache> tags, one per cached method
+            List<Element> cacheElements = element.elements("cache");
+            for (Element e : cacheElements) {
+                builder.cache(e.attributeValue("method"), e.attributeValue("name"), e.attributeValue("max-size"),
+                        e.attributeValue("time-to-live"), e.attributeValue("weigher"));
             }
-            beanDefinition.setPropertyValues(propertyValues);
-            String[] refArray = refs.toArray(new String[0]);
-            beanDefinition.setDependsOn(refArray);
+            final BeanDefinition beanDefinition = builder.build();
 
-            logger.debug("Bean " + beanId + " depends on: " + Arrays.toString(refArray));
+            logger.debug("Bean {} depends on: {}", beanId, beanDefinition.getDependsOn());
 
             this.simpleBeanFactory.registerBeanDefinition(beanId, beanDefinition);
-            logger.debug("Registered BeanDefinition with id: " + beanId);
+            logger.debug("Registered BeanDefinition with id: {}", beanId);
         }
         logger.debug("Finished loadBeanDefinitions.");
     }
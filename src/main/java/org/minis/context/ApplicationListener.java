@@ -0,0 +1,18 @@
+package org.minis.context;
+
+import java.util.EventListener;
+
+/**
+ * Receives the events published through an {@link ApplicationEventPublisher}.
+ * <p>
+ * Beans implementing this interface are registered with the context on refresh. A listener only receives
+ * events of the type it declares, e.g. an {@code ApplicationListener<OrderPlacedEvent>} is never called for
+ * other events.
+ *
+ * @param <E> the event type listened to
+ */
+@FunctionalInterface
+public interface ApplicationListener<E extends ApplicationEvent> extends EventListener {
+
+    void onApplicationEvent(E event);
+}
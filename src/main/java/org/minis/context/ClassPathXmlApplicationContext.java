@@ -1,12 +1,28 @@
 package org.minis.context;
 
 import org.dom4j.Element;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.BeanDefinition;
+import org.minis.aot.AotBeanFactories;
 import org.minis.beans.BeansException;
-import org.minis.beans.factory.BeanFactory;
+import org.minis.beans.factory.ListableBeanFactory;
+import org.minis.beans.factory.support.BeanHandle;
+import org.minis.beans.factory.support.BeanPool;
 import org.minis.beans.factory.support.SimpleBeanFactory;
-import org.minis.beans.factory.xml.XmlBeanDefinitionReader;
+import org.minis.beans.factory.xml.BeanDefinitionSnapshot;
+import org.minis.beans.factory.xml.ParallelXmlBeanDefinitionLoader;
+import org.minis.beans.factory.xml.StreamingXmlBeanDefinitionReader;
+import org.minis.context.event.ApplicationEventMulticaster;
+import org.minis.context.event.ContextRefreshedEvent;
+import org.minis.context.event.SimpleApplicationEventMulticaster;
+import org.minis.core.io.ClassPathResourceResolver;
 import org.minis.core.io.ClassPathXmlResource;
-import org.minis.core.io.Resource;
+import org.minis.core.metrics.ApplicationStartup;
+import org.minis.core.metrics.StartupStep;
+
+import java.nio.file.Paths;
+import java.util.Map;
 
 /**
  * <pre>
@@ -16,13 +32,30 @@ import org.minis.core.io.Resource;
  *    instantiate the bean, and inject it into the BeanFactory container.
  * </pre>
  */
-public class ClassPathXmlApplicationContext implements BeanFactory, ApplicationEventPublisher {
-    SimpleBeanFactory beanFactory;
+public class ClassPathXmlApplicationContext implements ListableBeanFactory, ApplicationEventPublisher {
+    /**
+     * System property naming a directory for binary snapshots of the parsed configuration. When set, the XML
+     * is only parsed if its snapshot is missing or stale, see {@link BeanDefinitionSnapshot}.
+     */
+    public static final String SNAPSHOT_DIR_PROPERTY = "minis.snapshot.dir";
+    /**
+     * A bean with this name replaces the default {@link SimpleApplicationEventMulticaster},
+     * e.g. to configure async delivery in XML
+     */
+    public static final String APPLICATION_EVENT_MULTICASTER_BEAN_NAME = "applicationEventMulticaster";
+
+    private final SimpleBeanFactory beanFactory;
+    private final ApplicationStartup applicationStartup;
+    private ApplicationEventMulticaster applicationEventMulticaster = new SimpleApplicationEventMulticaster();
+    private final Logger logger = LogManager.getLogger(ClassPathXmlApplicationContext.class);
 
     public ClassPathXmlApplicationContext(String fileName) {
         this(fileName, true);
     }
 
+    public ClassPathXmlApplicationContext(String[] locations) {
+        this(locations, true);
+    }
 
     /**
      * The context is responsible for integrating the startup process of the container,
@@ -32,23 +65,179 @@ public class ClassPathXmlApplicationContext implements BeanFactory, ApplicationE
      * @param fileName
      */
     public ClassPathXmlApplicationContext(String fileName, boolean isRefresh) {
-        Resource resource = new ClassPathXmlResource(fileName);
-        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
-        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        this(new String[]{fileName}, isRefresh);
+    }
 
-        reader.loadBeanDefinitions(resource);
-        this.beanFactory = beanFactory;
+    /**
+     * @param locations file names or class path patterns like {@code classpath*:META-INF/minis/*.xml},
+     *                  see {@link ClassPathResourceResolver}
+     * @param isRefresh
+     */
+    public ClassPathXmlApplicationContext(String[] locations, boolean isRefresh) {
+        this(locations, isRefresh, ApplicationStartup.DEFAULT);
+    }
+
+    /**
+     * @param locations
+     * @param isRefresh
+     * @param applicationStartup records the loading of the configuration, the refresh and the creation of
+     *                           every bean, e.g. a {@link org.minis.core.metrics.BufferingApplicationStartup}
+     */
+    public ClassPathXmlApplicationContext(String[] locations, boolean isRefresh, ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+        StartupStep loadStep = applicationStartup.start("minis.context.config.load")
+                .tag("locations", String.join(",", locations));
+        try {
+            if (locations.length == 1 && !ClassPathResourceResolver.isPattern(locations[0])) {
+                this.beanFactory = createBeanFactory(stripPrefix(locations[0]));
+            } else {
+                // many files are parsed concurrently, then merged in the order of the locations
+                this.beanFactory = new SimpleBeanFactory();
+                ParallelXmlBeanDefinitionLoader loader = new ParallelXmlBeanDefinitionLoader(this.beanFactory);
+                loader.setApplicationStartup(applicationStartup);
+                loader.loadBeanDefinitions(locations);
+            }
+        } finally {
+            loadStep.end();
+        }
+        this.beanFactory.setApplicationStartup(applicationStartup);
 
         if (isRefresh) {
+            this.refresh();
+        }
+    }
+
+    private static String stripPrefix(String location) {
+        return location.startsWith(ClassPathResourceResolver.CLASSPATH_URL_PREFIX)
+                ? location.substring(ClassPathResourceResolver.CLASSPATH_URL_PREFIX.length()) : location;
+    }
+
+    private SimpleBeanFactory createBeanFactory(String fileName) {
+        // a factory generated at build time wires the beans without parsing or reflection
+        SimpleBeanFactory beanFactory = AotBeanFactories.load(fileName);
+        String snapshotDir = System.getProperty(SNAPSHOT_DIR_PROPERTY);
+        if (beanFactory != null) {
+            logger.debug("Loaded ahead-of-time generated bean factory for {}", fileName);
+        } else if (snapshotDir != null && !snapshotDir.isEmpty()) {
+            beanFactory = new SimpleBeanFactory();
+            BeanDefinitionSnapshot.loadBeanDefinitions(fileName, Paths.get(snapshotDir), beanFactory);
+        } else {
+            beanFactory = new SimpleBeanFactory();
+            // stream the file instead of building a dom4j document, see XmlBeanDefinitionReader for the DOM reader
+            StreamingXmlBeanDefinitionReader reader = new StreamingXmlBeanDefinitionReader(beanFactory);
+            StartupStep parseStep = this.applicationStartup.start("minis.beans.xml.parse").tag("location", fileName);
+            try {
+                reader.loadBeanDefinitions(fileName);
+            } finally {
+                parseStep.end();
+            }
+        }
+        return beanFactory;
+    }
+
+    /**
+     * Instantiates all beans. A context created with {@code isRefresh = false} can tune its
+     * {@link #getBeanFactory() bean factory} first, e.g. its instantiation strategy, then call this method.
+     * <p>
+     * Afterwards every singleton {@link ApplicationListener} bean is registered, found through the type index of
+     * the bean factory, and a {@link ContextRefreshedEvent} is published. A listener bean of any other scope is
+     * skipped with a warning: a prototype or scoped instance created here would not be the one its scope hands
+     * out later, and a pooled one can not be looked up by name at all.
+     */
+    public void refresh() {
+        StartupStep refreshStep = this.applicationStartup.start("minis.context.refresh");
+        try {
             this.beanFactory.refresh();
+            StartupStep listenersStep = this.applicationStartup.start("minis.context.listeners.register");
+            try {
+                initApplicationEventMulticaster();
+                for (String beanName : this.beanFactory.getBeanNamesForType(ApplicationListener.class)) {
+                    BeanDefinition beanDefinition = this.beanFactory.getBeanDefinition(beanName);
+                    if (!beanDefinition.isSingleton()) {
+                        logger.warn("Listener bean '{}' is not a singleton, it is not registered", beanName);
+                        continue;
+                    }
+                    this.applicationEventMulticaster.addApplicationListener(
+                            (ApplicationListener<?>) this.beanFactory.getBean(beanName));
+                }
+            } catch (BeansException e) {
+                throw new RuntimeException("Failed to register application listeners", e);
+            } finally {
+                listenersStep.end();
+            }
+            publishEvent(new ContextRefreshedEvent(this));
+        } finally {
+            refreshStep.end();
+        }
+    }
+
+    public ApplicationStartup getApplicationStartup() {
+        return this.applicationStartup;
+    }
+
+    private void initApplicationEventMulticaster() throws BeansException {
+        if (this.beanFactory.containsBean(APPLICATION_EVENT_MULTICASTER_BEAN_NAME)) {
+            this.applicationEventMulticaster = (ApplicationEventMulticaster) this.beanFactory.getBean(
+                    APPLICATION_EVENT_MULTICASTER_BEAN_NAME);
+            logger.debug("Using application event multicaster {}", this.applicationEventMulticaster);
         }
     }
 
+    public void addApplicationListener(ApplicationListener<?> listener) {
+        this.applicationEventMulticaster.addApplicationListener(listener);
+    }
+
+    public ApplicationEventMulticaster getApplicationEventMulticaster() {
+        return this.applicationEventMulticaster;
+    }
+
+    public SimpleBeanFactory getBeanFactory() {
+        return this.beanFactory;
+    }
+
     @Override
     public Object getBean(String beanName) throws BeansException {
         return this.beanFactory.getBean(beanName);
     }
 
+    /**
+     * @see SimpleBeanFactory#getBeanHandle(String)
+     */
+    public BeanHandle getBeanHandle(String beanName) throws BeansException {
+        return this.beanFactory.getBeanHandle(beanName);
+    }
+
+    public Object getBean(BeanHandle handle) throws BeansException {
+        return this.beanFactory.getBean(handle);
+    }
+
+    /**
+     * @see SimpleBeanFactory#leaseBean(String, Class)
+     */
+    public <T> BeanPool.Lease<T> leaseBean(String beanName, Class<T> requiredType) throws BeansException {
+        return this.beanFactory.leaseBean(beanName, requiredType);
+    }
+
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws BeansException {
+        return this.beanFactory.getBean(requiredType);
+    }
+
+    @Override
+    public String[] getBeanDefinitionNames() {
+        return this.beanFactory.getBeanDefinitionNames();
+    }
+
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        return this.beanFactory.getBeanNamesForType(type);
+    }
+
+    @Override
+    public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
+        return this.beanFactory.getBeansOfType(type);
+    }
+
     @Override
     public Boolean containsBean(String name) {
         return this.beanFactory.containsBean(name);
@@ -56,22 +245,22 @@ public class ClassPathXmlApplicationContext implements BeanFactory, ApplicationE
 
     @Override
     public Class<?> getType(String name) {
-        return null;
+        return this.beanFactory.getType(name);
     }
 
     @Override
     public boolean isSingleton(String name) {
-        return false;
+        return this.beanFactory.isSingleton(name);
     }
 
     @Override
     public boolean isPrototype(String name) {
-        return false;
+        return this.beanFactory.isPrototype(name);
     }
 
     @Override
     public void publishEvent(ApplicationEvent event) {
-
+        this.applicationEventMulticaster.multicastEvent(event);
     }
 
     public void testIterator(String fileName) {
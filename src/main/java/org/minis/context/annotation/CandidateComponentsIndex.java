@@ -0,0 +1,143 @@
+package org.minis.context.annotation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.core.type.classreading.ClassFileReader;
+import org.minis.core.type.classreading.ClassMetadata;
+import org.minis.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * The components listed in the {@value #INDEX_LOCATION} files on the class path, written at build time
+ * by {@link #main}, so that {@link ClassPathBeanDefinitionScanner} does not scan at runtime.
+ * <p>
+ * Each line holds {@code class name=bean name}. When any index file is found, components missing from the
+ * indexes, e.g. in a jar built without one, are not detected; the system property
+ * {@value #IGNORE_INDEX_PROPERTY}=true makes the scanner ignore the indexes and scan instead.
+ */
+public final class CandidateComponentsIndex {
+    public static final String INDEX_LOCATION = "META-INF/minis.components";
+    public static final String IGNORE_INDEX_PROPERTY = "minis.index.ignore";
+
+    private static final Logger logger = LogManager.getLogger(CandidateComponentsIndex.class);
+
+    /**
+     * Class name to bean name, sorted by class name
+     */
+    private final Map<String, String> components;
+
+    private CandidateComponentsIndex(Map<String, String> components) {
+        this.components = components;
+    }
+
+    /**
+     * Build-time entry point: {@code CandidateComponentsIndex <classes directory>} writes the index of the
+     * compiled classes of a module into its {@value #INDEX_LOCATION}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CandidateComponentsIndex <classes directory>");
+            System.exit(1);
+        }
+        Path indexFile = write(Paths.get(args[0]));
+        System.out.println("Generated " + indexFile);
+    }
+
+    /**
+     * @param classLoader
+     * @return the merged index files, or null when there is none or the indexes are ignored
+     */
+    public static CandidateComponentsIndex load(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            return null;
+        }
+        List<URL> indexFiles;
+        try {
+            indexFiles = Collections.list(classLoader.getResources(INDEX_LOCATION));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to find " + INDEX_LOCATION + " files", e);
+        }
+        if (indexFiles.isEmpty()) {
+            return null;
+        }
+
+        Map<String, String> components = new TreeMap<>();
+        for (URL indexFile : indexFiles) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(indexFile.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    int separator = line.indexOf('=');
+                    if (line.isEmpty() || line.startsWith("#") || separator < 0) {
+                        continue;
+                    }
+                    components.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read " + indexFile, e);
+            }
+        }
+        logger.debug("Loaded {} components from {} index files", components.size(), indexFiles.size());
+        return new CandidateComponentsIndex(components);
+    }
+
+    /**
+     * @param basePackage
+     * @return the components of the package and its sub packages, class names mapped to bean names
+     */
+    public Map<String, String> getCandidates(String basePackage) {
+        String prefix = basePackage + ".";
+        Map<String, String> candidates = new LinkedHashMap<>();
+        for (Map.Entry<String, String> component : this.components.entrySet()) {
+            if (component.getKey().startsWith(prefix)) {
+                candidates.put(component.getKey(), component.getValue());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @param classesDir a directory of compiled classes
+     * @return the written index file
+     * @throws IOException
+     */
+    public static Path write(Path classesDir) throws IOException {
+        Map<String, String> components = new TreeMap<>();
+        List<Path> classFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(classesDir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".class")).forEach(classFiles::add);
+        }
+        for (Path classFile : classFiles) {
+            ClassMetadata metadata = ClassFileReader.read(Files.readAllBytes(classFile), Component.class.getName());
+            String beanName = metadata == null ? null : ClassPathBeanDefinitionScanner.getComponentBeanName(metadata);
+            if (beanName != null) {
+                components.put(metadata.getClassName(), beanName);
+            }
+        }
+
+        List<String> lines = new ArrayList<>(components.size() + 1);
+        lines.add("# Generated by " + CandidateComponentsIndex.class.getName() + ", do not edit");
+        for (Map.Entry<String, String> component : components.entrySet()) {
+            lines.add(component.getKey() + "=" + component.getValue());
+        }
+        Path indexFile = classesDir.resolve(INDEX_LOCATION);
+        Files.createDirectories(indexFile.getParent());
+        Files.write(indexFile, lines, StandardCharsets.UTF_8);
+        return indexFile;
+    }
+}
@@ -0,0 +1,137 @@
+package org.minis.context.annotation;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PropertyValues;
+import org.minis.beans.factory.support.BeanDefinitionRegistry;
+import org.minis.core.io.ClassPathResourceResolver;
+import org.minis.core.type.classreading.ClassFileReader;
+import org.minis.core.type.classreading.ClassMetadata;
+import org.minis.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers a singleton bean definition for every {@link Component @Component} class in the given packages.
+ * <p>
+ * Candidates are found by reading class files with {@link ClassFileReader}, so scanning loads no class;
+ * only the components themselves are loaded later, when they are created. When a
+ * {@link CandidateComponentsIndex} is on the class path, the candidates are taken from it and nothing is scanned.
+ */
+public class ClassPathBeanDefinitionScanner {
+    private static final String COMPONENT_ANNOTATION = Component.class.getName();
+
+    private final BeanDefinitionRegistry registry;
+    private final ClassLoader classLoader;
+    private final Logger logger = LogManager.getLogger(ClassPathBeanDefinitionScanner.class);
+
+    public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry) {
+        this(registry, ClassPathBeanDefinitionScanner.class.getClassLoader());
+    }
+
+    public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry, ClassLoader classLoader) {
+        this.registry = registry;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param basePackages packages to scan, including their sub packages
+     * @return the number of registered bean definitions
+     */
+    public int scan(String... basePackages) {
+        long start = System.nanoTime();
+        CandidateComponentsIndex index = CandidateComponentsIndex.load(this.classLoader);
+        int count = 0;
+        for (String basePackage : basePackages) {
+            Map<String, String> candidates = index != null ? index.getCandidates(basePackage) : findCandidates(basePackage);
+            for (Map.Entry<String, String> candidate : candidates.entrySet()) {
+                if (register(candidate.getKey(), candidate.getValue())) {
+                    count++;
+                }
+            }
+        }
+        logger.debug("Registered {} components of {} {} in {} ms", count, basePackages,
+                index != null ? "from the index" : "by scanning", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return count;
+    }
+
+    /**
+     * @param basePackage
+     * @return component class names mapped to their bean names, sorted by class name like in the index
+     */
+    private Map<String, String> findCandidates(String basePackage) {
+        Map<String, String> candidates = new TreeMap<>();
+        String location = ClassPathResourceResolver.CLASSPATH_ALL_URL_PREFIX + basePackage.replace('.', '/') + "/**/*.class";
+        try {
+            new ClassPathResourceResolver(this.classLoader).visitResources(location, (name, path) -> {
+                if (name.endsWith("-info.class")) {
+                    // package-info and module-info
+                    return;
+                }
+                ClassMetadata metadata;
+                try {
+                    metadata = ClassFileReader.read(Files.readAllBytes(path), COMPONENT_ANNOTATION);
+                } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                    logger.warn("Skipping unreadable class file {}", name, e);
+                    return;
+                }
+                String beanName = metadata == null ? null : getComponentBeanName(metadata);
+                if (beanName != null) {
+                    candidates.putIfAbsent(metadata.getClassName(), beanName);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to scan package " + basePackage, e);
+        }
+        return candidates;
+    }
+
+    /**
+     * @return false if the same class is already registered under that name, e.g. by an overlapping package
+     */
+    private boolean register(String className, String beanName) {
+        BeanDefinition existing = this.registry.getBeanDefinition(beanName);
+        if (existing != null) {
+            if (className.equals(existing.getClassName())) {
+                return false;
+            }
+            throw new RuntimeException("Component " + className + " is named '" + beanName
+                    + "', which is already defined for " + existing.getClassName());
+        }
+        BeanDefinition beanDefinition = new BeanDefinition(beanName, className);
+        beanDefinition.setConstructorArgumentValues(new ConstructorArgumentValues());
+        beanDefinition.setPropertyValues(new PropertyValues());
+        beanDefinition.setDependsOn(BeanDefinition.NO_DEPENDS_ON);
+        this.registry.registerBeanDefinition(beanName, beanDefinition);
+        logger.debug("Registered component {} as {}", className, beanName);
+        return true;
+    }
+
+    /**
+     * @param metadata
+     * @return the bean name of a concrete, independent {@code @Component} class, or null for any other class
+     */
+    static String getComponentBeanName(ClassMetadata metadata) {
+        if (!metadata.hasAnnotation(COMPONENT_ANNOTATION) || !metadata.isConcrete() || !metadata.isIndependent()) {
+            return null;
+        }
+        Object value = metadata.getAnnotationAttributes(COMPONENT_ANNOTATION).get("value");
+        if (value instanceof String && !((String) value).isEmpty()) {
+            return (String) value;
+        }
+        String className = metadata.getClassName();
+        String shortName = className.substring(className.lastIndexOf('.') + 1).replace('$', '.');
+        // like java.beans.Introspector.decapitalize: URLService stays URLService
+        if (shortName.length() > 1 && Character.isUpperCase(shortName.charAt(1))
+                && Character.isUpperCase(shortName.charAt(0))) {
+            return shortName;
+        }
+        return Character.toLowerCase(shortName.charAt(0)) + shortName.substring(1);
+    }
+}
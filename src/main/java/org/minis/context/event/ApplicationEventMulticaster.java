@@ -0,0 +1,30 @@
+package org.minis.context.event;
+
+import org.minis.context.ApplicationEvent;
+import org.minis.context.ApplicationListener;
+
+/**
+ * Holds the listeners of a context and delivers published events to them.
+ */
+public interface ApplicationEventMulticaster {
+
+    /**
+     * Adds a listener for the event type declared by its class, see {@link ApplicationListener}.
+     *
+     * @param listener
+     */
+    void addApplicationListener(ApplicationListener<?> listener);
+
+    /**
+     * Adds a listener for the given event type, for listeners whose class does not tell, like lambdas.
+     *
+     * @param eventType
+     * @param listener
+     * @param <E>
+     */
+    <E extends ApplicationEvent> void addApplicationListener(Class<E> eventType, ApplicationListener<? super E> listener);
+
+    void removeApplicationListener(ApplicationListener<?> listener);
+
+    void multicastEvent(ApplicationEvent event);
+}
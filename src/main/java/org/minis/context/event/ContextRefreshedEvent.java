@@ -0,0 +1,17 @@
+package org.minis.context.event;
+
+import org.minis.context.ApplicationEvent;
+
+/**
+ * Published once all eager beans of a context are created.
+ */
+public class ContextRefreshedEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param source the refreshed context
+     */
+    public ContextRefreshedEvent(Object source) {
+        super(source);
+    }
+}
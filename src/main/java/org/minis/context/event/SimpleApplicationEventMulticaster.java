@@ -0,0 +1,388 @@
+package org.minis.context.event;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.minis.aop.JdkDynamicAopProxy;
+import org.minis.context.ApplicationEvent;
+import org.minis.context.ApplicationListener;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers each event to the listeners of its type, synchronously on the publishing thread by default.
+ * <p>
+ * The listeners of an event class are resolved once and cached as an array, so publishing is a map read
+ * plus one call per listener, without locking or allocation. Adding or removing a listener drops the cache.
+ * <p>
+ * With a {@link #setTaskExecutor task executor}, e.g. a bounded pool or, on JDK 21+, a virtual thread per
+ * task executor, publishing only enqueues the event. Events are held in a lock-free queue bounded by
+ * {@link #setQueueCapacity queueCapacity} and delivered by at most {@link #setConcurrency concurrency} drain
+ * tasks, each delivering up to {@link #setBatchSize batchSize} events per executor task. With the default
+ * concurrency of 1, events are delivered in publishing order. When the queue is full, the
+ * {@link BackpressurePolicy} decides what happens to the publisher. Listener failures are logged
+ * in async mode and thrown to the publisher in sync mode.
+ */
+public class SimpleApplicationEventMulticaster implements ApplicationEventMulticaster {
+    private static final ListenerRegistration[] NO_REGISTRATIONS = new ListenerRegistration[0];
+    private static final ApplicationListener<?>[] NO_LISTENERS = new ApplicationListener<?>[0];
+
+    private final Logger logger = LogManager.getLogger(SimpleApplicationEventMulticaster.class);
+
+    /**
+     * Copied on write, so publishers never lock
+     */
+    private volatile ListenerRegistration[] registrations = NO_REGISTRATIONS;
+    /**
+     * Event class to listeners, replaced as a whole whenever the registrations change
+     */
+    private volatile Map<Class<?>, ApplicationListener<?>[]> listenerCache = new ConcurrentHashMap<>(64);
+
+    private volatile Executor taskExecutor;
+    private int queueCapacity = 1024;
+    private int batchSize = 64;
+    private int concurrency = 1;
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.CALLER_RUNS;
+    private volatile AsyncDispatcher asyncDispatcher;
+    private final LongAdder discardedEvents = new LongAdder();
+
+    /**
+     * What a publisher does when the async queue is full
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Delivers the event on the publishing thread, which slows publishers down to the listeners' pace,
+         * ahead of the events still queued
+         */
+        CALLER_RUNS,
+        /**
+         * Waits for room in the queue. A listener publishing events itself may then wait forever.
+         */
+        BLOCK,
+        /**
+         * Drops the event, see {@link #getDiscardedEventCount()}
+         */
+        DISCARD
+    }
+
+    /**
+     * The event type is resolved from the class of the listener bean, also when the listener is a proxy,
+     * which only implements the raw ApplicationListener interface.
+     *
+     * @param listener
+     */
+    @Override
+    public void addApplicationListener(ApplicationListener<?> listener) {
+        Class<?> listenerClass = JdkDynamicAopProxy.getTarget(listener).getClass();
+        addRegistration(new ListenerRegistration(resolveEventType(listenerClass), listener));
+    }
+
+    @Override
+    public <E extends ApplicationEvent> void addApplicationListener(Class<E> eventType, ApplicationListener<? super E> listener) {
+        addRegistration(new ListenerRegistration(eventType, listener));
+    }
+
+    private synchronized void addRegistration(ListenerRegistration registration) {
+        ListenerRegistration[] current = this.registrations;
+        ListenerRegistration[] updated = new ListenerRegistration[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = registration;
+        this.registrations = updated;
+        this.listenerCache = new ConcurrentHashMap<>(64);
+    }
+
+    @Override
+    public synchronized void removeApplicationListener(ApplicationListener<?> listener) {
+        List<ListenerRegistration> remaining = new ArrayList<>(this.registrations.length);
+        for (ListenerRegistration registration : this.registrations) {
+            if (registration.listener != listener) {
+                remaining.add(registration);
+            }
+        }
+        this.registrations = remaining.toArray(NO_REGISTRATIONS);
+        this.listenerCache = new ConcurrentHashMap<>(64);
+    }
+
+    @Override
+    public void multicastEvent(ApplicationEvent event) {
+        if (this.taskExecutor == null) {
+            invokeListeners(event, getListeners(event.getClass()), false);
+        } else {
+            getAsyncDispatcher().submit(event);
+        }
+    }
+
+    /**
+     * @param eventClass
+     * @return the listeners of the event class, in registration order; callers must not modify the array
+     */
+    ApplicationListener<?>[] getListeners(Class<?> eventClass) {
+        // read the cache before the registrations: a cache replaced in between only loses this entry
+        Map<Class<?>, ApplicationListener<?>[]> cache = this.listenerCache;
+        ApplicationListener<?>[] listeners = cache.get(eventClass);
+        if (listeners == null) {
+            List<ApplicationListener<?>> matching = new ArrayList<>();
+            for (ListenerRegistration registration : this.registrations) {
+                if (registration.eventType.isAssignableFrom(eventClass)) {
+                    matching.add(registration.listener);
+                }
+            }
+            listeners = matching.isEmpty() ? NO_LISTENERS : matching.toArray(NO_LISTENERS);
+            cache.put(eventClass, listeners);
+        }
+        return listeners;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void invokeListeners(ApplicationEvent event, ApplicationListener<?>[] listeners, boolean async) {
+        for (ApplicationListener listener : listeners) {
+            if (!async) {
+                listener.onApplicationEvent(event);
+                continue;
+            }
+            try {
+                listener.onApplicationEvent(event);
+            } catch (RuntimeException | Error e) {
+                logger.error("Listener {} failed on {}", listener, event, e);
+            }
+        }
+    }
+
+    /**
+     * The event type of a listener class, from its {@code ApplicationListener<E>} declaration; listeners
+     * whose declaration does not name a class, like lambdas, receive every event.
+     *
+     * @param listenerClass
+     * @return
+     */
+    static Class<?> resolveEventType(Class<?> listenerClass) {
+        for (Class<?> type = listenerClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            Class<?> eventType = resolveEventType(type.getGenericInterfaces());
+            if (eventType != null) {
+                return eventType;
+            }
+        }
+        return ApplicationEvent.class;
+    }
+
+    private static Class<?> resolveEventType(Type[] interfaces) {
+        for (Type interfaceType : interfaces) {
+            if (interfaceType instanceof ParameterizedType
+                    && ((ParameterizedType) interfaceType).getRawType() == ApplicationListener.class) {
+                Type eventType = ((ParameterizedType) interfaceType).getActualTypeArguments()[0];
+                if (eventType instanceof Class) {
+                    return (Class<?>) eventType;
+                }
+                if (eventType instanceof ParameterizedType) {
+                    return (Class<?>) ((ParameterizedType) eventType).getRawType();
+                }
+                return ApplicationEvent.class;
+            }
+            Class<?> rawType = interfaceType instanceof ParameterizedType
+                    ? (Class<?>) ((ParameterizedType) interfaceType).getRawType() : (Class<?>) interfaceType;
+            // an interface extending ApplicationListener<E>
+            Class<?> eventType = resolveEventType(rawType.getGenericInterfaces());
+            if (eventType != null) {
+                return eventType;
+            }
+        }
+        return null;
+    }
+
+    private AsyncDispatcher getAsyncDispatcher() {
+        AsyncDispatcher dispatcher = this.asyncDispatcher;
+        if (dispatcher == null) {
+            synchronized (this) {
+                dispatcher = this.asyncDispatcher;
+                if (dispatcher == null) {
+                    dispatcher = new AsyncDispatcher(this.taskExecutor, this.queueCapacity, this.batchSize,
+                            this.concurrency, this.backpressurePolicy);
+                    this.asyncDispatcher = dispatcher;
+                }
+            }
+        }
+        return dispatcher;
+    }
+
+    public Executor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    /**
+     * @param taskExecutor runs the listeners; null, the default, runs them on the publishing thread
+     */
+    public synchronized void setTaskExecutor(Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+        this.asyncDispatcher = null;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @param queueCapacity the maximum number of events waiting for async delivery, 1024 by default
+     */
+    public synchronized void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1, not " + queueCapacity);
+        }
+        this.queueCapacity = queueCapacity;
+        this.asyncDispatcher = null;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the maximum number of events delivered by one executor task, 64 by default
+     */
+    public synchronized void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1, not " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.asyncDispatcher = null;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @param concurrency the maximum number of executor tasks delivering events at the same time, 1 by default;
+     *                    above 1 events may be delivered out of publishing order
+     */
+    public synchronized void setConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1, not " + concurrency);
+        }
+        this.concurrency = concurrency;
+        this.asyncDispatcher = null;
+    }
+
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    public synchronized void setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+        this.asyncDispatcher = null;
+    }
+
+    /**
+     * @return the number of events dropped by {@link BackpressurePolicy#DISCARD}
+     */
+    public long getDiscardedEventCount() {
+        return discardedEvents.sum();
+    }
+
+    private static final class ListenerRegistration {
+        private final Class<?> eventType;
+        private final ApplicationListener<?> listener;
+
+        ListenerRegistration(Class<?> eventType, ApplicationListener<?> listener) {
+            this.eventType = eventType;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * The async queue and its drain tasks. Settings changed later apply to a new dispatcher, this one
+     * still delivers the events it holds.
+     */
+    private final class AsyncDispatcher implements Runnable {
+        private final Executor executor;
+        private final ConcurrentLinkedQueue<ApplicationEvent> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * Free slots of the queue: taking one is a CAS, only a full queue makes BLOCK publishers park
+         */
+        private final Semaphore capacity;
+        private final AtomicInteger activeDrainers = new AtomicInteger();
+        private final int batchSize;
+        private final int concurrency;
+        private final BackpressurePolicy backpressurePolicy;
+
+        AsyncDispatcher(Executor executor, int queueCapacity, int batchSize, int concurrency,
+                        BackpressurePolicy backpressurePolicy) {
+            this.executor = executor;
+            this.capacity = new Semaphore(queueCapacity);
+            this.batchSize = batchSize;
+            this.concurrency = concurrency;
+            this.backpressurePolicy = backpressurePolicy;
+        }
+
+        void submit(ApplicationEvent event) {
+            if (!this.capacity.tryAcquire()) {
+                switch (this.backpressurePolicy) {
+                    case BLOCK:
+                        this.capacity.acquireUninterruptibly();
+                        break;
+                    case DISCARD:
+                        discardedEvents.increment();
+                        return;
+                    case CALLER_RUNS:
+                    default:
+                        invokeListeners(event, getListeners(event.getClass()), true);
+                        return;
+                }
+            }
+            this.queue.offer(event);
+            startDrainer();
+        }
+
+        private void startDrainer() {
+            while (true) {
+                int active = this.activeDrainers.get();
+                if (active >= this.concurrency) {
+                    // a running drainer re-checks the queue before it stops, so the event is not left behind
+                    return;
+                }
+                if (this.activeDrainers.compareAndSet(active, active + 1)) {
+                    execute();
+                    return;
+                }
+            }
+        }
+
+        private void execute() {
+            try {
+                this.executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                this.activeDrainers.decrementAndGet();
+                logger.error("Event executor rejected the delivery of {} queued events", this.queue.size(), e);
+            }
+        }
+
+        @Override
+        public void run() {
+            ApplicationEvent event;
+            int delivered = 0;
+            while (delivered < this.batchSize && (event = this.queue.poll()) != null) {
+                this.capacity.release();
+                invokeListeners(event, getListeners(event.getClass()), true);
+                delivered++;
+            }
+            if (delivered == this.batchSize) {
+                // keep the drainer slot but give other tasks of the executor a turn
+                execute();
+                return;
+            }
+            this.activeDrainers.decrementAndGet();
+            if (!this.queue.isEmpty()) {
+                startDrainer();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.minis.core.convert;
+
+/**
+ * Thrown when there is no converter for a pair of types, or when the converter rejects a value.
+ */
+public class ConversionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ConversionException(String message) {
+        super(message);
+    }
+
+    public ConversionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,24 @@
+package org.minis.core.convert;
+
+/**
+ * Converts configuration values, typically the strings of a bean definition, to the types of the
+ * constructor parameters and setters they are injected into.
+ */
+public interface ConversionService {
+
+    /**
+     * @param sourceType
+     * @param targetType a primitive target type is treated as its wrapper
+     * @return whether {@link #convert} supports values of the source type
+     */
+    boolean canConvert(Class<?> sourceType, Class<?> targetType);
+
+    /**
+     * @param source     the value, may be null
+     * @param targetType
+     * @param <T>
+     * @return the converted value, null for a null source unless the target type is primitive
+     * @throws ConversionException if the value can not be converted
+     */
+    <T> T convert(Object source, Class<T> targetType);
+}
@@ -0,0 +1,16 @@
+package org.minis.core.convert;
+
+/**
+ * Converts a value of type S to type T.
+ * <p>
+ * A converter may throw any runtime exception for a value it can not convert, the
+ * {@link ConversionService} reports it as a {@link ConversionException}.
+ *
+ * @param <S> the source type
+ * @param <T> the target type
+ */
+@FunctionalInterface
+public interface Converter<S, T> {
+
+    T convert(S source);
+}
@@ -0,0 +1,312 @@
+package org.minis.core.convert;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ConversionService} backed by a registry of {@link Converter}s keyed by (source, target) type.
+ * <p>
+ * Out of the box it converts strings to every primitive and wrapper type, {@link BigInteger},
+ * {@link BigDecimal}, {@link Duration} and any enum, comma separated strings and arrays to arrays of any
+ * convertible component type, and anything to {@link String}. More converters are added with
+ * {@link #addConverter}; a converter registered for a source type also applies to its subtypes.
+ * <p>
+ * The converter found for a pair of types, or the lack of one, is cached, so repeated conversions
+ * between the same types cost two map reads and no allocation besides the converted value.
+ */
+public class DefaultConversionService implements ConversionService {
+    private static final Converter<Object, Object> IDENTITY = source -> source;
+    /**
+     * Cached for pairs of types without a converter, as the cache can not hold null
+     */
+    private static final Converter<Object, Object> NO_CONVERTER = source -> {
+        throw new IllegalStateException();
+    };
+
+    private final Map<ConvertiblePair, Converter<Object, Object>> converters = new ConcurrentHashMap<>(64);
+    /**
+     * Source type to target type to converter, replaced as a whole when a converter is added
+     */
+    private volatile Map<Class<?>, Map<Class<?>, Converter<Object, Object>>> converterCache = new ConcurrentHashMap<>(64);
+
+    public DefaultConversionService() {
+        addDefaultConverters();
+    }
+
+    private void addDefaultConverters() {
+        addConverter(String.class, Boolean.class, DefaultConversionService::toBoolean);
+        addConverter(String.class, Character.class, DefaultConversionService::toCharacter);
+        addConverter(String.class, Byte.class, source -> Byte.valueOf(source.trim()));
+        addConverter(String.class, Short.class, source -> Short.valueOf(source.trim()));
+        addConverter(String.class, Integer.class, source -> Integer.valueOf(source.trim()));
+        addConverter(String.class, Long.class, source -> Long.valueOf(source.trim()));
+        addConverter(String.class, Float.class, source -> Float.valueOf(source.trim()));
+        addConverter(String.class, Double.class, source -> Double.valueOf(source.trim()));
+        addConverter(String.class, BigInteger.class, source -> new BigInteger(source.trim()));
+        addConverter(String.class, BigDecimal.class, source -> new BigDecimal(source.trim()));
+        addConverter(String.class, Duration.class, DefaultConversionService::parseDuration);
+        addConverter(Object.class, String.class, Object::toString);
+    }
+
+    /**
+     * Registers a converter, replacing the one registered for the same pair of types, if any.
+     *
+     * @param sourceType
+     * @param targetType a primitive type registers the converter for its wrapper
+     * @param converter
+     * @param <S>
+     * @param <T>
+     */
+    @SuppressWarnings("unchecked")
+    public <S, T> void addConverter(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter) {
+        this.converters.put(new ConvertiblePair(box(sourceType), box(targetType)), (Converter<Object, Object>) converter);
+        this.converterCache = new ConcurrentHashMap<>(64);
+    }
+
+    @Override
+    public boolean canConvert(Class<?> sourceType, Class<?> targetType) {
+        return getConverter(box(sourceType), box(targetType)) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T convert(Object source, Class<T> targetType) {
+        if (source == null) {
+            if (targetType.isPrimitive()) {
+                throw new ConversionException("Can not convert null to " + targetType.getName());
+            }
+            return null;
+        }
+        Converter<Object, Object> converter = getConverter(source.getClass(), box(targetType));
+        if (converter == null) {
+            throw new ConversionException("No converter found from " + source.getClass().getName()
+                    + " to " + targetType.getName());
+        }
+        try {
+            return (T) converter.convert(source);
+        } catch (ConversionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ConversionException("Failed to convert '" + source + "' to " + targetType.getName(), e);
+        }
+    }
+
+    /**
+     * @param sourceType
+     * @param targetType not primitive
+     * @return the cached converter, or null if there is none
+     */
+    private Converter<Object, Object> getConverter(Class<?> sourceType, Class<?> targetType) {
+        Map<Class<?>, Map<Class<?>, Converter<Object, Object>>> cache = this.converterCache;
+        Map<Class<?>, Converter<Object, Object>> targets = cache.get(sourceType);
+        if (targets == null) {
+            targets = cache.computeIfAbsent(sourceType, type -> new ConcurrentHashMap<>(8));
+        }
+        Converter<Object, Object> converter = targets.get(targetType);
+        if (converter == null) {
+            // not computeIfAbsent, array converters look up the converter of their components recursively
+            converter = findConverter(sourceType, targetType);
+            targets.put(targetType, converter == null ? NO_CONVERTER : converter);
+        }
+        return converter == NO_CONVERTER ? null : converter;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Converter<Object, Object> findConverter(Class<?> sourceType, Class<?> targetType) {
+        if (targetType.isAssignableFrom(sourceType)) {
+            return IDENTITY;
+        }
+        if (sourceType == String.class && targetType.isEnum()) {
+            return source -> Enum.valueOf((Class) targetType, ((String) source).trim());
+        }
+        if (targetType.isArray()) {
+            return findArrayConverter(sourceType, targetType.getComponentType());
+        }
+        for (Class<?> type : getTypeHierarchy(sourceType)) {
+            Converter<Object, Object> converter = this.converters.get(new ConvertiblePair(type, targetType));
+            if (converter != null) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Strings are split at commas, arrays are converted element by element.
+     */
+    private Converter<Object, Object> findArrayConverter(Class<?> sourceType, Class<?> componentType) {
+        if (sourceType == String.class) {
+            Converter<Object, Object> elementConverter = getConverter(String.class, box(componentType));
+            if (elementConverter == null) {
+                return null;
+            }
+            return source -> {
+                String value = ((String) source).trim();
+                String[] elements = value.isEmpty() ? new String[0] : value.split(",");
+                Object array = Array.newInstance(componentType, elements.length);
+                for (int i = 0; i < elements.length; i++) {
+                    Array.set(array, i, elementConverter.convert(elements[i].trim()));
+                }
+                return array;
+            };
+        }
+        if (sourceType.isArray()) {
+            Class<?> sourceComponentType = sourceType.getComponentType();
+            // elements of an Object[] are only checked one by one
+            if (sourceComponentType != Object.class && getConverter(box(sourceComponentType), box(componentType)) == null) {
+                return null;
+            }
+            return source -> {
+                int length = Array.getLength(source);
+                Object array = Array.newInstance(componentType, length);
+                for (int i = 0; i < length; i++) {
+                    Array.set(array, i, convert(Array.get(source, i), componentType));
+                }
+                return array;
+            };
+        }
+        return null;
+    }
+
+    /**
+     * @return the type, its superclasses, then all their interfaces, nearest first
+     */
+    private static Set<Class<?>> getTypeHierarchy(Class<?> type) {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            hierarchy.add(c);
+            pending.add(c);
+        }
+        while (!pending.isEmpty()) {
+            for (Class<?> interfaceType : pending.poll().getInterfaces()) {
+                if (hierarchy.add(interfaceType)) {
+                    pending.add(interfaceType);
+                }
+            }
+        }
+        // Object is the most general source type, after any interface
+        hierarchy.remove(Object.class);
+        hierarchy.add(Object.class);
+        return hierarchy;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+
+    private static Boolean toBoolean(String source) {
+        switch (source.trim().toLowerCase()) {
+            case "true":
+            case "yes":
+            case "on":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "no":
+            case "off":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("Invalid boolean value '" + source + "'");
+        }
+    }
+
+    private static Character toCharacter(String source) {
+        if (source.length() != 1) {
+            throw new IllegalArgumentException("Can only convert a string of length 1 to a char, not '" + source + "'");
+        }
+        return source.charAt(0);
+    }
+
+    /**
+     * Accepts ISO-8601 durations like PT1M30S, and simple ones like 500ms, 30s or 2h.
+     * A number without unit is in milliseconds.
+     */
+    public static Duration parseDuration(String source) {
+        String value = source.trim();
+        if (value.startsWith("P") || value.startsWith("-P")) {
+            return Duration.parse(value);
+        }
+        int unitStart = value.startsWith("-") ? 1 : 0;
+        while (unitStart < value.length() && Character.isDigit(value.charAt(unitStart))) {
+            unitStart++;
+        }
+        long amount = Long.parseLong(value.substring(0, unitStart));
+        switch (value.substring(unitStart).trim().toLowerCase()) {
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(amount));
+            case "":
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException("Invalid duration '" + source + "'");
+        }
+    }
+
+    private static final class ConvertiblePair {
+        private final Class<?> sourceType;
+        private final Class<?> targetType;
+
+        ConvertiblePair(Class<?> sourceType, Class<?> targetType) {
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ConvertiblePair)) {
+                return false;
+            }
+            ConvertiblePair other = (ConvertiblePair) o;
+            return sourceType == other.sourceType && targetType == other.targetType;
+        }
+
+        @Override
+        public int hashCode() {
+            return sourceType.hashCode() * 31 + targetType.hashCode();
+        }
+    }
+}
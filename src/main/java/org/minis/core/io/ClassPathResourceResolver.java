@@ -0,0 +1,191 @@
+package org.minis.core.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Resolves class path locations to the URLs of the resources they denote.
+ * <p>
+ * A location is a resource name, optionally prefixed with {@code classpath:} for the first match on the
+ * class path or {@code classpath*:} for the matches in every class path root. The name may contain
+ * wildcards: {@code ?} matches one character, {@code *} any characters within a directory and
+ * {@code **} any number of directories, e.g. {@code classpath*:META-INF/minis/*.xml}.
+ * Directories and jar files are searched through NIO. Matches are returned in class path order,
+ * sorted by name within a class path root, so the result is stable from one run to the next.
+ * {@link #visitResources} hands out the matches as NIO paths, so their content can be read without
+ * opening a URL connection per resource.
+ */
+public class ClassPathResourceResolver {
+    public static final String CLASSPATH_URL_PREFIX = "classpath:";
+    public static final String CLASSPATH_ALL_URL_PREFIX = "classpath*:";
+
+    private static final Logger logger = LogManager.getLogger(ClassPathResourceResolver.class);
+
+    private final ClassLoader classLoader;
+
+    public ClassPathResourceResolver() {
+        this(ClassPathResourceResolver.class.getClassLoader());
+    }
+
+    public ClassPathResourceResolver(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param location
+     * @return whether the location may denote any number of resources, rather than exactly one
+     */
+    public static boolean isPattern(String location) {
+        return location.startsWith(CLASSPATH_ALL_URL_PREFIX) || hasWildcard(location);
+    }
+
+    private static boolean hasWildcard(String path) {
+        return path.indexOf('*') >= 0 || path.indexOf('?') >= 0;
+    }
+
+    /**
+     * Receives the resources matching a location, see {@link #visitResources}.
+     */
+    @FunctionalInterface
+    public interface ResourceVisitor {
+        /**
+         * @param name the resource name relative to its class path root, like META-INF/minis/web.xml
+         * @param path the resource; a path in a jar file is only readable during the call
+         * @throws IOException
+         */
+        void visit(String name, Path path) throws IOException;
+    }
+
+    /**
+     * @param location
+     * @return the matching resources, empty if there is none
+     * @throws IOException if a directory or jar on the class path can not be searched
+     */
+    public List<URL> getResources(String location) throws IOException {
+        if (!hasWildcard(location)) {
+            return getRoots(location);
+        }
+        List<URL> resources = new ArrayList<>();
+        visitResources(location, (name, path) -> resources.add(path.toUri().toURL()));
+        logger.debug("Resolved {} to {} resources", location, resources.size());
+        return resources;
+    }
+
+    /**
+     * Calls the visitor for every resource matching the location pattern, in the order of {@link #getResources}.
+     *
+     * @param location a location with wildcards
+     * @param visitor
+     * @throws IOException if a directory or jar on the class path can not be searched, or the visitor fails
+     */
+    public void visitResources(String location, ResourceVisitor visitor) throws IOException {
+        String path = stripPrefix(location);
+        int firstWildcard = Math.min(path.indexOf('*') < 0 ? path.length() : path.indexOf('*'),
+                path.indexOf('?') < 0 ? path.length() : path.indexOf('?'));
+        String rootDir = path.substring(0, path.lastIndexOf('/', firstWildcard) + 1);
+        Pattern pattern = toRegex(path);
+        String rootLocation = location.startsWith(CLASSPATH_ALL_URL_PREFIX) ? CLASSPATH_ALL_URL_PREFIX + rootDir : rootDir;
+        for (URL root : getRoots(rootLocation)) {
+            visitResources(root, rootDir, pattern, visitor);
+        }
+    }
+
+    /**
+     * @return the URLs of a location without wildcards: all of them for classpath*:, the first one otherwise
+     */
+    private List<URL> getRoots(String location) throws IOException {
+        String path = stripPrefix(location);
+        return location.startsWith(CLASSPATH_ALL_URL_PREFIX) ? Collections.list(this.classLoader.getResources(path))
+                : toList(this.classLoader.getResource(path));
+    }
+
+    private static String stripPrefix(String location) {
+        String path = location.startsWith(CLASSPATH_ALL_URL_PREFIX) ? location.substring(CLASSPATH_ALL_URL_PREFIX.length())
+                : location.startsWith(CLASSPATH_URL_PREFIX) ? location.substring(CLASSPATH_URL_PREFIX.length()) : location;
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static List<URL> toList(URL url) {
+        return url == null ? Collections.emptyList() : Collections.singletonList(url);
+    }
+
+    /**
+     * Visits the resources below the root whose name, relative to the class path root, matches the pattern.
+     */
+    private void visitResources(URL root, String rootDir, Pattern pattern, ResourceVisitor visitor) throws IOException {
+        try {
+            if ("file".equals(root.getProtocol())) {
+                visitResources(Paths.get(root.toURI()), rootDir, pattern, visitor);
+            } else if ("jar".equals(root.getProtocol())) {
+                String rootUrl = root.toString();
+                String jarUrl = rootUrl.substring("jar:".length(), rootUrl.indexOf("!/"));
+                try (FileSystem jarFileSystem = FileSystems.newFileSystem(Paths.get(new URI(jarUrl)), (ClassLoader) null)) {
+                    visitResources(jarFileSystem.getPath("/" + rootDir), rootDir, pattern, visitor);
+                }
+            } else {
+                logger.warn("Can not search {} for resources, only directories and jar files are supported", root);
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid class path root " + root, e);
+        }
+    }
+
+    private void visitResources(Path rootPath, String rootDir, Pattern pattern, ResourceVisitor visitor)
+            throws IOException {
+        if (!Files.isDirectory(rootPath)) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(rootPath)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                String relativePath = rootPath.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                String name = rootDir + relativePath;
+                if (pattern.matcher(name).matches()) {
+                    names.add(name);
+                }
+            });
+        }
+        Collections.sort(names);
+        for (String name : names) {
+            visitor.visit(name, rootPath.resolve(name.substring(rootDir.length())));
+        }
+    }
+
+    private static Pattern toRegex(String path) {
+        StringBuilder regex = new StringBuilder(path.length() + 16);
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (path.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 2;
+            } else if (path.startsWith("**", i)) {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if ("\\.[]{}()+-^$|".indexOf(c) >= 0) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
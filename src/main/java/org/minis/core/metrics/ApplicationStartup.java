@@ -0,0 +1,23 @@
+package org.minis.core.metrics;
+
+/**
+ * Records the steps of a context startup: configuration parsing, bean creation and so on.
+ * <p>
+ * Steps started on a thread while another step of that thread is still running are recorded as its
+ * children, so the time spent creating a referenced bean is attributed to the reference and not to the
+ * bean that holds it. The {@link #DEFAULT} implementation records nothing and costs next to nothing;
+ * {@link BufferingApplicationStartup} keeps the steps in memory and dumps them as JSON,
+ * {@link FlightRecorderApplicationStartup} emits them as JFR events.
+ */
+public interface ApplicationStartup {
+
+    ApplicationStartup DEFAULT = DefaultApplicationStartup.INSTANCE;
+
+    /**
+     * Starts a step, to be ended with {@link StartupStep#end()} on the same thread.
+     *
+     * @param name the step name, like minis.beans.create
+     * @return
+     */
+    StartupStep start(String name);
+}
@@ -0,0 +1,220 @@
+package org.minis.core.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the ended steps in memory, up to a fixed capacity, with their wall time, the bytes allocated by
+ * their thread meanwhile, the thread name and their parent step.
+ * <p>
+ * {@link #writeJson} dumps them, including the self time and self allocation of each step, i.e. what is
+ * left once its children are subtracted. Steps ending after the buffer is full are counted but not kept.
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+    private final AtomicReferenceArray<RecordedStep> steps;
+    private final AtomicInteger stepCount = new AtomicInteger();
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final ThreadLocal<RecordedStep> currentStep = new ThreadLocal<>();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * @param capacity the maximum number of kept steps
+     */
+    public BufferingApplicationStartup(int capacity) {
+        this.steps = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        RecordedStep parent = this.currentStep.get();
+        RecordedStep step = new RecordedStep(this.idGenerator.incrementAndGet(), parent, name);
+        this.currentStep.set(step);
+        return step;
+    }
+
+    /**
+     * @return the ended steps kept so far, in the order they ended
+     */
+    public List<RecordedStep> getSteps() {
+        int count = Math.min(this.stepCount.get(), this.steps.length());
+        List<RecordedStep> recorded = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RecordedStep step = this.steps.get(i);
+            // a slot is claimed before it is written
+            if (step != null) {
+                recorded.add(step);
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * @return the number of ended steps that did not fit into the buffer
+     */
+    public int getDroppedStepCount() {
+        return Math.max(0, this.stepCount.get() - this.steps.length());
+    }
+
+    /**
+     * Writes the kept steps as a JSON array of objects with the fields id, parentId (null at the top level),
+     * name, thread, startNanos (since this recorder was created), durationNanos, selfNanos, allocatedBytes,
+     * selfAllocatedBytes (-1 when the JVM can not measure allocation) and tags.
+     *
+     * @param out
+     */
+    public void writeJson(Appendable out) {
+        List<RecordedStep> recorded = getSteps();
+        Map<Long, long[]> childTotals = new HashMap<>();
+        for (RecordedStep step : recorded) {
+            if (step.parentId >= 0) {
+                long[] totals = childTotals.computeIfAbsent(step.parentId, id -> new long[2]);
+                totals[0] += step.durationNanos;
+                totals[1] += Math.max(0, step.allocatedBytes);
+            }
+        }
+        try {
+            out.append("[\n");
+            for (int i = 0; i < recorded.size(); i++) {
+                RecordedStep step = recorded.get(i);
+                long[] totals = childTotals.getOrDefault(step.id, new long[2]);
+                out.append("  {\"id\": ").append(Long.toString(step.id))
+                        .append(", \"parentId\": ").append(step.parentId < 0 ? "null" : Long.toString(step.parentId))
+                        .append(", \"name\": ").append(quote(step.name))
+                        .append(", \"thread\": ").append(quote(step.threadName))
+                        .append(", \"startNanos\": ").append(Long.toString(step.startNanos - this.startNanos))
+                        .append(", \"durationNanos\": ").append(Long.toString(step.durationNanos))
+                        .append(", \"selfNanos\": ").append(Long.toString(step.durationNanos - totals[0]))
+                        .append(", \"allocatedBytes\": ").append(Long.toString(step.allocatedBytes))
+                        .append(", \"selfAllocatedBytes\": ")
+                        .append(Long.toString(step.allocatedBytes < 0 ? -1 : step.allocatedBytes - totals[1]))
+                        .append(", \"tags\": {");
+                int tag = 0;
+                for (Map.Entry<String, String> entry : step.getTags().entrySet()) {
+                    out.append(tag++ == 0 ? "" : ", ").append(quote(entry.getKey())).append(": ").append(quote(entry.getValue()));
+                }
+                out.append("}}").append(i < recorded.size() - 1 ? ",\n" : "\n");
+            }
+            out.append("]\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256 + getSteps().size() * 200);
+        writeJson(json);
+        return json.toString();
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private void record(RecordedStep step) {
+        int index = this.stepCount.getAndIncrement();
+        if (index < this.steps.length()) {
+            this.steps.set(index, step);
+        }
+    }
+
+    /**
+     * A step of a {@link BufferingApplicationStartup}. Its values are final once it has ended.
+     */
+    public final class RecordedStep implements StartupStep {
+        private final long id;
+        private final long parentId;
+        private final RecordedStep parent;
+        private final String name;
+        private final String threadName;
+        private final long startNanos;
+        private final long startAllocatedBytes;
+        private Map<String, String> tags;
+        private long durationNanos;
+        private long allocatedBytes;
+
+        RecordedStep(long id, RecordedStep parent, String name) {
+            this.id = id;
+            this.parent = parent;
+            this.parentId = parent == null ? -1 : parent.id;
+            this.name = name;
+            this.threadName = Thread.currentThread().getName();
+            this.startAllocatedBytes = ThreadAllocation.currentThreadAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public long getParentId() {
+            return parentId;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            if (this.tags == null) {
+                this.tags = new LinkedHashMap<>(4);
+            }
+            this.tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            this.durationNanos = System.nanoTime() - this.startNanos;
+            this.allocatedBytes = this.startAllocatedBytes < 0 ? -1
+                    : ThreadAllocation.currentThreadAllocatedBytes() - this.startAllocatedBytes;
+            currentStep.set(this.parent);
+            record(this);
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public Map<String, String> getTags() {
+            return tags == null ? Collections.emptyMap() : Collections.unmodifiableMap(tags);
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return the bytes allocated by the thread while the step was running, children included, -1 if unknown
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
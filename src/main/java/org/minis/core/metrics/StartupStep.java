@@ -0,0 +1,30 @@
+package org.minis.core.metrics;
+
+/**
+ * One running step of an {@link ApplicationStartup}.
+ */
+public interface StartupStep {
+
+    String getName();
+
+    /**
+     * @return an id unique within the recorder
+     */
+    long getId();
+
+    /**
+     * @return the id of the step this one is nested in, or -1 for a step started at the top level of its thread
+     */
+    long getParentId();
+
+    /**
+     * Attaches a detail, like the name of the bean being created.
+     *
+     * @param key
+     * @param value
+     * @return this step
+     */
+    StartupStep tag(String key, String value);
+
+    void end();
+}
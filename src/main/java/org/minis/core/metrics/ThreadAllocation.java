@@ -0,0 +1,36 @@
+package org.minis.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the bytes allocated by the current thread so far, where the JVM supports it (HotSpot does).
+ */
+final class ThreadAllocation {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = findThreadMXBean();
+
+    private ThreadAllocation() {
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadMXBean() {
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                    return bean;
+                }
+            }
+        } catch (LinkageError e) {
+            // not a HotSpot based JVM
+        }
+        return null;
+    }
+
+    /**
+     * @return the allocated bytes of the current thread, or -1 when unsupported
+     */
+    static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN == null ? -1 : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,338 @@
+package org.minis.core.type.classreading;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the {@link ClassMetadata} of a class straight from its class file bytes.
+ * <p>
+ * Only the constant pool, the class header and the class level attributes are decoded; fields and methods
+ * are skipped by length. No class is loaded or defined, so scanning many classes does not grow Metaspace.
+ * {@link #read(byte[], String)} goes one step further and stops after the constant pool when the class
+ * can not carry the annotation it is looking for.
+ */
+public final class ClassFileReader {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final byte[] bytes;
+    /**
+     * Offset of the tag of each constant pool entry, 0 for the unusable slot after a long or double
+     */
+    private final int[] constantOffsets;
+    private final String[] utf8Cache;
+    /**
+     * Offset of the access flags, right after the constant pool
+     */
+    private final int headerOffset;
+
+    private ClassFileReader(byte[] bytes) {
+        this.bytes = bytes;
+        if (readInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        int constantCount = readUnsignedShort(8);
+        this.constantOffsets = new int[constantCount];
+        this.utf8Cache = new String[constantCount];
+        int offset = 10;
+        for (int i = 1; i < constantCount; i++) {
+            this.constantOffsets[i] = offset;
+            int tag = bytes[offset] & 0xFF;
+            switch (tag) {
+                case 1: // Utf8
+                    offset += 3 + readUnsignedShort(offset + 1);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    offset += 5;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    offset += 9;
+                    i++;
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    offset += 3;
+                    break;
+                case 15: // MethodHandle
+                    offset += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at offset " + offset);
+            }
+        }
+        this.headerOffset = offset;
+    }
+
+    /**
+     * @param classFile the content of a .class file
+     * @return
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static ClassMetadata read(byte[] classFile) {
+        return new ClassFileReader(classFile).readMetadata();
+    }
+
+    /**
+     * Reads the class only if its constant pool holds the descriptor of the given annotation, which every
+     * class annotated with it has. Most classes are rejected after the constant pool.
+     *
+     * @param classFile
+     * @param annotationClassName like org.minis.stereotype.Component
+     * @return the metadata, or null when the class is certainly not annotated with it
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static ClassMetadata read(byte[] classFile, String annotationClassName) {
+        ClassFileReader reader = new ClassFileReader(classFile);
+        byte[] descriptor = ('L' + annotationClassName.replace('.', '/') + ';').getBytes(StandardCharsets.UTF_8);
+        return reader.containsUtf8(descriptor) ? reader.readMetadata() : null;
+    }
+
+    private boolean containsUtf8(byte[] value) {
+        for (int offset : this.constantOffsets) {
+            if (offset != 0 && this.bytes[offset] == 1 && readUnsignedShort(offset + 1) == value.length) {
+                int start = offset + 3;
+                int i = 0;
+                while (i < value.length && this.bytes[start + i] == value[i]) {
+                    i++;
+                }
+                if (i == value.length) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private ClassMetadata readMetadata() {
+        int offset = this.headerOffset;
+        int accessFlags = readUnsignedShort(offset);
+        int thisClass = readUnsignedShort(offset + 2);
+        String className = readClassName(thisClass);
+        int superClass = readUnsignedShort(offset + 4);
+        String superClassName = superClass == 0 ? null : readClassName(superClass);
+
+        int interfaceCount = readUnsignedShort(offset + 6);
+        offset += 8;
+        List<String> interfaceNames = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(readClassName(readUnsignedShort(offset)));
+            offset += 2;
+        }
+
+        // fields, then methods
+        for (int member = 0; member < 2; member++) {
+            int memberCount = readUnsignedShort(offset);
+            offset += 2;
+            for (int i = 0; i < memberCount; i++) {
+                offset = skipAttributes(offset + 6);
+            }
+        }
+
+        boolean independent = true;
+        Map<String, Map<String, Object>> annotations = Collections.emptyMap();
+        int attributeCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = readUtf8(readUnsignedShort(offset));
+            int length = readInt(offset + 2);
+            int start = offset + 6;
+            if ("RuntimeVisibleAnnotations".equals(attributeName)) {
+                annotations = readAnnotations(start);
+            } else if ("InnerClasses".equals(attributeName)) {
+                independent = isIndependent(start, thisClass);
+            }
+            offset = start + length;
+        }
+        return new ClassMetadata(className, superClassName, interfaceNames, accessFlags, independent, annotations);
+    }
+
+    private int skipAttributes(int offset) {
+        int attributeCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < attributeCount; i++) {
+            offset += 6 + readInt(offset + 2);
+        }
+        return offset;
+    }
+
+    /**
+     * A class listed as inner class of itself is nested; only a static member class is independent.
+     */
+    private boolean isIndependent(int offset, int thisClass) {
+        int classCount = readUnsignedShort(offset);
+        for (int i = 0; i < classCount; i++) {
+            int entry = offset + 2 + i * 8;
+            if (readUnsignedShort(entry) == thisClass) {
+                int outerClass = readUnsignedShort(entry + 2);
+                int innerAccessFlags = readUnsignedShort(entry + 6);
+                return outerClass != 0 && (innerAccessFlags & 0x0008) != 0;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Map<String, Object>> readAnnotations(int offset) {
+        int annotationCount = readUnsignedShort(offset);
+        Map<String, Map<String, Object>> annotations = new LinkedHashMap<>();
+        int[] position = {offset + 2};
+        for (int i = 0; i < annotationCount; i++) {
+            String type = descriptorToClassName(readUtf8(readUnsignedShort(position[0])));
+            annotations.put(type, readAnnotationAttributes(position));
+        }
+        return annotations;
+    }
+
+    /**
+     * @param position the offset of the annotation's type index, advanced past the annotation
+     */
+    private Map<String, Object> readAnnotationAttributes(int[] position) {
+        int pairCount = readUnsignedShort(position[0] + 2);
+        position[0] += 4;
+        Map<String, Object> attributes = new HashMap<>();
+        for (int i = 0; i < pairCount; i++) {
+            String name = readUtf8(readUnsignedShort(position[0]));
+            position[0] += 2;
+            attributes.put(name, readElementValue(position));
+        }
+        return attributes;
+    }
+
+    private Object readElementValue(int[] position) {
+        int offset = position[0];
+        char tag = (char) this.bytes[offset];
+        position[0] = offset + 3;
+        switch (tag) {
+            case 'B':
+                return (byte) readInt(this.constantOffsets[readUnsignedShort(offset + 1)] + 1);
+            case 'C':
+                return (char) readInt(this.constantOffsets[readUnsignedShort(offset + 1)] + 1);
+            case 'S':
+                return (short) readInt(this.constantOffsets[readUnsignedShort(offset + 1)] + 1);
+            case 'Z':
+                return readInt(this.constantOffsets[readUnsignedShort(offset + 1)] + 1) != 0;
+            case 'I':
+                return readInt(this.constantOffsets[readUnsignedShort(offset + 1)] + 1);
+            case 'F':
+                return Float.intBitsToFloat(readInt(this.constantOffsets[readUnsignedShort(offset + 1)] + 1));
+            case 'J':
+                return readLong(this.constantOffsets[readUnsignedShort(offset + 1)] + 1);
+            case 'D':
+                return Double.longBitsToDouble(readLong(this.constantOffsets[readUnsignedShort(offset + 1)] + 1));
+            case 's':
+                return readUtf8(readUnsignedShort(offset + 1));
+            case 'c':
+                return descriptorToClassName(readUtf8(readUnsignedShort(offset + 1)));
+            case 'e':
+                position[0] = offset + 5;
+                return readUtf8(readUnsignedShort(offset + 3));
+            case '@':
+                position[0] = offset + 1;
+                return readAnnotationAttributes(position);
+            case '[':
+                int length = readUnsignedShort(offset + 1);
+                Object[] values = new Object[length];
+                for (int i = 0; i < length; i++) {
+                    values[i] = readElementValue(position);
+                }
+                return values;
+            default:
+                throw new IllegalArgumentException("Unknown annotation element tag " + tag);
+        }
+    }
+
+    private String readClassName(int classIndex) {
+        return readUtf8(readUnsignedShort(this.constantOffsets[classIndex] + 1)).replace('/', '.');
+    }
+
+    /**
+     * Lorg/minis/Foo; becomes org.minis.Foo, V becomes void and so on
+     */
+    private static String descriptorToClassName(String descriptor) {
+        if (descriptor.length() == 1) {
+            switch (descriptor.charAt(0)) {
+                case 'V':
+                    return "void";
+                case 'Z':
+                    return "boolean";
+                case 'B':
+                    return "byte";
+                case 'C':
+                    return "char";
+                case 'S':
+                    return "short";
+                case 'I':
+                    return "int";
+                case 'J':
+                    return "long";
+                case 'F':
+                    return "float";
+                case 'D':
+                    return "double";
+                default:
+                    return descriptor;
+            }
+        }
+        if (descriptor.startsWith("[")) {
+            return descriptorToClassName(descriptor.substring(1)) + "[]";
+        }
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    /**
+     * Decodes the modified UTF-8 of a constant pool entry
+     */
+    private String readUtf8(int index) {
+        String value = this.utf8Cache[index];
+        if (value != null) {
+            return value;
+        }
+        int offset = this.constantOffsets[index];
+        int length = readUnsignedShort(offset + 1);
+        int position = offset + 3;
+        int end = position + length;
+        char[] chars = new char[length];
+        int count = 0;
+        while (position < end) {
+            int b = this.bytes[position++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (this.bytes[position++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((this.bytes[position++] & 0x3F) << 6)
+                        | (this.bytes[position++] & 0x3F));
+            }
+        }
+        value = new String(chars, 0, count);
+        this.utf8Cache[index] = value;
+        return value;
+    }
+
+    private int readUnsignedShort(int offset) {
+        return ((this.bytes[offset] & 0xFF) << 8) | (this.bytes[offset + 1] & 0xFF);
+    }
+
+    private int readInt(int offset) {
+        return ((this.bytes[offset] & 0xFF) << 24) | ((this.bytes[offset + 1] & 0xFF) << 16)
+                | ((this.bytes[offset + 2] & 0xFF) << 8) | (this.bytes[offset + 3] & 0xFF);
+    }
+
+    private long readLong(int offset) {
+        return ((long) readInt(offset) << 32) | (readInt(offset + 4) & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,92 @@
+package org.minis.core.type.classreading;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What {@link ClassFileReader} found in a class file: names, modifiers and the runtime visible
+ * annotations of the class, without the class being loaded.
+ */
+public final class ClassMetadata {
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final String className;
+    private final String superClassName;
+    private final List<String> interfaceNames;
+    private final int accessFlags;
+    private final boolean independent;
+    private final Map<String, Map<String, Object>> annotations;
+
+    ClassMetadata(String className, String superClassName, List<String> interfaceNames, int accessFlags,
+                  boolean independent, Map<String, Map<String, Object>> annotations) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+        this.accessFlags = accessFlags;
+        this.independent = independent;
+        this.annotations = Collections.unmodifiableMap(annotations);
+    }
+
+    /**
+     * @return the binary name, like org.minis.test.AServiceImpl or a.Outer$Inner
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return null for java.lang.Object and module-info
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+
+    /**
+     * @return whether the class can be instantiated on its own
+     */
+    public boolean isConcrete() {
+        return !isInterface() && !isAbstract();
+    }
+
+    /**
+     * @return whether the class is top level or a static nested class, i.e. not an inner, local or anonymous class
+     */
+    public boolean isIndependent() {
+        return independent;
+    }
+
+    public boolean hasAnnotation(String annotationClassName) {
+        return annotations.containsKey(annotationClassName);
+    }
+
+    /**
+     * Element values are Strings, boxed primitives, enum constant names, class names, nested annotation
+     * attribute maps or Object arrays of these. Defaults are not included, as they live in the annotation's
+     * own class file.
+     *
+     * @param annotationClassName
+     * @return the explicitly set elements, or null if the class is not annotated with it
+     */
+    public Map<String, Object> getAnnotationAttributes(String annotationClassName) {
+        return annotations.get(annotationClassName);
+    }
+}
@@ -0,0 +1,25 @@
+package org.minis.stereotype;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class to be registered as a singleton bean by component scanning,
+ * see {@link org.minis.context.annotation.ClassPathBeanDefinitionScanner}.
+ * <p>
+ * Only annotations written directly on the class are detected, annotations meta-annotated
+ * with {@code @Component} are not.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Component {
+
+    /**
+     * @return the bean name, by default the simple class name with a lower case first letter
+     */
+    String value() default "";
+}
@@ -0,0 +1,112 @@
+package org.minis.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emits every step as a {@value StartupStepEvent#NAME} JFR event, with its duration, thread and parent step,
+ * e.g. with {@code -XX:StartFlightRecording:filename=startup.jfr}. Needs a JVM with JFR, i.e. 11+ or 8u262+.
+ * <p>
+ * Events are only committed while a recording has them enabled, outside of that a step costs one
+ * small allocation.
+ */
+public class FlightRecorderApplicationStartup implements ApplicationStartup {
+    private final AtomicLong idGenerator = new AtomicLong();
+    private final ThreadLocal<FlightRecorderStep> currentStep = new ThreadLocal<>();
+
+    @Override
+    public StartupStep start(String name) {
+        FlightRecorderStep parent = this.currentStep.get();
+        FlightRecorderStep step = new FlightRecorderStep(this.idGenerator.incrementAndGet(), parent, name);
+        this.currentStep.set(step);
+        return step;
+    }
+
+    @Name(StartupStepEvent.NAME)
+    @Label("Startup Step")
+    @Category({"Minis", "Startup"})
+    @Description("A step of a minis application context startup")
+    @StackTrace(false)
+    static final class StartupStepEvent extends Event {
+        static final String NAME = "org.minis.StartupStep";
+
+        @Label("Id")
+        long stepId;
+
+        @Label("Parent Id")
+        long parentId;
+
+        @Label("Name")
+        String name;
+
+        @Label("Tags")
+        String tags;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    private final class FlightRecorderStep implements StartupStep {
+        private final FlightRecorderStep parent;
+        private final StartupStepEvent event = new StartupStepEvent();
+        private final long startAllocatedBytes;
+        private StringBuilder tags;
+
+        FlightRecorderStep(long id, FlightRecorderStep parent, String name) {
+            this.parent = parent;
+            this.event.stepId = id;
+            this.event.parentId = parent == null ? -1 : parent.event.stepId;
+            this.event.name = name;
+            this.startAllocatedBytes = this.event.isEnabled() ? ThreadAllocation.currentThreadAllocatedBytes() : -1;
+            this.event.begin();
+        }
+
+        @Override
+        public String getName() {
+            return event.name;
+        }
+
+        @Override
+        public long getId() {
+            return event.stepId;
+        }
+
+        @Override
+        public long getParentId() {
+            return event.parentId;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            if (this.event.isEnabled()) {
+                if (this.tags == null) {
+                    this.tags = new StringBuilder();
+                } else {
+                    this.tags.append(", ");
+                }
+                this.tags.append(key).append('=').append(value);
+            }
+            return this;
+        }
+
+        @Override
+        public void end() {
+            currentStep.set(this.parent);
+            this.event.end();
+            if (this.event.shouldCommit()) {
+                this.event.tags = this.tags == null ? null : this.tags.toString();
+                this.event.allocatedBytes = this.startAllocatedBytes < 0 ? -1
+                        : ThreadAllocation.currentThreadAllocatedBytes() - this.startAllocatedBytes;
+                this.event.commit();
+            }
+        }
+    }
+}
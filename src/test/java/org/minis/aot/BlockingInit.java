@@ -0,0 +1,13 @@
+package org.minis.aot;
+
+import java.util.concurrent.CountDownLatch;
+
+public class BlockingInit {
+    public static volatile CountDownLatch entered = new CountDownLatch(1);
+    public static volatile CountDownLatch released = new CountDownLatch(1);
+
+    public void init() throws InterruptedException {
+        entered.countDown();
+        released.await();
+    }
+}
@@ -0,0 +1,7 @@
+package org.minis.aot;
+
+public class FailingInit {
+    public void init() {
+        throw new IllegalStateException("init failed");
+    }
+}
@@ -0,0 +1,112 @@
+package org.minis.aot;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.minis.beans.factory.support.BeanInitializationException;
+import org.minis.beans.factory.support.GreeterHolder;
+import org.minis.beans.factory.support.GreeterImpl;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A factory generated and compiled from a config file refreshes like the reflective one, and creates its
+ * singletons under the same per-bean creation locks.
+ */
+class GeneratedBeanFactoryTest {
+    private static final String CONFIG = "aot-refresh.xml";
+
+    @TempDir
+    static Path outputDir;
+    private static Class<?> factoryClass;
+
+    @BeforeAll
+    static void generate() throws Exception {
+        Path sourceFile = new BeanFactoryGenerator().generate(CONFIG, outputDir);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler, "needs a JDK");
+        int status = compiler.run(null, null, null, "-nowarn", "-d", outputDir.toString(),
+                "-cp", System.getProperty("java.class.path"), sourceFile.toString());
+        assertEquals(0, status);
+        ClassLoader classLoader = new URLClassLoader(new URL[]{outputDir.toUri().toURL()},
+                GeneratedBeanFactoryTest.class.getClassLoader());
+        factoryClass = Class.forName(AotBeanFactories.getGeneratedClassName(CONFIG), true, classLoader);
+    }
+
+    private static SimpleBeanFactory newFactory() throws ReflectiveOperationException {
+        return (SimpleBeanFactory) factoryClass.getDeclaredConstructor().newInstance();
+    }
+
+    @Test
+    void refreshFreezesAndContinuesAfterAFailedBean() throws Exception {
+        SimpleBeanFactory beanFactory = newFactory();
+        beanFactory.refresh();
+
+        assertTrue(beanFactory.isConfigurationFrozen());
+        assertTrue(beanFactory.getBeanDefinition("greeter").isFrozen());
+        GreeterImpl greeter = (GreeterImpl) beanFactory.getBean("greeter");
+        assertSame(greeter, ((GreeterHolder) beanFactory.getBean("holder")).getGreeter());
+        assertSame(greeter, beanFactory.getBean(GreeterImpl.class));
+        assertFalse(beanFactory.containsSingleton("failing"));
+    }
+
+    @Test
+    void parallelRefreshReportsFailures() throws Exception {
+        SimpleBeanFactory beanFactory = newFactory();
+        beanFactory.setRefreshExecutor(ForkJoinPool.commonPool());
+        BeanInitializationException e = assertThrows(BeanInitializationException.class, beanFactory::refresh);
+        assertEquals(1, e.getFailures().size());
+        assertTrue(e.getFailures().containsKey("failing"));
+        assertTrue(beanFactory.containsSingleton("greeter"));
+    }
+
+    @Test
+    void slowInitDoesNotBlockOtherBeans() throws Exception {
+        SimpleBeanFactory beanFactory = newFactory();
+        BlockingInit.entered = new CountDownLatch(1);
+        BlockingInit.released = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Object> blocking = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return beanFactory.getBean("blocking");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            assertTrue(BlockingInit.entered.await(10, TimeUnit.SECONDS));
+            // created while the init of the blocking bean is in progress on the other thread
+            CompletableFuture<Object> other = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return beanFactory.getBean("other");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertNotNull(other.get(10, TimeUnit.SECONDS));
+            BlockingInit.released.countDown();
+            assertNotNull(blocking.get(10, TimeUnit.SECONDS));
+        } finally {
+            BlockingInit.released.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
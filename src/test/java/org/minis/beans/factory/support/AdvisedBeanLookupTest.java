@@ -0,0 +1,67 @@
+package org.minis.beans.factory.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.minis.aop.JdkDynamicAopProxy;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.xml.XmlBeanDefinitionReader;
+import org.minis.core.io.ClassPathXmlResource;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An advised bean in a reference cycle: the beans of the cycle are given its proxy, not the raw bean, and the
+ * lookups by type see the proxy it is registered as.
+ */
+class AdvisedBeanLookupTest {
+    private SimpleBeanFactory beanFactory;
+
+    @BeforeEach
+    void refresh() {
+        CountingGreeterAdvisor.CALLS.set(0);
+        beanFactory = new SimpleBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new ClassPathXmlResource("advised-cycle.xml"));
+        beanFactory.refresh();
+    }
+
+    @Test
+    void cycleIsGivenTheProxy() throws BeansException {
+        Object greeter = beanFactory.getBean("greeter");
+        assertTrue(Proxy.isProxyClass(greeter.getClass()));
+        GreeterHolder holder = (GreeterHolder) beanFactory.getBean("holder");
+        assertSame(greeter, holder.getGreeter());
+        assertSame(holder, ((GreeterImpl) JdkDynamicAopProxy.getTarget(greeter)).getHolder());
+
+        assertEquals("hello", holder.getGreeter().greet());
+        assertEquals(1, CountingGreeterAdvisor.CALLS.get());
+    }
+
+    @Test
+    void lookupsByTypeSeeTheProxy() throws BeansException {
+        Object greeter = beanFactory.getBean("greeter");
+        assertSame(greeter, beanFactory.getBean(Greeter.class));
+        Map<String, Greeter> greeters = beanFactory.getBeansOfType(Greeter.class);
+        assertEquals(1, greeters.size());
+        assertSame(greeter, greeters.get("greeter"));
+
+        assertThrows(BeansException.class, () -> beanFactory.getBean(GreeterImpl.class));
+        assertTrue(beanFactory.getBeansOfType(GreeterImpl.class).isEmpty());
+    }
+
+    @Test
+    void injectingTheProxyAsItsClassFails() {
+        assertThrows(BeansException.class, () -> beanFactory.getBean("concreteHolder"));
+    }
+
+    @Test
+    void prototypeInjectionFailsLikeSingletonInjection() {
+        assertThrows(BeansException.class, () -> beanFactory.getBean("concreteHolderPrototype"));
+        assertThrows(BeansException.class, () -> beanFactory.getBean("danglingHolderPrototype"));
+    }
+}
@@ -0,0 +1,22 @@
+package org.minis.beans.factory.support;
+
+public class ArrayHolder {
+    private final int[] numbers;
+    private String[] names;
+
+    public ArrayHolder(int[] numbers) {
+        this.numbers = numbers;
+    }
+
+    public int[] getNumbers() {
+        return numbers;
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+
+    public void setNames(String[] names) {
+        this.names = names;
+    }
+}
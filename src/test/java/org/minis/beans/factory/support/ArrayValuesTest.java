@@ -0,0 +1,35 @@
+package org.minis.beans.factory.support;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.xml.StreamingXmlBeanDefinitionReader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * Array literals are converted once per definition, but every instance gets arrays of its own.
+ */
+class ArrayValuesTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void instancesDoNotShareArrays(boolean lambdas) throws BeansException {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        if (lambdas) {
+            beanFactory.setInstantiationStrategy(new LambdaInstantiationStrategy());
+        }
+        new StreamingXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("array-values.xml");
+
+        ArrayHolder first = (ArrayHolder) beanFactory.getBean("arrays");
+        first.getNumbers()[0] = 42;
+        first.getNames()[0] = "changed";
+        ArrayHolder second = (ArrayHolder) beanFactory.getBean("arrays");
+
+        assertNotSame(first.getNumbers(), second.getNumbers());
+        assertNotSame(first.getNames(), second.getNames());
+        assertArrayEquals(new int[]{1, 2, 3}, second.getNumbers());
+        assertArrayEquals(new String[]{"a", "b"}, second.getNames());
+    }
+}
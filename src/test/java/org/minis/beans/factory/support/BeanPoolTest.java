@@ -0,0 +1,104 @@
+package org.minis.beans.factory.support;
+
+import org.junit.jupiter.api.Test;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.PoolConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Returns the pool has to reject, and evictions racing with borrows and returns on a pool with a minimum size.
+ */
+class BeanPoolTest {
+    private static final int THREADS = 32;
+
+    @Test
+    void returningAnInstanceTwiceIsRejected() throws BeansException {
+        BeanPool<Object> pool = new BeanPool<>("pooled", new PoolConfig(0, 2, null, Duration.ofMillis(10)), Object::new);
+        Object first = pool.borrow();
+        pool.release(first);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(first));
+
+        assertEquals(1, pool.getIdleCount());
+        Object a = pool.borrow();
+        Object b = pool.borrow();
+        assertNotSame(a, b);
+        // both permits are in use, a double return must not have added a third one
+        assertThrows(BeansException.class, pool::borrow);
+    }
+
+    @Test
+    void returningAForeignInstanceIsRejected() throws BeansException {
+        BeanPool<Object> pool = new BeanPool<>("pooled", new PoolConfig(0, 1, null, null), Object::new);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(new Object()));
+
+        Object borrowed = pool.borrow();
+        BeanPool<Object> other = new BeanPool<>("other", new PoolConfig(0, 1, null, null), Object::new);
+        assertThrows(IllegalArgumentException.class, () -> other.release(borrowed));
+        pool.release(borrowed);
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void closingALeaseTwiceReturnsItOnce() throws BeansException {
+        BeanPool<Object> pool = new BeanPool<>("pooled", new PoolConfig(0, 1, null, null), Object::new);
+        BeanPool.Lease<Object> lease = pool.lease();
+        lease.close();
+        lease.close();
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getSize());
+    }
+
+    @Test
+    void concurrentEvictionsKeepTheMinimumSize() throws Exception {
+        int minSize = 4;
+        BeanPool<Object> pool = new BeanPool<>("pooled", new PoolConfig(minSize, THREADS, Duration.ofNanos(1), null),
+                Object::new);
+        pool.prefill();
+        AtomicBoolean belowMinimum = new AtomicBoolean();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 5_000; i++) {
+                        pool.release(pool.borrow());
+                        pool.evictIdle();
+                        if (pool.getSize() < minSize) {
+                            belowMinimum.set(true);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> failures.get(0).toString());
+        assertTrue(pool.getEvictionCount() > 0);
+        assertFalse(belowMinimum.get(), "pool shrank below its minimum size");
+        Thread.sleep(1);
+        pool.evictIdle();
+        assertEquals(minSize, pool.getSize());
+        assertEquals(minSize, pool.getIdleCount());
+    }
+}
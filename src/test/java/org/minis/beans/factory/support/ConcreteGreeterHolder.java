@@ -0,0 +1,13 @@
+package org.minis.beans.factory.support;
+
+public class ConcreteGreeterHolder {
+    private GreeterImpl greeter;
+
+    public GreeterImpl getGreeter() {
+        return greeter;
+    }
+
+    public void setGreeter(GreeterImpl greeter) {
+        this.greeter = greeter;
+    }
+}
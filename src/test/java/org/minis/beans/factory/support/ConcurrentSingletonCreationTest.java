@@ -0,0 +1,117 @@
+package org.minis.beans.factory.support;
+
+import org.junit.jupiter.api.Test;
+import org.minis.BeanDefinition;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PropertyValues;
+import org.minis.context.ClassPathXmlApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Thousands of threads look up the beans of a context that is not refreshed, all lazy-init, so every bean is
+ * created by whichever threads ask for it first: chains, a reference cycle and beans referencing both. Definitions
+ * registered meanwhile are seen by the lookups by type.
+ */
+class ConcurrentSingletonCreationTest {
+    private static final int THREADS = 2_000;
+
+    @Test
+    void concurrentLookupsCreateEverySingletonOnce() throws InterruptedException {
+        CountedBean.INSTANCES.clear();
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+                new String[]{"concurrent-creation.xml"}, false);
+        String[] beanNames = context.getBeanDefinitionNames();
+        Map<String, Object> firstSeen = new ConcurrentHashMap<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < beanNames.length; i++) {
+                        // every thread starts at another bean, so creations overlap in every order
+                        String beanName = beanNames[(offset + i) % beanNames.length];
+                        Object bean = context.getBean(beanName);
+                        Object first = firstSeen.putIfAbsent(beanName, bean);
+                        if (first != null && first != bean) {
+                            throw new AssertionError("Two instances of " + beanName);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " threads failed, first: " + failures.get(0));
+        for (String beanName : beanNames) {
+            assertEquals(1, CountedBean.INSTANCES.get(beanName).get(), beanName);
+        }
+        for (String beanName : beanNames) {
+            CountedBean bean = (CountedBean) firstSeen.get(beanName);
+            if (bean.getRef() != null) {
+                assertSame(firstSeen.get(bean.getRef().getName()), bean.getRef(), beanName);
+            }
+        }
+    }
+
+    @Test
+    void registrationsDuringLookupsByType() throws InterruptedException, BeansException {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        int count = 2_000;
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Thread registrar = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                BeanDefinition beanDefinition = new BeanDefinition("holder" + i, GreeterHolder.class.getName());
+                beanDefinition.setConstructorArgumentValues(new ConstructorArgumentValues());
+                beanDefinition.setPropertyValues(new PropertyValues());
+                beanDefinition.setDependsOn(BeanDefinition.NO_DEPENDS_ON);
+                beanFactory.registerBeanDefinition(beanDefinition.getId(), beanDefinition);
+            }
+        });
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            // every lookup rebuilds the type index the previous registration dropped
+            Thread thread = new Thread(() -> {
+                try {
+                    while (registrar.isAlive()) {
+                        beanFactory.getBeansOfType(GreeterHolder.class);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads.add(thread);
+        }
+        registrar.start();
+        threads.forEach(Thread::start);
+        registrar.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " threads failed, first: " + failures.get(0));
+        assertEquals(count, beanFactory.getBeanDefinitionNames().length);
+        assertEquals(count, beanFactory.getBeansOfType(GreeterHolder.class).size());
+    }
+}
@@ -0,0 +1,32 @@
+package org.minis.beans.factory.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts its instances by name, for the tests of concurrent creation.
+ */
+public class CountedBean {
+    static final Map<String, AtomicInteger> INSTANCES = new ConcurrentHashMap<>();
+
+    private final String name;
+    private CountedBean ref;
+
+    public CountedBean(String name) {
+        this.name = name;
+        INSTANCES.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CountedBean getRef() {
+        return ref;
+    }
+
+    public void setRef(CountedBean ref) {
+        this.ref = ref;
+    }
+}
@@ -0,0 +1,17 @@
+package org.minis.beans.factory.support;
+
+import org.minis.aop.DefaultPointcutAdvisor;
+import org.minis.aop.InterfacePointcut;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CountingGreeterAdvisor extends DefaultPointcutAdvisor {
+    public static final AtomicInteger CALLS = new AtomicInteger();
+
+    public CountingGreeterAdvisor() {
+        super(new InterfacePointcut(Greeter.class, "greet"), invocation -> {
+            CALLS.incrementAndGet();
+            return invocation.proceed();
+        });
+    }
+}
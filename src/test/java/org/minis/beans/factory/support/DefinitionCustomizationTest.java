@@ -0,0 +1,64 @@
+package org.minis.beans.factory.support;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.minis.BeanDefinition;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.config.ConstructorArgumentValues;
+import org.minis.beans.factory.config.PropertyValue;
+import org.minis.beans.factory.config.PropertyValues;
+import org.minis.beans.factory.xml.BeanDefinitionSnapshot;
+import org.minis.beans.factory.xml.XmlBeanDefinitionReader;
+import org.minis.context.annotation.ClassPathBeanDefinitionScanner;
+import org.minis.core.io.ClassPathXmlResource;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Definitions without properties, however they were loaded, can be given properties until the refresh freezes
+ * them; only then they share the empty values.
+ */
+class DefinitionCustomizationTest {
+    private static final String CONFIG = "customized-definitions.xml";
+
+    @Test
+    void xmlDefinitionsCanBeCustomized() throws BeansException {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new ClassPathXmlResource(CONFIG));
+        assertCustomizable(beanFactory, "holder");
+    }
+
+    @Test
+    void snapshotDefinitionsCanBeCustomized(@TempDir Path snapshotDir) throws BeansException {
+        // the first load parses the XML and writes the snapshot, the second reads it
+        BeanDefinitionSnapshot.loadBeanDefinitions(CONFIG, snapshotDir, new SimpleBeanFactory());
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        BeanDefinitionSnapshot.loadBeanDefinitions(CONFIG, snapshotDir, beanFactory);
+        assertCustomizable(beanFactory, "holder");
+    }
+
+    @Test
+    void scannedDefinitionsCanBeCustomized() throws BeansException {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new ClassPathXmlResource(CONFIG));
+        new ClassPathBeanDefinitionScanner(beanFactory).scan("org.minis.beans.factory.support.scanned");
+        assertCustomizable(beanFactory, "scannedHolder");
+    }
+
+    private static void assertCustomizable(SimpleBeanFactory beanFactory, String holderName) throws BeansException {
+        BeanDefinition holderDefinition = beanFactory.getBeanDefinition(holderName);
+        holderDefinition.getPropertyValues().addPropertyValue(
+                new PropertyValue(Greeter.class.getName(), "greeter", "greeter", true));
+        beanFactory.refresh();
+
+        GreeterHolder holder = (GreeterHolder) beanFactory.getBean(holderName);
+        assertSame(beanFactory.getBean("greeter"), holder.getGreeter());
+        BeanDefinition greeterDefinition = beanFactory.getBeanDefinition("greeter");
+        assertTrue(greeterDefinition.isFrozen());
+        assertSame(PropertyValues.EMPTY, greeterDefinition.getPropertyValues());
+        assertSame(ConstructorArgumentValues.EMPTY, greeterDefinition.getConstructorArgumentValues());
+    }
+}
@@ -0,0 +1,5 @@
+package org.minis.beans.factory.support;
+
+public interface Greeter {
+    String greet();
+}
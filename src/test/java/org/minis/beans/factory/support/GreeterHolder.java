@@ -0,0 +1,13 @@
+package org.minis.beans.factory.support;
+
+public class GreeterHolder {
+    private Greeter greeter;
+
+    public Greeter getGreeter() {
+        return greeter;
+    }
+
+    public void setGreeter(Greeter greeter) {
+        this.greeter = greeter;
+    }
+}
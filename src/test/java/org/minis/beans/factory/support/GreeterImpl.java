@@ -0,0 +1,18 @@
+package org.minis.beans.factory.support;
+
+public class GreeterImpl implements Greeter {
+    private GreeterHolder holder;
+
+    @Override
+    public String greet() {
+        return "hello";
+    }
+
+    public GreeterHolder getHolder() {
+        return holder;
+    }
+
+    public void setHolder(GreeterHolder holder) {
+        this.holder = holder;
+    }
+}
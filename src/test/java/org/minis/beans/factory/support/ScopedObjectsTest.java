@@ -0,0 +1,80 @@
+package org.minis.beans.factory.support;
+
+import org.junit.jupiter.api.Test;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.ObjectFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creations in one scope exclude each other per name only: a slow creation holds up the lookups of its own name,
+ * which share its instance, but not the creation of another name.
+ */
+class ScopedObjectsTest {
+
+    @Test
+    void slowCreationOnlyHoldsUpItsOwnName() throws Exception {
+        ScopedObjects objects = new ScopedObjects();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        AtomicInteger creations = new AtomicInteger();
+        Object slow = new Object();
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> get(objects, "slow", () -> {
+            creations.incrementAndGet();
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new BeansException("interrupted", e);
+            }
+            return slow;
+        }));
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Object> second = CompletableFuture.supplyAsync(() -> get(objects, "slow", () -> {
+            creations.incrementAndGet();
+            return new Object();
+        }));
+
+        Object other = new Object();
+        assertSame(other, CompletableFuture.supplyAsync(() -> get(objects, "other", () -> other))
+                .get(10, TimeUnit.SECONDS));
+
+        released.countDown();
+        assertSame(slow, first.get(10, TimeUnit.SECONDS));
+        assertSame(slow, second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void failedCreationIsRetried() throws BeansException {
+        ScopedObjects objects = new ScopedObjects();
+        assertThrows(IllegalStateException.class, () -> objects.get("bean", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        Object bean = new Object();
+        assertSame(bean, objects.get("bean", () -> bean));
+    }
+
+    @Test
+    void selfReferenceFails() {
+        ScopedObjects objects = new ScopedObjects();
+        assertThrows(BeansException.class, () -> objects.get("bean", () -> objects.get("bean", Object::new)));
+    }
+
+    private static Object get(ScopedObjects objects, String name, ObjectFactory<?> objectFactory) {
+        try {
+            return objects.get(name, objectFactory);
+        } catch (BeansException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
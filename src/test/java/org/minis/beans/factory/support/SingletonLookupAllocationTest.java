@@ -0,0 +1,60 @@
+package org.minis.beans.factory.support;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.minis.beans.BeansException;
+import org.minis.beans.factory.BeanFactory;
+import org.minis.context.ClassPathXmlApplicationContext;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * A warm lookup of a cached singleton must not allocate, through the factory or the context.
+ */
+class SingletonLookupAllocationTest {
+    private static final int WARMUP = 200_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    void factoryLookupAllocatesNothing() throws BeansException {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("beans.xml");
+        assertEquals(0, allocatedBytesPerLookup(context.getBeanFactory(), "aService"));
+    }
+
+    @Test
+    void contextLookupAllocatesNothing() throws BeansException {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("beans.xml");
+        assertEquals(0, allocatedBytesPerLookup(context, "aService"));
+    }
+
+    private static long allocatedBytesPerLookup(BeanFactory beanFactory, String beanName) throws BeansException {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Object expected = beanFactory.getBean(beanName);
+        for (int i = 0; i < WARMUP; i++) {
+            assertSame(expected, beanFactory.getBean(beanName));
+        }
+        // the measurement itself may allocate a few bytes, far less than one per lookup
+        long before = threads.getThreadAllocatedBytes(threadId);
+        Object last = null;
+        for (int i = 0; i < LOOKUPS; i++) {
+            last = beanFactory.getBean(beanName);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertSame(expected, last);
+        return allocated / LOOKUPS;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads instanceof com.sun.management.ThreadMXBean,
+                "Allocation counters are not available on this JVM");
+        com.sun.management.ThreadMXBean allocationCounters = (com.sun.management.ThreadMXBean) threads;
+        Assumptions.assumeTrue(allocationCounters.isThreadAllocatedMemorySupported());
+        allocationCounters.setThreadAllocatedMemoryEnabled(true);
+        return allocationCounters;
+    }
+}
@@ -0,0 +1,8 @@
+package org.minis.beans.factory.support.scanned;
+
+import org.minis.beans.factory.support.GreeterHolder;
+import org.minis.stereotype.Component;
+
+@Component("scannedHolder")
+public class ScannedGreeterHolder extends GreeterHolder {
+}
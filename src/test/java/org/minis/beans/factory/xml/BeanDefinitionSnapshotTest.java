@@ -0,0 +1,48 @@
+package org.minis.beans.factory.xml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.minis.BeanDefinition;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A snapshot is only used while it matches what parsing would register, which for a {@code <component-scan>}
+ * depends on the class path and not only on the XML.
+ */
+class BeanDefinitionSnapshotTest {
+    private static final String CONFIG = "scanned-components.xml";
+
+    @TempDir
+    Path snapshotDir;
+
+    @Test
+    void scanningConfigIsNotSnapshotted() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        BeanDefinitionSnapshot.loadBeanDefinitions(CONFIG, snapshotDir, beanFactory);
+        assertArrayEquals(new String[]{"greeter", "scannedHolder"}, beanFactory.getBeanDefinitionNames());
+        assertFalse(Files.exists(snapshotDir.resolve(CONFIG + ".snapshot")));
+    }
+
+    @Test
+    void changedScanResultIsSeenUnderTheSameXml() throws Exception {
+        // a snapshot of the same XML, taken while the scanned package held no component
+        long checksum = BeanDefinitionSnapshot.checksum(getClass().getClassLoader().getResource(CONFIG));
+        Path snapshotFile = snapshotDir.resolve(CONFIG + ".snapshot");
+        BeanDefinition greeter = new BeanDefinition("greeter", "org.minis.beans.factory.support.GreeterImpl");
+        BeanDefinitionSnapshot.write(snapshotFile, checksum, Collections.singletonList(greeter));
+        assertTrue(Files.exists(snapshotFile));
+
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        BeanDefinitionSnapshot.loadBeanDefinitions(CONFIG, snapshotDir, beanFactory);
+        assertArrayEquals(new String[]{"greeter", "scannedHolder"}, beanFactory.getBeanDefinitionNames());
+        assertFalse(Files.exists(snapshotFile));
+    }
+}
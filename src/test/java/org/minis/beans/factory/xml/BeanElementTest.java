@@ -0,0 +1,42 @@
+package org.minis.beans.factory.xml;
+
+import org.junit.jupiter.api.Test;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+import org.minis.core.io.ClassPathXmlResource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Both readers register the {@code <bean>} elements only and reject any other top-level element, rather than
+ * reading it as a bean without id and class.
+ */
+class BeanElementTest {
+
+    @Test
+    void streamingReaderRejectsUnknownElements() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> new StreamingXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("unknown-element.xml"));
+        assertTrue(e.getMessage().contains("<alias>"), e.getMessage());
+    }
+
+    @Test
+    void domReaderRejectsUnknownElements() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        RuntimeException e = assertThrows(RuntimeException.class, () -> new XmlBeanDefinitionReader(beanFactory)
+                .loadBeanDefinitions(new ClassPathXmlResource("unknown-element.xml")));
+        assertTrue(e.getMessage().contains("<alias>"), e.getMessage());
+    }
+
+    @Test
+    void readersRegisterTheSameBeans() {
+        SimpleBeanFactory streamed = new SimpleBeanFactory();
+        assertEquals(2, new StreamingXmlBeanDefinitionReader(streamed).loadBeanDefinitions("customized-definitions.xml"));
+        SimpleBeanFactory parsed = new SimpleBeanFactory();
+        new XmlBeanDefinitionReader(parsed).loadBeanDefinitions(new ClassPathXmlResource("customized-definitions.xml"));
+        assertArrayEquals(parsed.getBeanDefinitionNames(), streamed.getBeanDefinitionNames());
+    }
+}
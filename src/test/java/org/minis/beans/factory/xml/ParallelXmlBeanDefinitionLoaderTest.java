@@ -0,0 +1,35 @@
+package org.minis.beans.factory.xml;
+
+import org.junit.jupiter.api.Test;
+import org.minis.beans.factory.support.SimpleBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Files parsed apart are merged like one file: a component scanned by both is registered once, a bean
+ * defined by both fails the load.
+ */
+class ParallelXmlBeanDefinitionLoaderTest {
+
+    @Test
+    void overlappingScansRegisterComponentsOnce() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        ParallelXmlBeanDefinitionLoader loader = new ParallelXmlBeanDefinitionLoader(beanFactory);
+        loader.setParallelism(2);
+        assertEquals(3, loader.loadBeanDefinitions("scanned-components.xml", "scanned-components-overlap.xml"));
+        assertArrayEquals(new String[]{"greeter", "scannedHolder", "holder"}, beanFactory.getBeanDefinitionNames());
+    }
+
+    @Test
+    void beansDefinedTwiceFail() {
+        SimpleBeanFactory beanFactory = new SimpleBeanFactory();
+        ParallelXmlBeanDefinitionLoader loader = new ParallelXmlBeanDefinitionLoader(beanFactory);
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> loader.loadBeanDefinitions("scanned-components.xml", "scanned-components.xml"));
+        assertTrue(e.getMessage().contains("'greeter'"), e.getMessage());
+        assertEquals(0, beanFactory.getBeanDefinitionNames().length);
+    }
+}
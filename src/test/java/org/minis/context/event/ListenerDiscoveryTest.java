@@ -0,0 +1,23 @@
+package org.minis.context.event;
+
+import org.junit.jupiter.api.Test;
+import org.minis.context.ClassPathXmlApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Only singleton listener beans are registered on refresh; listener beans of other scopes are neither created
+ * nor fail the refresh.
+ */
+class ListenerDiscoveryTest {
+
+    @Test
+    void onlySingletonListenersAreRegistered() {
+        RefreshedListener.INSTANCES.set(0);
+        RefreshedListener.EVENTS.set(0);
+        new ClassPathXmlApplicationContext("scoped-listeners.xml");
+
+        assertEquals(1, RefreshedListener.INSTANCES.get());
+        assertEquals(1, RefreshedListener.EVENTS.get());
+    }
+}
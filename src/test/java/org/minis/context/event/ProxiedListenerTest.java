@@ -0,0 +1,61 @@
+package org.minis.context.event;
+
+import org.junit.jupiter.api.Test;
+import org.minis.aop.DefaultPointcutAdvisor;
+import org.minis.aop.InterfacePointcut;
+import org.minis.aop.JdkDynamicAopProxy;
+import org.minis.context.ApplicationEvent;
+import org.minis.context.ApplicationListener;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A listener bean proxied by an advisor still only receives the events its class declares.
+ */
+class ProxiedListenerTest {
+
+    @Test
+    void proxiedListenerReceivesItsEventTypeOnly() {
+        GreetingListener target = new GreetingListener();
+        AtomicInteger intercepted = new AtomicInteger();
+        Object listener = JdkDynamicAopProxy.createProxy(target, Collections.singletonList(new DefaultPointcutAdvisor(
+                new InterfacePointcut(ApplicationListener.class, "onApplicationEvent"), invocation -> {
+            intercepted.incrementAndGet();
+            return invocation.proceed();
+        })));
+        assertTrue(Proxy.isProxyClass(listener.getClass()));
+
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+        multicaster.addApplicationListener((ApplicationListener<?>) listener);
+        multicaster.multicastEvent(new ApplicationEvent(this));
+        multicaster.multicastEvent(new GreetingEvent(this));
+
+        assertEquals(1, target.received.size());
+        assertTrue(target.received.get(0) instanceof GreetingEvent);
+        assertEquals(1, intercepted.get());
+    }
+
+    static class GreetingEvent extends ApplicationEvent {
+        private static final long serialVersionUID = 1L;
+
+        GreetingEvent(Object source) {
+            super(source);
+        }
+    }
+
+    static class GreetingListener implements ApplicationListener<GreetingEvent> {
+        final List<ApplicationEvent> received = new ArrayList<>();
+
+        @Override
+        public void onApplicationEvent(GreetingEvent event) {
+            this.received.add(event);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.minis.context.event;
+
+import org.minis.context.ApplicationListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RefreshedListener implements ApplicationListener<ContextRefreshedEvent> {
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+    public static final AtomicInteger EVENTS = new AtomicInteger();
+
+    public RefreshedListener() {
+        INSTANCES.incrementAndGet();
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        EVENTS.incrementAndGet();
+    }
+}